@@ -1,7 +1,11 @@
 package ai.scoring.config;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 
+import io.quarkus.runtime.configuration.MemorySize;
+
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 
@@ -11,20 +15,243 @@ public interface AIScoringConfig {
 		SEMANTIC_SIMILARITY, AI_JUDGE
 	}
 
+	enum CorrelationMode {
+		DATABASE, MEMORY
+	}
+
+	enum PipelineMode {
+		DATABASE, MEMORY
+	}
+
 	@WithDefault("AI_JUDGE")
 	ScoringStrategy scoringStrategy();
 
 	AIJudgeConfig aiJudge();
 	SemanticSimilarityConfig semanticSimilarity();
+	PipelineConfig pipeline();
+	CorrelationConfig correlation();
+	ReorderConfig reorder();
+	SampleCacheConfig sampleCache();
+	SampleIndexConfig sampleIndex();
+	EvaluationConfig evaluation();
+	PartitionsConfig partitions();
+	SamplingConfig sampling();
+	VerdictCacheConfig verdictCache();
+	DeduplicationConfig deduplication();
+	ScoreWriterConfig scoreWriter();
 
 	interface SemanticSimilarityConfig {
 		@WithDefault("75")
 		Double threshold();
 
 		Optional<String> modelConfigName();
+
+		@WithDefault("true")
+		boolean storeEmbeddings();
+
+		@WithDefault("10000")
+		int embedQueueCapacity();
+
+		@WithDefault("64M")
+		MemorySize embeddingCacheMaxMemory();
 	}
 
 	interface AIJudgeConfig {
 		Optional<String> modelConfigName();
 	}
+
+	interface PipelineConfig {
+		@WithDefault("true")
+		boolean enabled();
+
+		// In DATABASE mode interactions wait in scoring_jobs, shared by every replica's workers
+		@WithDefault("MEMORY")
+		PipelineMode mode();
+
+		// MEMORY mode only
+		@WithDefault("1024")
+		int queueCapacity();
+
+		@WithDefault("4")
+		int workers();
+
+		@WithDefault("250ms")
+		Duration enqueueTimeout();
+
+		@WithDefault("30s")
+		Duration shutdownTimeout();
+
+		// DATABASE mode only. Should comfortably cover scoring one interaction, or it gets scored twice
+		@WithDefault("2m")
+		Duration lease();
+
+		@WithDefault("1s")
+		Duration pollInterval();
+
+		@WithDefault("5")
+		int maxAttempts();
+
+		// Multiplied by the attempts so far
+		@WithDefault("10s")
+		Duration retryDelay();
+	}
+
+	interface CorrelationConfig {
+		@WithDefault("DATABASE")
+		CorrelationMode mode();
+
+		// MEMORY mode only
+		@WithDefault("5m")
+		Duration ttl();
+
+		// MEMORY mode only
+		@WithDefault("64M")
+		MemorySize maxMemory();
+	}
+
+	interface ReorderConfig {
+		@WithDefault("true")
+		boolean enabled();
+
+		@WithDefault("10s")
+		Duration window();
+
+		// Completed events past this are still held, but in the database
+		@WithDefault("10000")
+		long maxEvents();
+	}
+
+	interface SampleCacheConfig {
+		@WithDefault("true")
+		boolean enabled();
+
+		@WithDefault("128M")
+		MemorySize maxMemory();
+	}
+
+	interface SampleIndexConfig {
+		@WithDefault("true")
+		boolean enabled();
+
+		@WithDefault("10")
+		int topK();
+
+		@WithDefault("16")
+		int maxConnections();
+
+		@WithDefault("100")
+		int efConstruction();
+
+		@WithDefault("64")
+		int efSearch();
+
+		@WithDefault("500")
+		int rebuildBatchSize();
+	}
+
+	interface EvaluationConfig {
+		@WithDefault("4")
+		int parallelism();
+
+		@WithDefault("true")
+		boolean earlyStop();
+
+		// Should match the threshold the calling application fails rescores at (quarkus.aiscoring.threshold)
+		@WithDefault("75")
+		double threshold();
+
+		// Pass rates within this many percentage points of the threshold are always evaluated in full
+		@WithDefault("10")
+		double indifference();
+
+		@WithDefault("0.05")
+		double alpha();
+
+		@WithDefault("0.05")
+		double beta();
+	}
+
+	interface PartitionsConfig {
+		@WithDefault("true")
+		boolean maintenanceEnabled();
+
+		@WithDefault("1h")
+		Duration maintenanceInterval();
+
+		@WithDefault("3")
+		int premadeMonths();
+
+		// Whole months of interactions to keep, including the current one. Unset keeps everything
+		Optional<Integer> retentionMonths();
+	}
+
+	interface SamplingConfig {
+		@WithDefault("false")
+		boolean enabled();
+
+		// An unsampled rescore has no verdict, so the calling application lets it through
+		@WithDefault("false")
+		boolean includeRescores();
+
+		@WithDefault("1.0")
+		double defaultRate();
+
+		// Rates by source, keyed by <APPLICATION_NAME>::<INTERFACE_NAME>::<METHOD_NAME>
+		Map<String, Double> rates();
+
+		// On a 0-1 scale whatever the mode
+		@WithDefault("0.1")
+		double targetStandardDeviation();
+
+		@WithDefault("0.01")
+		double minRate();
+
+		@WithDefault("20")
+		int warmup();
+
+		@WithDefault("0.05")
+		double smoothing();
+	}
+
+	interface VerdictCacheConfig {
+		@WithDefault("true")
+		boolean enabled();
+
+		// Also how often expired persisted verdicts are deleted
+		@WithDefault("10m")
+		Duration ttl();
+
+		@WithDefault("10000")
+		long maxEntries();
+
+		@WithDefault("false")
+		boolean persist();
+	}
+
+	interface DeduplicationConfig {
+		@WithDefault("true")
+		boolean enabled();
+
+		// Up to twice this many are remembered at any time
+		@WithDefault("100000")
+		int expectedEvents();
+
+		@WithDefault("0.01")
+		double falsePositiveRate();
+	}
+
+	interface ScoreWriterConfig {
+		@WithDefault("true")
+		boolean enabled();
+
+		@WithDefault("100")
+		int batchSize();
+
+		@WithDefault("500ms")
+		Duration flushInterval();
+
+		// Past this, scores are written straight away by whoever produced them
+		@WithDefault("10000")
+		int capacity();
+	}
 }
@@ -0,0 +1,192 @@
+package ai.scoring.correlation;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.CorrelationMode;
+import ai.scoring.domain.event.InteractionCompletedEvent;
+import ai.scoring.domain.event.InteractionStartedEvent;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.repository.InteractionEventRepository;
+import ai.scoring.repository.InteractionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+
+// Pairs completed events with their started events
+// In MEMORY mode started events wait in a bounded buffer, and only evicted ones are written to interaction_events, on a spill thread of their own
+@ApplicationScoped
+public class InteractionCorrelator {
+	// Rough per-entry cost of the event, its invocation context and the cache node, on top of the strings themselves
+	private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+	private final InteractionEventRepository interactionEventRepository;
+	private final InteractionRepository interactionRepository;
+	private final CorrelationMode mode;
+	private final Cache<UUID, InteractionStartedEvent> startedEvents;
+	// Evicted but not yet written, where a completed event can still find them
+	private final Map<UUID, InteractionStartedEvent> spilling = new ConcurrentHashMap<>();
+	private final ExecutorService spiller = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("correlation-spill").factory());
+	private final MeterProvider<Counter> lookupCounter;
+	private final MeterProvider<Counter> spillCounter;
+
+	public InteractionCorrelator(InteractionEventRepository interactionEventRepository, InteractionRepository interactionRepository, AIScoringConfig config, MeterRegistry meterRegistry) {
+		var correlationConfig = config.correlation();
+
+		this.interactionEventRepository = interactionEventRepository;
+		this.interactionRepository = interactionRepository;
+		this.mode = correlationConfig.mode();
+		this.startedEvents = Caffeine.newBuilder()
+			.expireAfterWrite(correlationConfig.ttl())
+			.maximumWeight(correlationConfig.maxMemory().asLongValue())
+			.weigher((UUID interactionId, InteractionStartedEvent event) -> estimateSize(event))
+			// Runs as part of the eviction, so a completed event racing the spill finds the entry either in the buffer or in spilling
+			.evictionListener((UUID interactionId, InteractionStartedEvent event, RemovalCause cause) -> {
+				this.spilling.put(interactionId, event);
+				this.spiller.execute(() -> spill(event, cause));
+			})
+			.scheduler(Scheduler.systemScheduler())
+			.build();
+
+		this.lookupCounter = Counter.builder("scorer.correlation.lookups")
+			.description("Completed events correlated with their started event, tagged by where the started event was found")
+			.baseUnit("events")
+			.withRegistry(meterRegistry);
+
+		this.spillCounter = Counter.builder("scorer.correlation.spilled")
+			.description("Started events written to the database because they were evicted from the correlation buffer")
+			.baseUnit("events")
+			.withRegistry(meterRegistry);
+
+		Gauge.builder("scorer.correlation.buffered", this.startedEvents, Cache::estimatedSize)
+			.description("Started events waiting in memory for their completed event")
+			.baseUnit("events")
+			.register(meterRegistry);
+	}
+
+	public boolean parksInMemory() {
+		return this.mode == CorrelationMode.MEMORY;
+	}
+
+	// Parking the same started event again (e.g. a retried delivery) leaves just the one waiting
+	// In MEMORY mode this should only be called once the transaction that stored the started event has committed (see StartedEventParked)
+	public void park(InteractionStartedEvent event) {
+		switch (this.mode) {
+			case MEMORY -> this.startedEvents.put(event.getInvocationContext().getInteractionId(), event);
+			case DATABASE -> this.interactionEventRepository.persistIfAbsent(event);
+		}
+	}
+
+	public Optional<InteractionStartedEvent> takeBuffered(InteractionCompletedEvent event) {
+		return takeBuffered(event.getInvocationContext().getInteractionId());
+	}
+
+	// Doesn't look in memory, so takeBuffered should come first
+	public Optional<Interaction> insertCorrelated(InteractionCompletedEvent event, boolean scored) {
+		var interaction = this.interactionRepository.insertCorrelated(event, scored);
+		recordLookup(interaction.isPresent() ? "database" : "miss");
+
+		return interaction;
+	}
+
+	void onStop(@Observes ShutdownEvent shutdownEvent) {
+		if ((this.mode == CorrelationMode.MEMORY) && (this.startedEvents.estimatedSize() > 0)) {
+			Log.infof("Spilling %d buffered started events before shutdown", this.startedEvents.estimatedSize());
+
+			this.startedEvents.asMap().keySet().forEach(interactionId ->
+				Optional.ofNullable(this.startedEvents.asMap().remove(interactionId))
+					.ifPresent(event -> {
+						this.spilling.put(interactionId, event);
+						spill(event, RemovalCause.EXPLICIT);
+					})
+			);
+		}
+
+		this.spiller.shutdown();
+
+		try {
+			if (!this.spiller.awaitTermination(10, TimeUnit.SECONDS)) {
+				Log.warnf("Shut down with %d evicted started events not yet spilled", this.spilling.size());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Optional<InteractionStartedEvent> takeBuffered(UUID interactionId) {
+		if (this.mode == CorrelationMode.MEMORY) {
+			// The buffer first, since an entry only moves to spilling on its way out of the buffer
+			var startedEvent = Optional.ofNullable(this.startedEvents.asMap().remove(interactionId))
+				.or(() -> Optional.ofNullable(this.spilling.remove(interactionId)));
+
+			startedEvent.ifPresent(e -> recordLookup("memory"));
+
+			return startedEvent;
+		}
+
+		return Optional.empty();
+	}
+
+	// Written first and only then taken out of spilling, so there's never a moment it can't be found
+	// A completed event that took it in the meantime has already used it, so the row is deleted again
+	private void spill(InteractionStartedEvent event, RemovalCause cause) {
+		var interactionId = event.getInvocationContext().getInteractionId();
+
+		try {
+			var written = QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.persistIfAbsent(event));
+
+			if (!this.spilling.remove(interactionId, event)) {
+				if (written) {
+					QuarkusTransaction.requiringNew().run(() -> this.interactionEventRepository.deleteById(event.getId()));
+				}
+
+				return;
+			}
+
+			this.spillCounter.withTags("cause", cause.name().toLowerCase()).increment();
+		}
+		catch (RuntimeException error) {
+			this.spilling.remove(interactionId, event);
+			Log.errorf(error, "Error spilling started event for interaction %s", interactionId);
+		}
+	}
+
+	private void recordLookup(String source) {
+		this.lookupCounter.withTags("source", source).increment();
+	}
+
+	private static int estimateSize(InteractionStartedEvent event) {
+		var invocationContext = event.getInvocationContext();
+		var chars = length(event.getSystemMessage()) +
+			length(event.getUserMessage()) +
+			length(invocationContext.getApplicationName()) +
+			length(invocationContext.getInterfaceName()) +
+			length(invocationContext.getMethodName());
+
+		return ENTRY_OVERHEAD_BYTES + (2 * chars);
+	}
+
+	private static int length(String value) {
+		return (value != null) ? value.length() : 0;
+	}
+}
@@ -0,0 +1,161 @@
+package ai.scoring.correlation;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.CorrelationMode;
+import ai.scoring.config.AIScoringConfig.ReorderConfig;
+import ai.scoring.domain.event.InteractionCompletedEvent;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.repository.InteractionEventRepository;
+import ai.scoring.repository.InteractionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+
+// NORMAL completed events that got here before their started event, waiting a while for it to show up
+// Every held event is also written to interaction_events with its ingest transaction, so memory is only the fast path
+@ApplicationScoped
+public class ReorderBuffer {
+	private static final int LOCK_STRIPES = 64;
+
+	private final ReorderConfig config;
+	private final CorrelationMode correlationMode;
+	private final InteractionRepository interactionRepository;
+	private final InteractionEventRepository interactionEventRepository;
+	private final Cache<UUID, InteractionCompletedEvent> completedEvents;
+	private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+	private final MeterProvider<Counter> eventCounter;
+	// In MEMORY mode only this replica holds events, so the database only has ones memory doesn't until then
+	private volatile Instant lookInDatabaseUntil = Instant.MIN;
+
+	public ReorderBuffer(AIScoringConfig config, InteractionRepository interactionRepository, InteractionEventRepository interactionEventRepository, MeterRegistry meterRegistry) {
+		this.config = config.reorder();
+		this.correlationMode = config.correlation().mode();
+		this.interactionRepository = interactionRepository;
+		this.interactionEventRepository = interactionEventRepository;
+		this.completedEvents = Caffeine.newBuilder()
+			.expireAfterWrite(this.config.window())
+			.maximumSize(this.config.maxEvents())
+			.evictionListener((UUID interactionId, InteractionCompletedEvent event, RemovalCause cause) -> {
+				if (cause == RemovalCause.SIZE) {
+					lookInDatabase();
+				}
+			})
+			.build();
+
+		for (var i = 0; i < LOCK_STRIPES; i++) {
+			this.locks[i] = new ReentrantLock();
+		}
+
+		this.eventCounter = Counter.builder("scorer.reorder.events")
+			.description("Completed events that arrived before their started event, tagged by what became of them")
+			.baseUnit("events")
+			.withRegistry(meterRegistry);
+
+		Gauge.builder("scorer.reorder.buffered", this.completedEvents, Cache::estimatedSize)
+			.description("Completed events waiting for their started event")
+			.baseUnit("events")
+			.register(meterRegistry);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (this.config.enabled() && this.interactionEventRepository.hasCompletedEvents()) {
+			lookInDatabase();
+		}
+	}
+
+	public boolean holds(InteractionMode interactionMode) {
+		return this.config.enabled() && (interactionMode == InteractionMode.NORMAL);
+	}
+
+	public boolean isEnabled() {
+		return this.config.enabled();
+	}
+
+	// Has to be called in the transaction that accepts the event
+	public void hold(InteractionCompletedEvent event) {
+		var interactionId = event.getInvocationContext().getInteractionId();
+		Log.debugf("Holding completed event for interaction %s until its started event arrives", interactionId);
+
+		this.interactionEventRepository.persistIfAbsent(event);
+		this.completedEvents.put(interactionId, event);
+		this.eventCounter.withTags("outcome", "parked").increment();
+	}
+
+	public Optional<InteractionCompletedEvent> take(UUID interactionId) {
+		var completedEvent = Optional.ofNullable(this.completedEvents.asMap().remove(interactionId));
+
+		if (completedEvent.isPresent()) {
+			this.interactionEventRepository.deleteCompletedEvent(interactionId);
+		}
+		else if ((this.correlationMode == CorrelationMode.DATABASE) || Instant.now().isBefore(this.lookInDatabaseUntil)) {
+			completedEvent = this.interactionEventRepository.takeCompletedEvent(interactionId);
+		}
+
+		completedEvent.ifPresent(event -> this.eventCounter.withTags("outcome", "matched").increment());
+		return completedEvent;
+	}
+
+	void forgetAll() {
+		this.completedEvents.invalidateAll();
+		lookInDatabase();
+	}
+
+	private void lookInDatabase() {
+		var until = Instant.now().plus(this.config.window());
+
+		if (until.isAfter(this.lookInDatabaseUntil)) {
+			this.lookInDatabaseUntil = until;
+		}
+	}
+
+	@Scheduled(every = "{ai.scoring.reorder.window}", concurrentExecution = ConcurrentExecution.SKIP)
+	void deleteExpired() {
+		if (this.config.enabled()) {
+			this.interactionEventRepository.deleteStoredCompletedEvents();
+			var expired = this.interactionEventRepository.deleteCompletedEventsBefore(Instant.now().minus(this.config.window()));
+
+			if (expired > 0) {
+				Log.warnf("Dropping %d completed events, their started events didn't arrive in time", expired);
+				this.eventCounter.withTags("outcome", "expired").increment(expired);
+			}
+		}
+	}
+
+	// Started and completed events of the same interaction take turns here, so neither is parked while the other is being parked
+	// The database's lock, as it has to last until the started event's transaction commits
+	public <T> T exclusively(UUID interactionId, Supplier<T> action) {
+		if (this.correlationMode == CorrelationMode.DATABASE) {
+			this.interactionRepository.lockInteraction(interactionId);
+			return action.get();
+		}
+
+		var lock = this.locks[Math.floorMod(interactionId.hashCode(), LOCK_STRIPES)];
+		lock.lock();
+
+		try {
+			return action.get();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package ai.scoring.correlation;
+
+import ai.scoring.domain.event.InteractionStartedEvent;
+import ai.scoring.domain.interaction.InteractionMode;
+
+public record StartedEventParked(InteractionStartedEvent event, InteractionMode interactionMode) {
+	public StartedEventParked {
+		if (event == null) {
+			throw new IllegalArgumentException("event must not be null");
+		}
+
+		if (interactionMode == null) {
+			throw new IllegalArgumentException("interactionMode must not be null");
+		}
+	}
+}
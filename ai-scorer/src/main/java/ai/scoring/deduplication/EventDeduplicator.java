@@ -0,0 +1,71 @@
+package ai.scoring.deduplication;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.DeduplicationConfig;
+import ai.scoring.domain.event.InteractionEvent;
+import ai.scoring.domain.event.InteractionStartedEvent;
+import ai.scoring.domain.interaction.InteractionMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Decides which incoming events could be redeliveries and so need checking against what's already stored
+// Events this replica has definitely never seen skip the check, which is most of them
+// The filter only knows about this replica, so a redelivery that lands somewhere else is caught by the database constraints instead
+@ApplicationScoped
+public class EventDeduplicator {
+	private final DeduplicationConfig config;
+	private final RecentEventFilter recentEvents;
+	private final MeterProvider<Counter> checkCounter;
+	private final MeterProvider<Counter> duplicateCounter;
+
+	public EventDeduplicator(AIScoringConfig config, MeterRegistry meterRegistry) {
+		this.config = config.deduplication();
+		this.recentEvents = new RecentEventFilter(this.config.expectedEvents(), this.config.falsePositiveRate());
+
+		this.checkCounter = Counter.builder("scorer.deduplication.checks")
+			.description("Incoming interaction events, tagged by whether they had to be checked against the database for being a redelivery")
+			.baseUnit("events")
+			.withRegistry(meterRegistry);
+
+		this.duplicateCounter = Counter.builder("scorer.deduplication.duplicates")
+			.description("Redelivered interaction events acknowledged without being stored or scored again")
+			.baseUnit("events")
+			.withRegistry(meterRegistry);
+	}
+
+	public boolean requiresStoredCheck(InteractionEvent event, InteractionMode interactionMode) {
+		var required = isStoredCheckRequired(event, interactionMode);
+		this.checkCounter.withTags("result", required ? "checked" : "skipped").increment();
+
+		return required;
+	}
+
+	public void handled(InteractionEvent event) {
+		if (this.config.enabled()) {
+			// Recorded even if the transaction later rolls back, which only costs the next delivery a check
+			this.recentEvents.add(event.getInvocationContext().getInteractionId(), event.getEventType());
+		}
+	}
+
+	public void duplicate(InteractionEvent event) {
+		this.duplicateCounter.withTags("event_type", event.getEventType().name()).increment();
+	}
+
+	private boolean isStoredCheckRequired(InteractionEvent event, InteractionMode interactionMode) {
+		if (!this.config.enabled()) {
+			// Without the filter only events that finish an interaction are checked, since the unique index already makes storing a started event idempotent
+			return !(event instanceof InteractionStartedEvent);
+		}
+
+		// Hedged rescores race each other, possibly on different replicas, and each one costs judge calls
+		// Their started events cost nothing and storing one twice is already idempotent, so they aren't worth the lock and lookup
+		if (interactionMode == InteractionMode.RESCORE) {
+			return !(event instanceof InteractionStartedEvent);
+		}
+
+		return this.recentEvents.mightContain(event.getInvocationContext().getInteractionId(), event.getEventType());
+	}
+}
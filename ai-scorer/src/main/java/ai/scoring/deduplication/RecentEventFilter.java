@@ -0,0 +1,123 @@
+package ai.scoring.deduplication;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import ai.scoring.domain.event.InteractionEventType;
+
+// Remembers which (interaction, event type) pairs have been seen recently, in two Bloom filters that take turns
+// Once the current one holds expectedEvents it becomes the previous one, so the last expectedEvents events are always remembered
+public final class RecentEventFilter {
+	private final int expectedEvents;
+	private final int bits;
+	private final int hashes;
+	private volatile Generation current;
+	private volatile Generation previous;
+
+	public RecentEventFilter(int expectedEvents, double falsePositiveRate) {
+		if (expectedEvents < 1) {
+			throw new IllegalArgumentException("expectedEvents must be at least 1");
+		}
+
+		if ((falsePositiveRate <= 0) || (falsePositiveRate >= 1)) {
+			throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+		}
+
+		var optimalBits = Math.ceil(-expectedEvents * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+
+		this.expectedEvents = expectedEvents;
+		this.bits = (int) Math.min(Integer.MAX_VALUE - Long.SIZE, Math.max(Long.SIZE, optimalBits));
+		this.hashes = Math.max(1, (int) Math.round(((double) this.bits / expectedEvents) * Math.log(2)));
+		this.current = new Generation(this.bits);
+		this.previous = new Generation(this.bits);
+	}
+
+	public boolean mightContain(UUID interactionId, InteractionEventType eventType) {
+		var h1 = hash1(interactionId, eventType);
+		var h2 = hash2(interactionId, eventType);
+
+		return this.current.mightContain(h1, h2) || this.previous.mightContain(h1, h2);
+	}
+
+	public void add(UUID interactionId, InteractionEventType eventType) {
+		var generation = this.current;
+		generation.add(hash1(interactionId, eventType), hash2(interactionId, eventType));
+
+		if (generation.added.incrementAndGet() >= this.expectedEvents) {
+			rotate(generation);
+		}
+	}
+
+	public int bits() {
+		return this.bits;
+	}
+
+	public int hashes() {
+		return this.hashes;
+	}
+
+	private synchronized void rotate(Generation full) {
+		// Another thread may have rotated it already
+		if (this.current == full) {
+			this.previous = full;
+			this.current = new Generation(this.bits);
+		}
+	}
+
+	private static long hash1(UUID interactionId, InteractionEventType eventType) {
+		return mix(interactionId.getMostSignificantBits() + eventType.ordinal());
+	}
+
+	private static long hash2(UUID interactionId, InteractionEventType eventType) {
+		// Odd, so stepping by it visits different bits for each hash
+		return mix(interactionId.getLeastSignificantBits() ^ ((long) eventType.ordinal() << 32)) | 1;
+	}
+
+	// Stafford's variant 13 of the MurmurHash3 finalizer, as used by SplittableRandom
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private final class Generation {
+		private final AtomicLongArray words;
+		private final AtomicLong added = new AtomicLong();
+
+		private Generation(int bits) {
+			this.words = new AtomicLongArray((bits + Long.SIZE - 1) / Long.SIZE);
+		}
+
+		private boolean mightContain(long h1, long h2) {
+			for (var i = 0; i < hashes; i++) {
+				var bit = index(h1, h2, i);
+
+				if ((this.words.get(bit >>> 6) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		private void add(long h1, long h2) {
+			for (var i = 0; i < hashes; i++) {
+				var bit = index(h1, h2, i);
+				var mask = 1L << bit;
+				var word = bit >>> 6;
+
+				var value = this.words.get(word);
+
+				while (((value & mask) == 0) && !this.words.compareAndSet(word, value, value | mask)) {
+					value = this.words.get(word);
+				}
+			}
+		}
+
+		// Double hashing (Kirsch and Mitzenmacher) rather than k independent hash functions
+		private int index(long h1, long h2, int i) {
+			return (int) Long.remainderUnsigned(h1 + (i * h2), bits);
+		}
+	}
+}
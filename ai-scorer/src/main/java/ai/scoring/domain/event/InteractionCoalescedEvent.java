@@ -0,0 +1,104 @@
+package ai.scoring.domain.event;
+
+// Both halves of an interaction, already paired up by the publisher
+// Never stored in interaction_events - it goes straight to an Interaction
+public class InteractionCoalescedEvent extends InteractionEvent {
+	private String systemMessage;
+	private String userMessage;
+	private String result;
+
+	protected InteractionCoalescedEvent() {
+		super();
+	}
+
+	private InteractionCoalescedEvent(Builder builder) {
+		super(builder);
+		this.systemMessage = builder.systemMessage;
+		this.userMessage = builder.userMessage;
+		this.result = builder.result;
+	}
+
+	@Override
+	public InteractionEventType getEventType() {
+		return InteractionEventType.INTERACTION_COALESCED;
+	}
+
+	public String getSystemMessage() {
+		return systemMessage;
+	}
+
+	public void setSystemMessage(String systemMessage) {
+		this.systemMessage = systemMessage;
+	}
+
+	public String getUserMessage() {
+		return userMessage;
+	}
+
+	public void setUserMessage(String userMessage) {
+		this.userMessage = userMessage;
+	}
+
+	public String getResult() {
+		return result;
+	}
+
+	public void setResult(String result) {
+		this.result = result;
+	}
+
+	public Builder toBuilder() {
+		return new Builder(this);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	@Override
+	public String toString() {
+		return "InteractionCoalescedEvent{" +
+			"eventType='" + getEventType() + '\'' +
+			", systemMessage='" + getSystemMessage() + '\'' +
+			", userMessage='" + getUserMessage() + '\'' +
+			", result='" + getResult() + '\'' +
+			", invocationContext=" + getInvocationContext() + '}';
+	}
+
+	public static final class Builder extends InteractionEvent.Builder<Builder, InteractionCoalescedEvent> {
+		private String systemMessage;
+		private String userMessage;
+		private String result;
+
+		private Builder() {
+			super();
+		}
+
+		private Builder(InteractionCoalescedEvent source) {
+			super(source);
+			this.systemMessage = source.systemMessage;
+			this.userMessage = source.userMessage;
+			this.result = source.result;
+		}
+
+		public Builder systemMessage(String systemMessage) {
+			this.systemMessage = systemMessage;
+			return this;
+		}
+
+		public Builder userMessage(String userMessage) {
+			this.userMessage = userMessage;
+			return this;
+		}
+
+		public Builder result(String result) {
+			this.result = result;
+			return this;
+		}
+
+		@Override
+		public InteractionCoalescedEvent build() {
+			return new InteractionCoalescedEvent(this);
+		}
+	}
+}
@@ -26,7 +26,7 @@ import org.hibernate.annotations.SourceType;
 public abstract class InteractionEvent {
 	@Id
 	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "interaction_events_seq")
-	@SequenceGenerator(name = "interaction_events_seq", allocationSize = 1, sequenceName = "interaction_events_seq")
+	@SequenceGenerator(name = "interaction_events_seq", allocationSize = 50, sequenceName = "interaction_events_seq")
 	private Long id;
 
 	@Embedded
@@ -0,0 +1,15 @@
+package ai.scoring.domain.event;
+
+import ai.scoring.domain.interaction.InteractionMode;
+
+public record InteractionEventRequest(InteractionEvent event, InteractionMode interactionMode) {
+	public InteractionEventRequest {
+		if (event == null) {
+			throw new IllegalArgumentException("event must not be null");
+		}
+
+		if (interactionMode == null) {
+			throw new IllegalArgumentException("interactionMode must not be null");
+		}
+	}
+}
@@ -2,5 +2,6 @@ package ai.scoring.domain.event;
 
 public enum InteractionEventType {
 	INTERACTION_STARTED,
-	INTERACTION_COMPLETED
+	INTERACTION_COMPLETED,
+	INTERACTION_COALESCED
 }
@@ -0,0 +1,22 @@
+package ai.scoring.domain.interaction;
+
+import java.util.UUID;
+
+import ai.scoring.domain.sample.Source;
+
+// What the rescore sample index needs of an interaction: its stored embedding if it has one, otherwise its result to embed
+public record IndexableInteraction(UUID interactionId, String applicationName, String interfaceName, String methodName, String result, byte[] vector, Float scale) {
+	public IndexableInteraction {
+		if (interactionId == null) {
+			throw new IllegalArgumentException("interactionId must not be null");
+		}
+	}
+
+	public Source source() {
+		return new Source(this.applicationName, this.interfaceName, this.methodName);
+	}
+
+	public boolean isEmbedded() {
+		return (this.vector != null) && (this.scale != null);
+	}
+}
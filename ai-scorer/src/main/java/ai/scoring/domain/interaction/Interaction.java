@@ -17,11 +17,16 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Formula;
+
+import ai.scoring.embedding.ContentHash;
+
 @Entity
 @Table(name = "interactions")
 @NamedQueries({
 	@NamedQuery(name = "Interaction.findAllBySource", query = "FROM Interaction WHERE applicationName = :applicationName AND interfaceName = :interfaceName AND methodName = :methodName"),
-	@NamedQuery(name = "Interaction.countBySource", query = "SELECT count(*)FROM Interaction WHERE applicationName = :applicationName AND interfaceName = :interfaceName AND methodName = :methodName")
+	@NamedQuery(name = "Interaction.countBySource", query = "SELECT count(*)FROM Interaction WHERE applicationName = :applicationName AND interfaceName = :interfaceName AND methodName = :methodName"),
+	@NamedQuery(name = "Interaction.existsBySource", query = "SELECT 1 FROM Interaction WHERE applicationName = :applicationName AND interfaceName = :interfaceName AND methodName = :methodName")
 })
 public class Interaction {
 	@Id
@@ -36,7 +41,11 @@ public class Interaction {
 	private String interfaceName;
 	private String methodName;
 
-	@Column(columnDefinition = "TEXT")
+	// The system message itself is stored once in prompts (see PromptRepository.intern) and read back by hash
+	@Column(length = 64)
+	private String systemMessageHash;
+
+	@Formula("(SELECT p.content FROM prompts p WHERE p.hash = system_message_hash)")
 	private String systemMessage;
 
 	@Column(columnDefinition = "TEXT")
@@ -45,6 +54,10 @@ public class Interaction {
 	@Column(columnDefinition = "TEXT")
 	private String result;
 
+	// False if the sampler skipped scoring it (see ScoringSampler)
+	@Column(nullable = false)
+	private boolean scored = true;
+
 	@OneToMany(
 		mappedBy = "interaction",
 		cascade = CascadeType.ALL,
@@ -63,8 +76,10 @@ public class Interaction {
 		this.methodName = builder.methodName;
 		this.interactionDate = builder.interactionDate;
 		this.systemMessage = builder.systemMessage;
+		this.systemMessageHash = (builder.systemMessage != null) ? ContentHash.of(builder.systemMessage) : null;
 		this.userMessage = builder.userMessage;
 		this.result = builder.result;
+		this.scored = builder.scored;
 		this.scores.addAll(builder.scores);
 
 		if (this.interactionId == null) {
@@ -112,6 +127,10 @@ public class Interaction {
 		return systemMessage;
 	}
 
+	public String getSystemMessageHash() {
+		return systemMessageHash;
+	}
+
 	public String getUserMessage() {
 		return userMessage;
 	}
@@ -120,6 +139,10 @@ public class Interaction {
 		return result;
 	}
 
+	public boolean isScored() {
+		return scored;
+	}
+
 	public List<InteractionScore> getScores() {
 		return scores;
 	}
@@ -143,6 +166,7 @@ public class Interaction {
 			", systemMessage='" + systemMessage + '\'' +
 			", userMessage='" + userMessage + '\'' +
 			", result='" + result + '\'' +
+			", scored=" + scored +
 			'}';
 	}
 
@@ -169,6 +193,7 @@ public class Interaction {
 		private String systemMessage;
 		private String userMessage;
 		private String result;
+		private boolean scored = true;
 		private List<InteractionScore> scores = new ArrayList<>();
 
 		private Builder() {
@@ -183,6 +208,7 @@ public class Interaction {
 			this.systemMessage = interaction.systemMessage;
 			this.userMessage = interaction.userMessage;
 			this.result = interaction.result;
+			this.scored = interaction.scored;
 			this.scores.addAll(interaction.scores);
 		}
 
@@ -226,6 +252,11 @@ public class Interaction {
 			return this;
 		}
 
+		public Builder scored(boolean scored) {
+			this.scored = scored;
+			return this;
+		}
+
 		public Builder score(InteractionScore score) {
 			if (score != null) {
 				this.scores.add(score);
@@ -0,0 +1,45 @@
+package ai.scoring.domain.interaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// Keyset position in the (interactionDate, interactionId) ordering
+// Handed to clients as an opaque string so the encoding can change without breaking them
+public record InteractionCursor(Instant interactionDate, UUID interactionId) {
+	private static final String DELIMITER = "|";
+
+	public InteractionCursor {
+		if ((interactionDate == null) || (interactionId == null)) {
+			throw new IllegalArgumentException("interactionDate and interactionId cannot be null");
+		}
+	}
+
+	public static InteractionCursor of(Interaction interaction) {
+		return new InteractionCursor(interaction.getInteractionDate(), interaction.getInteractionId());
+	}
+
+	public static InteractionCursor decode(String cursor) {
+		try {
+			var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			var delimiter = decoded.indexOf(DELIMITER);
+
+			if (delimiter < 0) {
+				throw new IllegalArgumentException("Invalid cursor: " + cursor);
+			}
+
+			return new InteractionCursor(Instant.parse(decoded.substring(0, delimiter)), UUID.fromString(decoded.substring(delimiter + 1)));
+		}
+		catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+		}
+	}
+
+	public String encode() {
+		return Base64.getUrlEncoder()
+			.withoutPadding()
+			.encodeToString((this.interactionDate + DELIMITER + this.interactionId).getBytes(StandardCharsets.UTF_8));
+	}
+}
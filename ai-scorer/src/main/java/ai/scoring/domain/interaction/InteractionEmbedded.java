@@ -0,0 +1,9 @@
+package ai.scoring.domain.interaction;
+
+public record InteractionEmbedded(Interaction interaction, float[] vector) {
+	public InteractionEmbedded {
+		if ((interaction == null) || (vector == null)) {
+			throw new IllegalArgumentException("interaction and vector must not be null");
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package ai.scoring.domain.interaction;
+
+import java.util.Objects;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+@Entity
+@Table(name = "interaction_embeddings", indexes = @Index(name = "interaction_embeddings_content_hash_idx", columnList = "contentHash"))
+public class InteractionEmbedding {
+	@Id
+	@NotNull(message = "interactionId must not be null")
+	private UUID interactionId;
+
+	// SHA-256 of the embedded text, so identical results share a lookup key
+	@Column(nullable = false, length = 64)
+	@NotNull(message = "contentHash must not be null")
+	private String contentHash;
+
+	// int8 quantized vector - see QuantizedVector
+	@Column(nullable = false)
+	@NotNull(message = "vector must not be null")
+	private byte[] vector;
+
+	@Column(nullable = false)
+	private float scale;
+
+	public InteractionEmbedding() {
+	}
+
+	private InteractionEmbedding(Builder builder) {
+		this.interactionId = builder.interactionId;
+		this.contentHash = builder.contentHash;
+		this.vector = builder.vector;
+		this.scale = builder.scale;
+
+		if (this.interactionId == null) {
+			throw new IllegalArgumentException("interactionId must not be null");
+		}
+
+		if (this.contentHash == null) {
+			throw new IllegalArgumentException("contentHash must not be null");
+		}
+
+		if (this.vector == null) {
+			throw new IllegalArgumentException("vector must not be null");
+		}
+	}
+
+	public UUID getInteractionId() {
+		return interactionId;
+	}
+
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	public byte[] getVector() {
+		return vector;
+	}
+
+	public float getScale() {
+		return scale;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	@Override
+	public String toString() {
+		return "InteractionEmbedding{" +
+			"interactionId=" + interactionId +
+			", contentHash='" + contentHash + '\'' +
+			", dimensions=" + ((vector != null) ? vector.length : 0) +
+			", scale=" + scale +
+			'}';
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof InteractionEmbedding that)) {
+			return false;
+		}
+
+		return Objects.equals(interactionId, that.interactionId);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(interactionId);
+	}
+
+	public static class Builder {
+		private UUID interactionId;
+		private String contentHash;
+		private byte[] vector;
+		private float scale;
+
+		private Builder() {
+		}
+
+		public Builder interactionId(UUID interactionId) {
+			this.interactionId = interactionId;
+			return this;
+		}
+
+		public Builder contentHash(String contentHash) {
+			this.contentHash = contentHash;
+			return this;
+		}
+
+		public Builder vector(byte[] vector) {
+			this.vector = vector;
+			return this;
+		}
+
+		public Builder scale(float scale) {
+			this.scale = scale;
+			return this;
+		}
+
+		public InteractionEmbedding build() {
+			return new InteractionEmbedding(this);
+		}
+	}
+}
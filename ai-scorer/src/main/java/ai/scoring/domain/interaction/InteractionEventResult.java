@@ -0,0 +1,41 @@
+package ai.scoring.domain.interaction;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import ai.scoring.domain.event.InteractionEvent;
+import ai.scoring.domain.event.InteractionEventType;
+
+public record InteractionEventResult(UUID interactionId, InteractionEventType eventType, Status status, InteractionScore score, String error) {
+	public enum Status {
+		STORED, ACCEPTED, SCORED, UNCORRELATED, FAILED, UNKNOWN_PROMPT
+	}
+
+	public static InteractionEventResult stored(InteractionEvent event) {
+		return new InteractionEventResult(event.getInvocationContext().getInteractionId(), event.getEventType(), Status.STORED, null, null);
+	}
+
+	public static InteractionEventResult accepted(InteractionEvent event) {
+		return new InteractionEventResult(event.getInvocationContext().getInteractionId(), event.getEventType(), Status.ACCEPTED, null, null);
+	}
+
+	public static InteractionEventResult scored(InteractionEvent event, InteractionScore score) {
+		return new InteractionEventResult(event.getInvocationContext().getInteractionId(), event.getEventType(), Status.SCORED, score, null);
+	}
+
+	public static InteractionEventResult uncorrelated(InteractionEvent event) {
+		return new InteractionEventResult(event.getInvocationContext().getInteractionId(), event.getEventType(), Status.UNCORRELATED, null, "No correlated started event found");
+	}
+
+	public static InteractionEventResult failed(InteractionEvent event, Throwable error) {
+		return new InteractionEventResult(event.getInvocationContext().getInteractionId(), event.getEventType(), Status.FAILED, null, error.getMessage());
+	}
+
+	public static InteractionEventResult unknownPrompt(InteractionEvent event) {
+		return new InteractionEventResult(event.getInvocationContext().getInteractionId(), event.getEventType(), Status.UNKNOWN_PROMPT, null, "No system message stored for its systemMessageHash");
+	}
+
+	public Optional<InteractionScore> getScore() {
+		return Optional.ofNullable(score);
+	}
+}
@@ -0,0 +1,10 @@
+package ai.scoring.domain.interaction;
+
+import java.util.List;
+import java.util.Optional;
+
+public record InteractionPage(List<Interaction> interactions, InteractionCursor nextCursor) {
+	public Optional<InteractionCursor> getNextCursor() {
+		return Optional.ofNullable(nextCursor);
+	}
+}
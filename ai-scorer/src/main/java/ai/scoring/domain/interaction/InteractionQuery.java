@@ -3,9 +3,12 @@ package ai.scoring.domain.interaction;
 import java.time.Instant;
 import java.util.Optional;
 
-public record InteractionQuery(String applicationName, String interfaceName, String methodName, Instant start, Instant end) {
+public record InteractionQuery(String applicationName, String interfaceName, String methodName, Instant start, Instant end, InteractionCursor after, Integer limit) {
+	// The most interactions a single page can ask for
+	public static final int MAX_LIMIT = 1000;
+
 	private InteractionQuery(Builder builder) {
-		this(builder.applicationName, builder.interfaceName, builder.methodName, builder.start, builder.end);
+		this(builder.applicationName, builder.interfaceName, builder.methodName, builder.start, builder.end, builder.after, builder.limit);
 	}
 
 	public static Builder builder() {
@@ -36,12 +39,23 @@ public record InteractionQuery(String applicationName, String interfaceName, Str
 		return Optional.ofNullable(end);
 	}
 
+	// Only interactions after this position in (interactionDate, interactionId) order
+	public Optional<InteractionCursor> getAfter() {
+		return Optional.ofNullable(after);
+	}
+
+	public Optional<Integer> getLimit() {
+		return Optional.ofNullable(limit);
+	}
+
 	public static class Builder {
 		private String applicationName;
 		private String interfaceName;
 		private String methodName;
 		private Instant start;
 		private Instant end;
+		private InteractionCursor after;
+		private Integer limit;
 
 		private Builder() {}
 
@@ -51,6 +65,8 @@ public record InteractionQuery(String applicationName, String interfaceName, Str
 			this.methodName = source.methodName;
 			this.start = source.start;
 			this.end = source.end;
+			this.after = source.after;
+			this.limit = source.limit;
 		}
 
 		public Builder applicationName(String applicationName) {
@@ -78,6 +94,16 @@ public record InteractionQuery(String applicationName, String interfaceName, Str
 			return this;
 		}
 
+		public Builder after(InteractionCursor after) {
+			this.after = after;
+			return this;
+		}
+
+		public Builder limit(Integer limit) {
+			this.limit = limit;
+			return this;
+		}
+
 		public InteractionQuery build() {
 			return new InteractionQuery(this);
 		}
@@ -35,6 +35,10 @@ public class InteractionScore {
 	@Enumerated(EnumType.STRING)
 	private InteractionMode mode;
 
+	// True for a rescore that stopped early, so the score is an estimate from only some of the samples
+	@Column(nullable = false)
+	private boolean partial;
+
 	public InteractionScore() {
 	}
 
@@ -43,6 +47,7 @@ public class InteractionScore {
 		this.scoreDate = builder.scoreDate;
 		this.score = builder.score;
 		this.mode = builder.mode;
+		this.partial = builder.partial;
 
 		if (this.interaction == null) {
 			throw new IllegalArgumentException("event must not be null");
@@ -77,6 +82,10 @@ public class InteractionScore {
 		return mode;
 	}
 
+	public boolean isPartial() {
+		return partial;
+	}
+
 	public Builder toBuilder() {
 		return new Builder(this);
 	}
@@ -92,6 +101,7 @@ public class InteractionScore {
 			", scoreDate=" + scoreDate +
 			", interaction=" + score +
 			", mode=" + mode +
+			", partial=" + partial +
 			'}';
 	}
 
@@ -114,6 +124,7 @@ public class InteractionScore {
 		private Instant scoreDate;
 		private Double score;
 		private InteractionMode mode;
+		private boolean partial;
 
 		private Builder() {
 		}
@@ -123,6 +134,7 @@ public class InteractionScore {
 			this.scoreDate = source.scoreDate;
 			this.score = source.score;
 			this.mode = source.mode;
+			this.partial = source.partial;
 		}
 
 		public Builder interaction(Interaction interaction) {
@@ -145,6 +157,11 @@ public class InteractionScore {
 			return this;
 		}
 
+		public Builder partial(boolean partial) {
+			this.partial = partial;
+			return this;
+		}
+
 		public InteractionScore build() {
 			return new InteractionScore(this);
 		}
@@ -0,0 +1,9 @@
+package ai.scoring.domain.interaction;
+
+public record InteractionStored(Interaction interaction) {
+	public InteractionStored {
+		if (interaction == null) {
+			throw new IllegalArgumentException("interaction must not be null");
+		}
+	}
+}
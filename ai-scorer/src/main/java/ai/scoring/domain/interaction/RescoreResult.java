@@ -2,5 +2,7 @@ package ai.scoring.domain.interaction;
 
 import io.quarkiverse.langchain4j.testing.evaluation.EvaluationReport;
 
-public record RescoreResult(InteractionScore interactionScore, EvaluationReport<String> evaluationReport) {
+// samplesEvaluated can be less than samplesAvailable when the outcome was decided early
+// The score is marked partial when that happens
+public record RescoreResult(InteractionScore interactionScore, EvaluationReport<String> evaluationReport, int samplesEvaluated, int samplesAvailable) {
 }
@@ -0,0 +1,80 @@
+package ai.scoring.domain.prompt;
+
+import java.util.Objects;
+
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.SQLInsert;
+import org.hibernate.jdbc.Expectation;
+
+import ai.scoring.embedding.ContentHash;
+
+// A system message, stored once no matter how many interactions use it
+// Content addressed, so a prompt never changes and storing the same one twice (e.g. from two replicas at once) is a no-op
+@Entity
+@Table(name = "prompts")
+@Immutable
+@Cacheable
+@SQLInsert(sql = "INSERT INTO prompts (content, hash) VALUES (?, ?) ON CONFLICT (hash) DO NOTHING", verify = Expectation.None.class)
+public class Prompt {
+	@Id
+	@Column(length = 64)
+	private String hash;
+
+	@Column(nullable = false, columnDefinition = "TEXT")
+	@NotNull(message = "content must not be null")
+	private String content;
+
+	// JPA requires a no-arg constructor with at least protected visibility
+	protected Prompt() {
+	}
+
+	private Prompt(String content) {
+		if (content == null) {
+			throw new IllegalArgumentException("content must not be null");
+		}
+
+		this.hash = ContentHash.of(content);
+		this.content = content;
+	}
+
+	public static Prompt of(String content) {
+		return new Prompt(content);
+	}
+
+	public String getHash() {
+		return hash;
+	}
+
+	public String getContent() {
+		return content;
+	}
+
+	@Override
+	public String toString() {
+		return "Prompt{" +
+			"hash='" + hash + '\'' +
+			", content='" + content + '\'' +
+			'}';
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof Prompt prompt)) {
+			return false;
+		}
+
+		return Objects.equals(hash, prompt.hash);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(hash);
+	}
+}
@@ -21,6 +21,14 @@ public record Source(String applicationName, String interfaceName, String method
 			.map(parts -> new Source(parts[0], parts[1], parts[2]));
 	}
 
+	public static Source of(Interaction interaction) {
+		return new Source(interaction.getApplicationName(), interaction.getInterfaceName(), interaction.getMethodName());
+	}
+
+	public String asSourceString() {
+		return String.join(DELIMITER, this.applicationName, this.interfaceName, this.methodName);
+	}
+
 	public static String asSourceString(Interaction interaction) {
 		return String.join(DELIMITER, interaction.getApplicationName(), interaction.getInterfaceName(), interaction.getMethodName());
 	}
@@ -0,0 +1,25 @@
+package ai.scoring.embedding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class ContentHash {
+	private ContentHash() {
+	}
+
+	// Hex encoded SHA-256
+	public static String of(String content) {
+		try {
+			var digest = MessageDigest.getInstance("SHA-256")
+				.digest(((content != null) ? content : "").getBytes(StandardCharsets.UTF_8));
+
+			return HexFormat.of().formatHex(digest);
+		}
+		catch (NoSuchAlgorithmException e) {
+			// Every JVM has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,262 @@
+package ai.scoring.embedding;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Hierarchical navigable small world graph (Malkov & Yashunin) over cosine distance
+// Vectors are normalized on the way in, so distance is just 1 - dot product
+public class HnswIndex {
+	private final int maxConnections;
+	private final int maxConnectionsLayer0;
+	private final int efConstruction;
+	private final int efSearch;
+	private final double levelMultiplier;
+
+	private final List<Node> nodes = new ArrayList<>();
+	private final Map<UUID, Integer> nodeIndexes = new HashMap<>();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private int entryPoint = -1;
+
+	public HnswIndex(int maxConnections, int efConstruction, int efSearch) {
+		if (maxConnections < 2) {
+			throw new IllegalArgumentException("maxConnections must be at least 2");
+		}
+
+		this.maxConnections = maxConnections;
+		this.maxConnectionsLayer0 = 2 * maxConnections;
+		this.efConstruction = Math.max(efConstruction, maxConnections);
+		this.efSearch = efSearch;
+		this.levelMultiplier = 1 / Math.log(maxConnections);
+	}
+
+	public int size() {
+		this.lock.readLock().lock();
+
+		try {
+			return this.nodes.size();
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	public boolean contains(UUID id) {
+		this.lock.readLock().lock();
+
+		try {
+			return this.nodeIndexes.containsKey(id);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	// Returns false if the id is already indexed
+	public boolean add(UUID id, float[] vector) {
+		var normalized = normalize(vector);
+		this.lock.writeLock().lock();
+
+		try {
+			if (this.nodeIndexes.containsKey(id)) {
+				return false;
+			}
+
+			var node = new Node(id, normalized, randomLevel());
+			var nodeIndex = this.nodes.size();
+			this.nodes.add(node);
+			this.nodeIndexes.put(id, nodeIndex);
+
+			if (this.entryPoint < 0) {
+				this.entryPoint = nodeIndex;
+				return true;
+			}
+
+			var topLevel = this.nodes.get(this.entryPoint).level();
+			var nearest = greedyDescend(normalized, this.entryPoint, topLevel, node.level());
+
+			for (var level = Math.min(node.level(), topLevel); level >= 0; level--) {
+				var candidates = searchLayer(normalized, nearest, this.efConstruction, level);
+				var maxNeighbours = maxNeighbours(level);
+
+				for (var candidate : candidates.subList(0, Math.min(this.maxConnections, candidates.size()))) {
+					node.neighbours(level).add(candidate.node());
+					connect(candidate.node(), nodeIndex, level, maxNeighbours);
+				}
+
+				nearest = candidates.getFirst().node();
+			}
+
+			if (node.level() > topLevel) {
+				this.entryPoint = nodeIndex;
+			}
+
+			return true;
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	public List<UUID> search(float[] query, int k) {
+		var normalized = normalize(query);
+		this.lock.readLock().lock();
+
+		try {
+			if (this.entryPoint < 0) {
+				return List.of();
+			}
+
+			var nearest = greedyDescend(normalized, this.entryPoint, this.nodes.get(this.entryPoint).level(), 0);
+
+			return searchLayer(normalized, nearest, Math.max(this.efSearch, k), 0)
+				.stream()
+				.limit(k)
+				.map(candidate -> this.nodes.get(candidate.node()).id())
+				.toList();
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	// Walks down from the top layer to just above targetLevel, always moving to the closest neighbour
+	private int greedyDescend(float[] query, int start, int fromLevel, int targetLevel) {
+		var current = start;
+		var currentDistance = distance(query, this.nodes.get(current).vector());
+
+		for (var level = fromLevel; level > targetLevel; level--) {
+			var improved = true;
+
+			while (improved) {
+				improved = false;
+
+				for (var neighbour : this.nodes.get(current).neighbours(level)) {
+					var neighbourDistance = distance(query, this.nodes.get(neighbour).vector());
+
+					if (neighbourDistance < currentDistance) {
+						current = neighbour;
+						currentDistance = neighbourDistance;
+						improved = true;
+					}
+				}
+			}
+		}
+
+		return current;
+	}
+
+	// Best-first search of a single layer, keeping the ef closest nodes seen - returned nearest first
+	private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+		var visited = new BitSet(this.nodes.size());
+		var toVisit = new PriorityQueue<Candidate>(Comparator.comparingDouble(Candidate::distance));
+		var closest = new PriorityQueue<Candidate>(Comparator.comparingDouble(Candidate::distance).reversed());
+
+		var first = new Candidate(start, distance(query, this.nodes.get(start).vector()));
+		visited.set(start);
+		toVisit.add(first);
+		closest.add(first);
+
+		while (!toVisit.isEmpty()) {
+			var candidate = toVisit.poll();
+
+			if ((closest.size() >= ef) && (candidate.distance() > closest.peek().distance())) {
+				break;
+			}
+
+			for (var neighbour : this.nodes.get(candidate.node()).neighbours(level)) {
+				if (!visited.get(neighbour)) {
+					visited.set(neighbour);
+					var neighbourCandidate = new Candidate(neighbour, distance(query, this.nodes.get(neighbour).vector()));
+
+					if ((closest.size() < ef) || (neighbourCandidate.distance() < closest.peek().distance())) {
+						toVisit.add(neighbourCandidate);
+						closest.add(neighbourCandidate);
+
+						if (closest.size() > ef) {
+							closest.poll();
+						}
+					}
+				}
+			}
+		}
+
+		var results = new ArrayList<>(closest);
+		results.sort(Comparator.comparingDouble(Candidate::distance));
+
+		return results;
+	}
+
+	// Adds the back link, dropping the furthest neighbour if that pushes the node over its limit
+	private void connect(int from, int to, int level, int maxNeighbours) {
+		var node = this.nodes.get(from);
+		var neighbours = node.neighbours(level);
+		neighbours.add(to);
+
+		if (neighbours.size() > maxNeighbours) {
+			neighbours.sort(Comparator.comparingDouble(neighbour -> distance(node.vector(), this.nodes.get(neighbour).vector())));
+			neighbours.removeLast();
+		}
+	}
+
+	private int maxNeighbours(int level) {
+		return (level == 0) ? this.maxConnectionsLayer0 : this.maxConnections;
+	}
+
+	private int randomLevel() {
+		return (int) Math.floor(-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * this.levelMultiplier);
+	}
+
+	private static float distance(float[] a, float[] b) {
+		var dot = 0f;
+
+		for (int i = 0; i < a.length; i++) {
+			dot += a[i] * b[i];
+		}
+
+		return 1 - dot;
+	}
+
+	private static float[] normalize(float[] vector) {
+		var norm = 0d;
+
+		for (var value : vector) {
+			norm += value * value;
+		}
+
+		norm = Math.sqrt(norm);
+		var normalized = new float[vector.length];
+
+		if (norm > 0) {
+			for (int i = 0; i < vector.length; i++) {
+				normalized[i] = (float) (vector[i] / norm);
+			}
+		}
+
+		return normalized;
+	}
+
+	private record Candidate(int node, float distance) {
+	}
+
+	private record Node(UUID id, float[] vector, int level, List<List<Integer>> layers) {
+		Node(UUID id, float[] vector, int level) {
+			this(id, vector, level, new ArrayList<>(level + 1));
+
+			for (var i = 0; i <= level; i++) {
+				this.layers.add(new ArrayList<>());
+			}
+		}
+
+		List<Integer> neighbours(int level) {
+			return this.layers.get(level);
+		}
+	}
+}
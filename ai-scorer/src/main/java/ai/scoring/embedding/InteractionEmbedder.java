@@ -0,0 +1,174 @@
+package ai.scoring.embedding;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.ScoringStrategy;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionEmbedded;
+import ai.scoring.domain.interaction.InteractionEmbedding;
+import ai.scoring.domain.interaction.InteractionStored;
+import ai.scoring.domain.sample.Source;
+import ai.scoring.repository.InteractionEmbeddingRepository;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import io.quarkiverse.langchain4j.ModelName;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+
+// Embeds interaction results once they're committed, on a thread of its own
+// Anything that doesn't get embedded is embedded again when a rescore needs it
+@ApplicationScoped
+public class InteractionEmbedder {
+	// Rough per-embedding cost of the content hash, the map entry and the array header, on top of the vector itself
+	private static final int EMBEDDING_OVERHEAD_BYTES = 256;
+
+	private final InteractionEmbeddingRepository interactionEmbeddingRepository;
+	private final Optional<String> modelConfigName;
+	private final boolean enabled;
+	private final ThreadPoolExecutor embedder;
+	private final Cache<Source, Map<String, Embedding>> storedEmbeddings;
+	private final Event<InteractionEmbedded> interactionEmbeddedEvents;
+	private volatile EmbeddingModel embeddingModel;
+
+	public InteractionEmbedder(InteractionEmbeddingRepository interactionEmbeddingRepository, AIScoringConfig scoringConfig, Event<InteractionEmbedded> interactionEmbeddedEvents) {
+		var semanticSimilarityConfig = scoringConfig.semanticSimilarity();
+
+		this.interactionEmbeddingRepository = interactionEmbeddingRepository;
+		this.modelConfigName = semanticSimilarityConfig.modelConfigName();
+		this.enabled = (scoringConfig.scoringStrategy() == ScoringStrategy.SEMANTIC_SIMILARITY) && semanticSimilarityConfig.storeEmbeddings();
+		this.embedder = new ThreadPoolExecutor(
+			1, 1,
+			0, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(semanticSimilarityConfig.embedQueueCapacity()),
+			Thread.ofVirtual().name("interaction-embedder").factory(),
+			(task, executor) -> Log.debug("Embedding queue is full, leaving an interaction to be embedded when it's rescored")
+		);
+		this.storedEmbeddings = Caffeine.newBuilder()
+			.maximumWeight(semanticSimilarityConfig.embeddingCacheMaxMemory().asLongValue())
+			.weigher((Source source, Map<String, Embedding> embeddings) -> (int) Math.min(estimateSize(embeddings), Integer.MAX_VALUE))
+			.build();
+		this.interactionEmbeddedEvents = interactionEmbeddedEvents;
+	}
+
+	public boolean storesEmbeddings() {
+		return this.enabled;
+	}
+
+	void onInteractionStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) InteractionStored event) {
+		var interaction = event.interaction();
+
+		if (this.enabled && (interaction.getResult() != null)) {
+			this.embedder.execute(() -> embed(interaction));
+		}
+	}
+
+	void onStop(@Observes ShutdownEvent shutdownEvent) {
+		this.embedder.shutdown();
+
+		try {
+			if (!this.embedder.awaitTermination(10, TimeUnit.SECONDS)) {
+				Log.warnf("Shut down with %d interactions not yet embedded", this.embedder.getQueue().size());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void embed(Interaction interaction) {
+		float[] vector;
+
+		try {
+			var contentHash = ContentHash.of(interaction.getResult());
+			var quantized = QuantizedVector.quantize(getEmbeddingModel().embed(interaction.getResult()).content().vector());
+			Log.debugf("Storing %d dimension embedding for interaction %s", quantized.values().length, interaction.getInteractionId());
+
+			QuarkusTransaction.requiringNew().run(() ->
+				this.interactionEmbeddingRepository.persist(
+					InteractionEmbedding.builder()
+						.interactionId(interaction.getInteractionId())
+						.contentHash(contentHash)
+						.vector(quantized.values())
+						.scale(quantized.scale())
+						.build()
+				)
+			);
+
+			// Only sources that are already cached need updating - everything else is loaded on first use
+			vector = quantized.dequantize();
+			var embedding = Embedding.from(vector);
+			this.storedEmbeddings.asMap().computeIfPresent(Source.of(interaction), (source, embeddings) -> append(embeddings, contentHash, embedding));
+		}
+		catch (RuntimeException error) {
+			Log.warnf(error, "Error embedding interaction %s, leaving it to be embedded when it's rescored", interaction.getInteractionId());
+			return;
+		}
+
+		this.interactionEmbeddedEvents.fire(new InteractionEmbedded(interaction, vector));
+	}
+
+	// Stored embeddings for the source are served from memory, so only text that was never stored gets embedded
+	public EmbeddingModel getEmbeddingModel(Source source) {
+		if (!this.enabled) {
+			return getEmbeddingModel();
+		}
+
+		return new StoredEmbeddingModel(getEmbeddingModel(), this.storedEmbeddings.get(source, this::load));
+	}
+
+	public EmbeddingModel getEmbeddingModel() {
+		if (this.embeddingModel == null) {
+			this.embeddingModel = this.modelConfigName
+				.map(mcn -> Arc.container().instance(EmbeddingModel.class, ModelName.Literal.of(mcn)))
+				.orElseGet(() -> Arc.container().instance(EmbeddingModel.class))
+				.get();
+		}
+
+		return this.embeddingModel;
+	}
+
+	private Map<String, Embedding> load(Source source) {
+		return QuarkusTransaction.requiringNew().call(() -> this.interactionEmbeddingRepository.findAllBySource(source))
+			.stream()
+			.collect(Collectors.toUnmodifiableMap(
+				InteractionEmbedding::getContentHash,
+				embedding -> Embedding.from(new QuantizedVector(embedding.getVector(), embedding.getScale()).dequantize()),
+				(first, second) -> first
+			));
+	}
+
+	private static Map<String, Embedding> append(Map<String, Embedding> embeddings, String contentHash, Embedding embedding) {
+		if (embeddings.containsKey(contentHash)) {
+			return embeddings;
+		}
+
+		var appended = new HashMap<>(embeddings);
+		appended.put(contentHash, embedding);
+		return Map.copyOf(appended);
+	}
+
+	private static long estimateSize(Map<String, Embedding> embeddings) {
+		return embeddings.values()
+			.stream()
+			.mapToLong(embedding -> EMBEDDING_OVERHEAD_BYTES + (4L * embedding.dimension()))
+			.sum();
+	}
+}
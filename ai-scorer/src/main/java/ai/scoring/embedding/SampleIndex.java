@@ -0,0 +1,150 @@
+package ai.scoring.embedding;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.SampleIndexConfig;
+import ai.scoring.domain.interaction.IndexableInteraction;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionEmbedded;
+import ai.scoring.domain.interaction.InteractionStored;
+import ai.scoring.domain.sample.Source;
+import ai.scoring.repository.InteractionEmbeddingRepository;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+
+// Approximate nearest neighbour index over interaction results, one HNSW graph per source
+// Rebuilt from the database in the background at startup, then kept up to date as new interactions are committed
+@ApplicationScoped
+public class SampleIndex {
+	private final InteractionEmbeddingRepository interactionEmbeddingRepository;
+	private final InteractionEmbedder interactionEmbedder;
+	private final SampleIndexConfig config;
+	private final Map<Source, HnswIndex> indexes = new ConcurrentHashMap<>();
+
+	public SampleIndex(InteractionEmbeddingRepository interactionEmbeddingRepository, InteractionEmbedder interactionEmbedder, AIScoringConfig scoringConfig, MeterRegistry meterRegistry) {
+		this.interactionEmbeddingRepository = interactionEmbeddingRepository;
+		this.interactionEmbedder = interactionEmbedder;
+		this.config = scoringConfig.sampleIndex();
+
+		Gauge.builder("scorer.samples.indexed", this.indexes, indexes -> indexes.values().stream().mapToInt(HnswIndex::size).sum())
+			.description("Interactions in the rescore sample index, across all sources")
+			.baseUnit("interactions")
+			.register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return this.config.enabled();
+	}
+
+	// Empty if the source isn't indexed (yet), in which case callers should fall back to every sample
+	public Optional<Set<UUID>> nearest(Interaction interaction) {
+		if (!isEnabled() || (interaction.getResult() == null)) {
+			return Optional.empty();
+		}
+
+		return Optional.ofNullable(this.indexes.get(Source.of(interaction)))
+			.filter(index -> index.size() > 0)
+			.map(index -> index.search(embed(List.of(interaction.getResult())).getFirst(), this.config.topK()))
+			.map(Set::copyOf);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (isEnabled()) {
+			Thread.ofVirtual().name("sample-index-rebuild").start(this::rebuild);
+		}
+	}
+
+	// Interactions whose embedding is going to be stored are indexed once it is, rather than being embedded twice
+	void onInteractionStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) InteractionStored event) {
+		var interaction = event.interaction();
+
+		if (isEnabled() && !this.interactionEmbedder.storesEmbeddings() && (interaction.getResult() != null)) {
+			indexFor(Source.of(interaction)).add(interaction.getInteractionId(), embed(List.of(interaction.getResult())).getFirst());
+		}
+	}
+
+	void onInteractionEmbedded(@Observes InteractionEmbedded event) {
+		if (isEnabled()) {
+			indexFor(Source.of(event.interaction())).add(event.interaction().getInteractionId(), event.vector());
+		}
+	}
+
+	// Adds are idempotent, so this can safely overlap with interactions arriving through onInteractionStored and onInteractionEmbedded
+	public void rebuild() {
+		Log.info("Rebuilding rescore sample index");
+
+		Optional<UUID> after = Optional.empty();
+		var indexed = 0;
+		List<IndexableInteraction> interactions;
+
+		do {
+			var currentAfter = after;
+			interactions = QuarkusTransaction.requiringNew().call(() -> this.interactionEmbeddingRepository.findIndexable(currentAfter, this.config.rebuildBatchSize()));
+
+			index(interactions);
+			indexed += interactions.size();
+
+			if (!interactions.isEmpty()) {
+				after = Optional.of(interactions.getLast().interactionId());
+			}
+		} while (interactions.size() == this.config.rebuildBatchSize());
+
+		Log.infof("Rescore sample index rebuilt with %d interactions across %d sources", indexed, this.indexes.size());
+	}
+
+	private void index(List<IndexableInteraction> interactions) {
+		var toIndex = interactions.stream()
+			.filter(interaction -> !indexFor(interaction.source()).contains(interaction.interactionId()))
+			.toList();
+
+		toIndex.stream()
+			.filter(IndexableInteraction::isEmbedded)
+			.forEach(interaction -> indexFor(interaction.source()).add(interaction.interactionId(), new QuantizedVector(interaction.vector(), interaction.scale()).dequantize()));
+
+		var toEmbed = toIndex.stream()
+			.filter(interaction -> !interaction.isEmbedded())
+			.toList();
+
+		if (!toEmbed.isEmpty()) {
+			var vectors = embed(toEmbed.stream().map(IndexableInteraction::result).toList());
+
+			for (int i = 0; i < toEmbed.size(); i++) {
+				var interaction = toEmbed.get(i);
+				indexFor(interaction.source()).add(interaction.interactionId(), vectors.get(i));
+			}
+		}
+	}
+
+	private HnswIndex indexFor(Source source) {
+		return this.indexes.computeIfAbsent(source, s -> new HnswIndex(this.config.maxConnections(), this.config.efConstruction(), this.config.efSearch()));
+	}
+
+	private List<float[]> embed(List<String> results) {
+		var segments = results.stream()
+			.map(TextSegment::from)
+			.toList();
+
+		return this.interactionEmbedder.getEmbeddingModel()
+			.embedAll(segments)
+			.content()
+			.stream()
+			.map(Embedding::vector)
+			.toList();
+	}
+}
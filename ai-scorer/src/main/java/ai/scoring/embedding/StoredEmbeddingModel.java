@@ -0,0 +1,49 @@
+package ai.scoring.embedding;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+// Serves embeddings that were already computed (keyed by content hash) and only asks the real model about text it hasn't seen
+// Meant to live for a single evaluation, so anything embedded along the way is remembered for the rest of it
+// The stored embeddings are shared between evaluations and never written to
+public class StoredEmbeddingModel implements EmbeddingModel {
+	private final EmbeddingModel delegate;
+	private final Map<String, Embedding> storedEmbeddings;
+	private final Map<String, Embedding> embeddings = new ConcurrentHashMap<>();
+
+	public StoredEmbeddingModel(EmbeddingModel delegate, Map<String, Embedding> storedEmbeddings) {
+		this.delegate = delegate;
+		this.storedEmbeddings = storedEmbeddings;
+	}
+
+	@Override
+	public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+		var embeddings = textSegments.stream()
+			.map(textSegment -> embed(ContentHash.of(textSegment.text()), textSegment))
+			.toList();
+
+		return Response.from(embeddings);
+	}
+
+	private Embedding embed(String contentHash, TextSegment textSegment) {
+		var stored = this.storedEmbeddings.get(contentHash);
+
+		return (stored != null) ? stored : this.embeddings.computeIfAbsent(contentHash, hash -> this.delegate.embed(textSegment).content());
+	}
+
+	@Override
+	public int dimension() {
+		return this.delegate.dimension();
+	}
+
+	@Override
+	public String modelName() {
+		return this.delegate.modelName();
+	}
+}
@@ -1,23 +1,23 @@
 package ai.scoring.evaluation;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
 import ai.scoring.config.AIScoringConfig;
 import ai.scoring.domain.interaction.Interaction;
 import ai.scoring.domain.sample.Source;
+import ai.scoring.embedding.InteractionEmbedder;
+import ai.scoring.embedding.SampleIndex;
 import dev.langchain4j.model.chat.ChatModel;
-import dev.langchain4j.model.embedding.EmbeddingModel;
 import io.quarkiverse.langchain4j.ModelName;
-import io.quarkiverse.langchain4j.testing.evaluation.Evaluation;
-import io.quarkiverse.langchain4j.testing.evaluation.EvaluationReport;
+import io.quarkiverse.langchain4j.testing.evaluation.EvaluationSample;
 import io.quarkiverse.langchain4j.testing.evaluation.EvaluationStrategy;
 import io.quarkiverse.langchain4j.testing.evaluation.judge.AiJudgeStrategy;
 import io.quarkiverse.langchain4j.testing.evaluation.similarity.SemanticSimilarityStrategy;
 
-import io.quarkus.arc.Arc;
-
 @ApplicationScoped
 public class InteractionEvaluator {
 	private static final String PROMPT = """
@@ -30,13 +30,20 @@ public class InteractionEvaluator {
 		
 		""";
 
-	private final EvaluationStrategy<String> evaluationStrategy;
+	private final AIScoringConfig scoringConfig;
+	private final InteractionEmbedder interactionEmbedder;
+	private final SampleIndex sampleIndex;
+	private final InteractionsSampleLoader sampleLoader;
+	private final ParallelSampleEvaluator parallelSampleEvaluator;
+	private final EvaluationStrategy<String> judgeStrategy;
 
-	public InteractionEvaluator(AIScoringConfig scoringConfig, @ModelName("judge") ChatModel chatModel) {
-		this.evaluationStrategy = switch (scoringConfig.scoringStrategy()) {
-			case AI_JUDGE -> new AiJudgeStrategy(chatModel, PROMPT);
-			case SEMANTIC_SIMILARITY -> new SemanticSimilarityStrategy(getModel(EmbeddingModel.class, scoringConfig.semanticSimilarity().modelConfigName()), scoringConfig.semanticSimilarity().threshold());
-		};
+	public InteractionEvaluator(AIScoringConfig scoringConfig, @ModelName("judge") ChatModel chatModel, InteractionEmbedder interactionEmbedder, SampleIndex sampleIndex, InteractionsSampleLoader sampleLoader, ParallelSampleEvaluator parallelSampleEvaluator) {
+		this.scoringConfig = scoringConfig;
+		this.interactionEmbedder = interactionEmbedder;
+		this.sampleIndex = sampleIndex;
+		this.sampleLoader = sampleLoader;
+		this.parallelSampleEvaluator = parallelSampleEvaluator;
+		this.judgeStrategy = new AiJudgeStrategy(chatModel, PROMPT);
 	}
 
 	//	public InteractionEvaluator(AIScoringConfig scoringConfig) {
@@ -53,13 +60,12 @@ public class InteractionEvaluator {
 //		};
 //	}
 
-	private static <T> T getModel(Class<T> modelClass, Optional<String> modelName) {
-		var model = modelName
-			.map(mcn -> Arc.container().instance(modelClass, ModelName.Literal.of(mcn)))
-			.orElseGet(() -> Arc.container().instance(modelClass))
-			.get();
-
-		return model;
+	private EvaluationStrategy<String> getEvaluationStrategy(Interaction interaction) {
+		return switch (this.scoringConfig.scoringStrategy()) {
+			case AI_JUDGE -> this.judgeStrategy;
+			// A fresh strategy per evaluation so it only carries the stored embeddings for this source
+			case SEMANTIC_SIMILARITY -> new SemanticSimilarityStrategy(this.interactionEmbedder.getEmbeddingModel(Source.of(interaction)), this.scoringConfig.semanticSimilarity().threshold());
+		};
 	}
 
 //	public InteractionEvaluator(AIScoringConfig scoringConfig, @Any EvaluationStrategy<String> evaluationStrategy) {
@@ -79,13 +85,29 @@ public class InteractionEvaluator {
 //			.orElseThrow(() -> new IllegalStateException("No evaluation strategy found for scoring strategy [%s]".formatted(scoringConfig.scoringStrategy())));
 //	}
 
-	public EvaluationReport<String> evaluate(Interaction interaction) {
+	public SampleEvaluation evaluate(Interaction interaction) {
 //		this.evaluationStrategy.compareAndSet(null, calculateEvaluationStrategy());
 
-		return Evaluation.<String>builder()
-			.withSamples(Source.asSourceString(interaction))
-			.evaluate(params -> interaction.getResult())
-			.using(this.evaluationStrategy)
-			.run();
+		// Through the sample cache, so a source's samples are only loaded from the database once
+		List<EvaluationSample<String>> samples = this.sampleLoader.load(Source.asSourceString(interaction), String.class);
+
+		// Only the most similar samples when the source is indexed, otherwise every sample
+		var nearestSamples = this.sampleIndex.nearest(interaction)
+			.map(nearest -> nearestSamples(samples, nearest))
+			.filter(s -> !s.isEmpty())
+			.orElse(samples);
+
+		if (nearestSamples.isEmpty()) {
+			throw new EvaluationException("No samples found for source: " + Source.asSourceString(interaction));
+		}
+
+		return this.parallelSampleEvaluator.evaluate(nearestSamples, interaction.getResult(), getEvaluationStrategy(interaction));
+	}
+
+	private static List<EvaluationSample<String>> nearestSamples(List<EvaluationSample<String>> samples, Set<UUID> nearest) {
+		// Samples are named after the interaction they came from
+		return samples.stream()
+			.filter(sample -> nearest.contains(UUID.fromString(sample.name())))
+			.toList();
 	}
 }
@@ -0,0 +1,114 @@
+package ai.scoring.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.EvaluationConfig;
+import ai.scoring.evaluation.SequentialProbabilityRatioTest.Decision;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkiverse.langchain4j.testing.evaluation.Evaluation;
+import io.quarkiverse.langchain4j.testing.evaluation.EvaluationReport;
+import io.quarkiverse.langchain4j.testing.evaluation.EvaluationSample;
+import io.quarkiverse.langchain4j.testing.evaluation.EvaluationStrategy;
+import io.quarkiverse.langchain4j.testing.evaluation.Samples;
+import io.quarkiverse.langchain4j.testing.evaluation.Scorer.EvaluationResult;
+
+import io.quarkus.logging.Log;
+
+// Evaluates samples concurrently on virtual threads, at most parallelism at a time
+// With early stop on, every result feeds a sequential probability ratio test and no more samples are started once it's decided
+@ApplicationScoped
+public class ParallelSampleEvaluator {
+	private final EvaluationConfig config;
+	private final MeterProvider<Counter> samplesCounter;
+
+	public ParallelSampleEvaluator(AIScoringConfig scoringConfig, MeterRegistry meterRegistry) {
+		this.config = scoringConfig.evaluation();
+
+		this.samplesCounter = Counter.builder("scorer.evaluation.samples")
+			.description("Rescore samples, tagged by whether they were evaluated or skipped because the outcome was already decided")
+			.baseUnit("samples")
+			.withRegistry(meterRegistry);
+	}
+
+	public SampleEvaluation evaluate(List<EvaluationSample<String>> samples, String output, EvaluationStrategy<String> strategy) {
+		var sprt = new SequentialProbabilityRatioTest(this.config.threshold(), this.config.indifference(), this.config.alpha(), this.config.beta());
+		var results = new ArrayList<EvaluationResult<String>>(samples.size());
+		var decision = Decision.UNDECIDED;
+
+		var executor = Executors.newVirtualThreadPerTaskExecutor();
+
+		try {
+			var completionService = new ExecutorCompletionService<EvaluationResult<String>>(executor);
+			var inFlight = new ArrayList<Future<EvaluationResult<String>>>();
+			var next = 0;
+
+			while ((next < samples.size()) && (inFlight.size() < Math.max(1, this.config.parallelism()))) {
+				var sample = samples.get(next++);
+				inFlight.add(completionService.submit(() -> evaluate(sample, output, strategy)));
+			}
+
+			while (!inFlight.isEmpty()) {
+				var completed = completionService.take();
+				inFlight.remove(completed);
+				var result = completed.get();
+				results.add(result);
+
+				if (this.config.earlyStop()) {
+					decision = sprt.record(result.passed());
+
+					if (decision != Decision.UNDECIDED) {
+						// Whatever is still running can't change the outcome, so don't wait for it
+						inFlight.forEach(future -> future.cancel(true));
+						break;
+					}
+				}
+
+				if (next < samples.size()) {
+					var sample = samples.get(next++);
+					inFlight.add(completionService.submit(() -> evaluate(sample, output, strategy)));
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new EvaluationException("Interrupted while evaluating samples");
+		}
+		catch (ExecutionException | CancellationException e) {
+			throw new EvaluationException("Sample evaluation failed: " + e.getMessage());
+		}
+		finally {
+			// Not close(), which would wait for cancelled evaluations to notice the interrupt
+			executor.shutdownNow();
+		}
+
+		var stoppedEarly = results.size() < samples.size();
+		Log.debugf("Evaluated %d of %d samples (decision: %s)", results.size(), samples.size(), decision);
+
+		this.samplesCounter.withTags("result", "evaluated").increment(results.size());
+		this.samplesCounter.withTags("result", "skipped").increment(samples.size() - results.size());
+
+		return new SampleEvaluation(new EvaluationReport<>(results), samples.size(), stoppedEarly);
+	}
+
+	private static EvaluationResult<String> evaluate(EvaluationSample<String> sample, String output, EvaluationStrategy<String> strategy) {
+		// A single-sample evaluation, so the strategy sees exactly what it would in a full run
+		return Evaluation.<String>builder()
+			.withSamples(new Samples(List.of(sample)))
+			.evaluate(params -> output)
+			.using(strategy)
+			.run()
+			.evaluations()
+			.getFirst();
+	}
+}
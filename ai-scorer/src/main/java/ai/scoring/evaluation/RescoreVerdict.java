@@ -0,0 +1,15 @@
+package ai.scoring.evaluation;
+
+import io.quarkiverse.langchain4j.testing.evaluation.EvaluationReport;
+
+// evaluationReport is null for verdicts loaded from the database, which only keep the outcome
+public record RescoreVerdict(double score, EvaluationReport<String> evaluationReport, int samplesEvaluated, int samplesAvailable) {
+	public static RescoreVerdict of(SampleEvaluation evaluation) {
+		return new RescoreVerdict(evaluation.evaluationReport().score(), evaluation.evaluationReport(), evaluation.samplesEvaluated(), evaluation.samplesAvailable());
+	}
+
+	// Decided early, so the score is only an estimate from the samples evaluated before then
+	public boolean isPartial() {
+		return this.samplesEvaluated < this.samplesAvailable;
+	}
+}
@@ -0,0 +1,150 @@
+package ai.scoring.evaluation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionStored;
+import ai.scoring.domain.sample.Source;
+import ai.scoring.repository.InteractionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkiverse.langchain4j.testing.evaluation.EvaluationSample;
+import io.quarkiverse.langchain4j.testing.evaluation.Parameters;
+
+import io.quarkus.arc.Unremovable;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+// Rescore samples per source
+// Loaded from the database the first time a source is rescored, then kept up to date as new interactions are committed
+@ApplicationScoped
+@Unremovable
+public class SampleCache {
+	// Rough per-sample cost of the sample, its parameters and the list slot, on top of the strings themselves
+	private static final int SAMPLE_OVERHEAD_BYTES = 256;
+
+	private final InteractionRepository interactionRepository;
+	private final boolean enabled;
+	private final Cache<Source, SourceSamples> samples;
+	private final MeterProvider<Counter> lookupCounter;
+
+	public SampleCache(InteractionRepository interactionRepository, AIScoringConfig config, MeterRegistry meterRegistry) {
+		this.interactionRepository = interactionRepository;
+		this.enabled = config.sampleCache().enabled();
+		this.samples = Caffeine.newBuilder()
+			.maximumWeight(config.sampleCache().maxMemory().asLongValue())
+			.weigher((Source source, SourceSamples sourceSamples) -> (int) Math.min(sourceSamples.estimatedBytes(), Integer.MAX_VALUE))
+			.build();
+
+		this.lookupCounter = Counter.builder("scorer.samples.lookups")
+			.description("Rescore sample lookups, tagged by whether they were served from the cache")
+			.baseUnit("lookups")
+			.withRegistry(meterRegistry);
+	}
+
+	public List<EvaluationSample<String>> getSamples(Source source) {
+		if (!this.enabled) {
+			return toSamples(this.interactionRepository.findAllBySource(source)).samples();
+		}
+
+		var cached = this.samples.getIfPresent(source);
+
+		if (cached != null) {
+			this.lookupCounter.withTags("result", "hit").increment();
+			return cached.samples();
+		}
+
+		this.lookupCounter.withTags("result", "miss").increment();
+
+		// Sources with nothing stored yet aren't cached, so they're picked up as soon as they have history
+		var loaded = this.samples.get(source, s -> {
+			var sourceSamples = load(s);
+			return sourceSamples.samples().isEmpty() ? null : sourceSamples;
+		});
+
+		return (loaded != null) ? loaded.samples() : List.of();
+	}
+
+	public boolean hasSamples(Source source) {
+		if (this.enabled && (this.samples.getIfPresent(source) != null)) {
+			return true;
+		}
+
+		return this.interactionRepository.containsSource(source);
+	}
+
+	void onInteractionStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) InteractionStored event) {
+		if (this.enabled) {
+			var interaction = event.interaction();
+
+			// Only sources that are already cached need updating - everything else is loaded on first use
+			this.samples.asMap().computeIfPresent(Source.of(interaction), (source, sourceSamples) -> append(sourceSamples, interaction));
+		}
+	}
+
+	private SourceSamples load(Source source) {
+		Log.debugf("Loading samples for source %s", source);
+
+		// Only committed interactions get cached - anything still in flight arrives through onInteractionStored
+		return toSamples(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findAllBySource(source)));
+	}
+
+	private static SourceSamples toSamples(List<Interaction> interactions) {
+		return new SourceSamples(
+			interactions.stream().map(SampleCache::toSample).toList(),
+			interactions.stream().map(Interaction::getInteractionId).collect(Collectors.toUnmodifiableSet()),
+			interactions.stream().mapToLong(SampleCache::estimateSize).sum()
+		);
+	}
+
+	private static SourceSamples append(SourceSamples sourceSamples, Interaction interaction) {
+		// A load racing the commit may already have picked this one up
+		if (sourceSamples.interactionIds().contains(interaction.getInteractionId())) {
+			return sourceSamples;
+		}
+
+		var samples = new ArrayList<EvaluationSample<String>>(sourceSamples.samples().size() + 1);
+		samples.addAll(sourceSamples.samples());
+		samples.add(toSample(interaction));
+
+		var interactionIds = new HashSet<>(sourceSamples.interactionIds());
+		interactionIds.add(interaction.getInteractionId());
+
+		return new SourceSamples(List.copyOf(samples), Set.copyOf(interactionIds), sourceSamples.estimatedBytes() + estimateSize(interaction));
+	}
+
+	static EvaluationSample<String> toSample(Interaction interaction) {
+		return EvaluationSample.<String>builder()
+		                       .withName(interaction.getInteractionId().toString())
+		                       .withParameters(new Parameters()
+			                       .add("systemMessage", interaction.getSystemMessage())
+			                       .add("userMessage", interaction.getUserMessage()))
+		                       .withExpectedOutput(interaction.getResult())
+		                       .build();
+	}
+
+	private static long estimateSize(Interaction interaction) {
+		return SAMPLE_OVERHEAD_BYTES + (2L * (length(interaction.getSystemMessage()) + length(interaction.getUserMessage()) + length(interaction.getResult())));
+	}
+
+	private static int length(String value) {
+		return (value != null) ? value.length() : 0;
+	}
+
+	private record SourceSamples(List<EvaluationSample<String>> samples, Set<UUID> interactionIds, long estimatedBytes) {
+	}
+}
@@ -0,0 +1,10 @@
+package ai.scoring.evaluation;
+
+import io.quarkiverse.langchain4j.testing.evaluation.EvaluationReport;
+
+// The report only holds the samples that were actually evaluated, which may be fewer than were available if the outcome was decided early
+public record SampleEvaluation(EvaluationReport<String> evaluationReport, int samplesAvailable, boolean stoppedEarly) {
+	public int samplesEvaluated() {
+		return this.evaluationReport.evaluations().size();
+	}
+}
@@ -0,0 +1,57 @@
+package ai.scoring.evaluation;
+
+// Wald's sequential probability ratio test on the pass rate of sample evaluations
+// H0: pass rate <= threshold - indifference, H1: pass rate >= threshold + indifference
+// Anything in between is close enough to the threshold that it has to be settled by evaluating every sample
+public final class SequentialProbabilityRatioTest {
+	public enum Decision {
+		ABOVE, BELOW, UNDECIDED
+	}
+
+	private final double passWeight;
+	private final double failWeight;
+	private final double upperBound;
+	private final double lowerBound;
+	private double logLikelihoodRatio;
+
+	// threshold and indifference are percentages, like the score of an evaluation report
+	public SequentialProbabilityRatioTest(double threshold, double indifference, double alpha, double beta) {
+		if ((alpha <= 0) || (alpha >= 1) || (beta <= 0) || (beta >= 1)) {
+			throw new IllegalArgumentException("alpha and beta must be between 0 and 1");
+		}
+
+		if (indifference <= 0) {
+			throw new IllegalArgumentException("indifference must be greater than 0");
+		}
+
+		var p0 = clamp((threshold - indifference) / 100);
+		var p1 = clamp((threshold + indifference) / 100);
+
+		this.passWeight = Math.log(p1 / p0);
+		this.failWeight = Math.log((1 - p1) / (1 - p0));
+		this.upperBound = Math.log((1 - beta) / alpha);
+		this.lowerBound = Math.log(beta / (1 - alpha));
+	}
+
+	public synchronized Decision record(boolean passed) {
+		this.logLikelihoodRatio += passed ? this.passWeight : this.failWeight;
+		return decision();
+	}
+
+	public synchronized Decision decision() {
+		if (this.logLikelihoodRatio >= this.upperBound) {
+			return Decision.ABOVE;
+		}
+
+		if (this.logLikelihoodRatio <= this.lowerBound) {
+			return Decision.BELOW;
+		}
+
+		return Decision.UNDECIDED;
+	}
+
+	// Keeps both hypotheses strictly inside (0, 1) so the log likelihoods stay finite
+	private static double clamp(double p) {
+		return Math.min(Math.max(p, 0.001), 0.999);
+	}
+}
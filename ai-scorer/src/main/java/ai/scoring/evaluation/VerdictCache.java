@@ -0,0 +1,127 @@
+package ai.scoring.evaluation;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.VerdictCacheConfig;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.embedding.ContentHash;
+import ai.scoring.repository.RescoreVerdictRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+
+// Rescore verdicts by the content they were given, so the same reply from the same source to the same user message isn't evaluated again
+// Samples keep growing underneath a cached verdict, so the TTL bounds how stale it can get
+@ApplicationScoped
+public class VerdictCache {
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final String KEY_DELIMITER = "\u0000";
+
+	private final VerdictCacheConfig config;
+	private final RescoreVerdictRepository verdictRepository;
+	private final Cache<String, RescoreVerdict> verdicts;
+	private final MeterProvider<Counter> lookupCounter;
+
+	public VerdictCache(AIScoringConfig config, RescoreVerdictRepository verdictRepository, MeterRegistry meterRegistry) {
+		this.config = config.verdictCache();
+		this.verdictRepository = verdictRepository;
+		this.verdicts = Caffeine.newBuilder()
+			.maximumSize(this.config.maxEntries())
+			.expireAfterWrite(this.config.ttl())
+			.recordStats()
+			.build();
+
+		this.lookupCounter = Counter.builder("scorer.verdicts.lookups")
+			.description("Rescore verdict lookups, tagged by where they were answered from")
+			.baseUnit("lookups")
+			.withRegistry(meterRegistry);
+
+		Gauge.builder("scorer.verdicts.hit.ratio", this.verdicts, verdicts -> verdicts.stats().hitRate())
+			.description("Share of in-memory rescore verdict lookups that were hits")
+			.register(meterRegistry);
+
+		Gauge.builder("scorer.verdicts.size", this.verdicts, Cache::estimatedSize)
+			.description("Rescore verdicts held in memory")
+			.baseUnit("verdicts")
+			.register(meterRegistry);
+	}
+
+	public RescoreVerdict get(Interaction interaction, Supplier<RescoreVerdict> evaluate) {
+		if (!this.config.enabled()) {
+			return evaluate.get();
+		}
+
+		var key = key(interaction);
+		var cached = this.verdicts.getIfPresent(key);
+
+		if (cached != null) {
+			this.lookupCounter.withTags("result", "hit").increment();
+			Log.debugf("Reusing rescore verdict for interaction %s", interaction.getInteractionId());
+			return cached;
+		}
+
+		var persisted = findPersisted(key);
+
+		if (persisted.isPresent()) {
+			this.lookupCounter.withTags("result", "persisted").increment();
+			this.verdicts.put(key, persisted.get());
+			return persisted.get();
+		}
+
+		this.lookupCounter.withTags("result", "miss").increment();
+
+		// Two identical rescores racing each other may both evaluate, which is cheaper than holding one up behind the other's judge calls
+		var verdict = evaluate.get();
+		this.verdicts.put(key, verdict);
+
+		if (this.config.persist()) {
+			this.verdictRepository.save(key, verdict);
+		}
+
+		return verdict;
+	}
+
+	@Scheduled(every = "{ai.scoring.verdict-cache.ttl}", concurrentExecution = ConcurrentExecution.SKIP)
+	void deleteExpired() {
+		if (this.config.enabled() && this.config.persist()) {
+			var deleted = this.verdictRepository.deleteOlderThan(Instant.now().minus(this.config.ttl()));
+			Log.debugf("Deleted %d expired rescore verdicts", deleted);
+		}
+	}
+
+	private Optional<RescoreVerdict> findPersisted(String key) {
+		return this.config.persist() ?
+		       this.verdictRepository.find(key, Instant.now().minus(this.config.ttl())) :
+		       Optional.empty();
+	}
+
+	static String key(Interaction interaction) {
+		return ContentHash.of(String.join(
+			KEY_DELIMITER,
+			interaction.getApplicationName(),
+			interaction.getInterfaceName(),
+			interaction.getMethodName(),
+			normalize(interaction.getUserMessage()),
+			(interaction.getResult() != null) ? interaction.getResult() : ""
+		));
+	}
+
+	// Whitespace differences alone don't change what was asked
+	static String normalize(String userMessage) {
+		return (userMessage != null) ? WHITESPACE.matcher(userMessage.strip()).replaceAll(" ") : "";
+	}
+}
@@ -4,6 +4,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants.ComponentModel;
 
+import ai.scoring.domain.event.InteractionCoalescedEvent;
 import ai.scoring.domain.event.InteractionCompletedEvent;
 import ai.scoring.domain.event.InteractionEvent;
 import ai.scoring.domain.event.InteractionStartedEvent;
@@ -19,12 +20,17 @@ public interface InteractionEventMapper {
 	@Mapping(target = "id", ignore = true)
 	InteractionCompletedEvent map(ai.scoring.model.InteractionCompletedEvent event);
 
+	@Mapping(target = "invocationContext", source = ".")
+	@Mapping(target = "id", ignore = true)
+	InteractionCoalescedEvent map(ai.scoring.model.InteractionCoalescedEvent event);
+
 	InvocationContext mapInvocationContext(ai.scoring.model.InteractionEvent event);
 
 	default InteractionEvent map(ai.scoring.model.InteractionEvent event) {
 		return switch(event) {
 			case ai.scoring.model.InteractionStartedEvent startedEvent -> map(startedEvent);
 			case ai.scoring.model.InteractionCompletedEvent completedEvent -> map(completedEvent);
+			case ai.scoring.model.InteractionCoalescedEvent coalescedEvent -> map(coalescedEvent);
 			default -> throw new IllegalArgumentException("Unsupported event type: " + event.getClass().getName());
 		};
 	}
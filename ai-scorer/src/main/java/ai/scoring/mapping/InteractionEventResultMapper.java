@@ -0,0 +1,22 @@
+package ai.scoring.mapping;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants.ComponentModel;
+
+import ai.scoring.domain.event.InteractionEventType;
+import ai.scoring.domain.interaction.InteractionEventResult;
+
+@Mapper(componentModel = ComponentModel.JAKARTA_CDI, uses = InteractionScoreMapper.class)
+public interface InteractionEventResultMapper {
+	@Mapping(target = "interactionType", source = "eventType")
+	ai.scoring.model.InteractionEventResult map(InteractionEventResult result);
+
+	default String map(InteractionEventType eventType) {
+		return switch (eventType) {
+			case INTERACTION_STARTED -> "started";
+			case INTERACTION_COMPLETED -> "completed";
+			case INTERACTION_COALESCED -> "interaction";
+		};
+	}
+}
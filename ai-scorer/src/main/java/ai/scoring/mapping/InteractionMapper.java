@@ -4,6 +4,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants.ComponentModel;
 
+import ai.scoring.domain.event.InteractionCoalescedEvent;
 import ai.scoring.domain.event.InteractionCompletedEvent;
 import ai.scoring.domain.event.InteractionStartedEvent;
 import ai.scoring.domain.interaction.Interaction;
@@ -14,7 +15,12 @@ public interface InteractionMapper {
 	@Mapping(target = "result", source = "completedEvent.result")
 	@Mapping(target = "systemMessage", source = "startedEvent.systemMessage")
 	@Mapping(target = "userMessage", source = "startedEvent.userMessage")
+	@Mapping(target = "scored", ignore = true)
 	Interaction map(InteractionStartedEvent startedEvent, InteractionCompletedEvent completedEvent);
 
+	@Mapping(target = ".", source = "invocationContext")
+	@Mapping(target = "scored", ignore = true)
+	Interaction map(InteractionCoalescedEvent coalescedEvent);
+
 	ai.scoring.model.Interaction map(Interaction interaction);
 }
@@ -0,0 +1,56 @@
+package ai.scoring.partitioning;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.PartitionsConfig;
+import ai.scoring.repository.InteractionPartitionRepository;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+
+// Keeps the monthly interactions partitions ahead of the clock, so new interactions never land in the default partition,
+// and drops partitions once they fall out of the retention window
+@ApplicationScoped
+public class PartitionMaintenance {
+	private final InteractionPartitionRepository partitionRepository;
+	private final PartitionsConfig config;
+
+	public PartitionMaintenance(InteractionPartitionRepository partitionRepository, AIScoringConfig scoringConfig) {
+		this.partitionRepository = partitionRepository;
+		this.config = scoringConfig.partitions();
+	}
+
+	@Scheduled(every = "{ai.scoring.partitions.maintenance-interval}", concurrentExecution = ConcurrentExecution.SKIP)
+	void scheduledMaintenance() {
+		if (this.config.maintenanceEnabled()) {
+			maintain();
+		}
+	}
+
+	public void maintain() {
+		// Partition bounds are UTC months
+		var currentMonth = YearMonth.now(ZoneOffset.UTC);
+
+		QuarkusTransaction.requiringNew().run(() -> {
+			// Another replica is already on it
+			if (!this.partitionRepository.tryMaintenanceLock()) {
+				Log.debug("Skipping partition maintenance, another instance holds the lock");
+				return;
+			}
+
+			for (var month = 0; month <= this.config.premadeMonths(); month++) {
+				this.partitionRepository.createPartition(currentMonth.plusMonths(month));
+			}
+
+			this.config.retentionMonths()
+				.map(retentionMonths -> currentMonth.minusMonths(retentionMonths - 1))
+				.ifPresent(this.partitionRepository::dropPartitionsBefore);
+		});
+	}
+}
@@ -0,0 +1,52 @@
+package ai.scoring.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+
+import ai.scoring.domain.interaction.IndexableInteraction;
+import ai.scoring.domain.interaction.InteractionEmbedding;
+import ai.scoring.domain.sample.Source;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.logging.Log;
+import io.quarkus.panache.common.Parameters;
+
+@ApplicationScoped
+public class InteractionEmbeddingRepository implements PanacheRepositoryBase<InteractionEmbedding, UUID> {
+	// Results are only read for interactions without a stored embedding, as they're the only ones that need embedding
+	private static final String INDEXABLE_QUERY = """
+		SELECT new ai.scoring.domain.interaction.IndexableInteraction(
+			i.interactionId, i.applicationName, i.interfaceName, i.methodName,
+			CASE WHEN e.interactionId IS NULL THEN i.result END, e.vector, e.scale
+		)
+		FROM Interaction i LEFT JOIN InteractionEmbedding e ON e.interactionId = i.interactionId
+		WHERE i.result IS NOT NULL %s
+		ORDER BY i.interactionId
+		""";
+
+	@Transactional
+	public List<InteractionEmbedding> findAllBySource(Source source) {
+		Log.debugf("Retrieving embeddings for source %s", source);
+
+		return find(
+			"SELECT e FROM InteractionEmbedding e, Interaction i WHERE e.interactionId = i.interactionId AND i.applicationName = :applicationName AND i.interfaceName = :interfaceName AND i.methodName = :methodName",
+			Parameters.with("applicationName", source.applicationName())
+				.and("interfaceName", source.interfaceName())
+				.and("methodName", source.methodName())
+		).list();
+	}
+
+	// Keyset paged by interaction id, so each page is an index range scan however far into the table it is
+	@Transactional
+	public List<IndexableInteraction> findIndexable(Optional<UUID> after, int limit) {
+		var query = after.isPresent() ?
+		            getEntityManager().createQuery(INDEXABLE_QUERY.formatted("AND i.interactionId > :after"), IndexableInteraction.class).setParameter("after", after.get()) :
+		            getEntityManager().createQuery(INDEXABLE_QUERY.formatted(""), IndexableInteraction.class);
+
+		return query.setMaxResults(limit).getResultList();
+	}
+}
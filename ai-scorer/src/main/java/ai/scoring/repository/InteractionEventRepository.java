@@ -1,11 +1,13 @@
 package ai.scoring.repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
 
 import ai.scoring.domain.event.InteractionCompletedEvent;
 import ai.scoring.domain.event.InteractionEvent;
@@ -16,18 +18,72 @@ import io.quarkus.panache.common.Sort;
 
 @ApplicationScoped
 public class InteractionEventRepository implements PanacheRepository<InteractionEvent> {
+	private static final String EVENT_OF_TYPE_QUERY = "FROM InteractionEvent e WHERE e.invocationContext.interactionId = ?1 AND TYPE(e) = ?2";
+
 	public List<InteractionEvent> getAllForInteractionId(UUID interactionId) {
 		return list("invocationContext.interactionId", Sort.by("invocationContext.interactionDate"), interactionId);
 	}
 
 	@Transactional
 	public void deleteAllForInteractionId(UUID interactionId) {
-		getAllForInteractionId(interactionId).forEach(this::delete);
+		delete("invocationContext.interactionId", interactionId);
 	}
 
 	@Transactional
 	public Optional<InteractionStartedEvent> getCorrelatedStartedEvent(InteractionCompletedEvent interactionCompletedEvent) {
-		return find("FROM InteractionEvent e WHERE e.invocationContext.interactionId = ?1 AND TYPE(e) = ?2", interactionCompletedEvent.getInvocationContext().getInteractionId(), InteractionStartedEvent.class)
-			.singleResultOptional();
+		// The unique index means there's at most one, but a row left over from before it shouldn't break correlating the interaction
+		return find(EVENT_OF_TYPE_QUERY, interactionCompletedEvent.getInvocationContext().getInteractionId(), InteractionStartedEvent.class)
+			.firstResultOptional();
+	}
+
+	// A redelivered event is left alone rather than stored twice
+	// Holding the interaction's lock means replicas storing the same event take turns, rather than one of them failing on the unique index
+	@Transactional(TxType.MANDATORY)
+	public boolean persistIfAbsent(InteractionEvent event) {
+		var interactionId = event.getInvocationContext().getInteractionId();
+		InteractionRepository.lockInteraction(getEntityManager(), interactionId);
+
+		if (count(EVENT_OF_TYPE_QUERY, interactionId, event.getClass()) > 0) {
+			return false;
+		}
+
+		persist(event);
+		return true;
+	}
+
+	// Completed events held for their started event (see ReorderBuffer)
+	@Transactional
+	public Optional<InteractionCompletedEvent> takeCompletedEvent(UUID interactionId) {
+		var completedEvent = find(EVENT_OF_TYPE_QUERY, interactionId, InteractionCompletedEvent.class)
+			.firstResultOptional()
+			.map(InteractionCompletedEvent.class::cast);
+
+		completedEvent.ifPresent(e -> deleteCompletedEvent(interactionId));
+		return completedEvent;
+	}
+
+	@Transactional
+	public boolean hasCompletedEvents() {
+		return find("FROM InteractionEvent e WHERE TYPE(e) = ?1", InteractionCompletedEvent.class).firstResultOptional().isPresent();
+	}
+
+	@Transactional
+	public long deleteCompletedEvent(UUID interactionId) {
+		return delete("DELETE FROM InteractionEvent e WHERE e.invocationContext.interactionId = ?1 AND TYPE(e) = ?2", interactionId, InteractionCompletedEvent.class);
+	}
+
+	// One held by another replica's memory may have been matched before it was committed, so nobody else is going to take it
+	// Looked up in interaction_ids (V11) rather than across every partition of interactions
+	@Transactional
+	public long deleteStoredCompletedEvents() {
+		return getEntityManager()
+			.createNativeQuery("DELETE FROM interaction_events e USING interaction_ids i WHERE e.interaction_id = i.interaction_id AND e.event_type = :eventType")
+			.setParameter("eventType", InteractionCompletedEvent.EVENT_TYPE)
+			.executeUpdate();
+	}
+
+	@Transactional
+	public long deleteCompletedEventsBefore(Instant cutoff) {
+		return delete("DELETE FROM InteractionEvent e WHERE TYPE(e) = ?1 AND e.createdOn < ?2", InteractionCompletedEvent.class, cutoff);
 	}
 }
@@ -0,0 +1,88 @@
+package ai.scoring.repository;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+
+import io.quarkus.logging.Log;
+
+// The partitioning DDL itself lives in the create_interactions_partition/drop_interactions_partitions_before functions (see the V3 and V11 migrations)
+@ApplicationScoped
+public class InteractionPartitionRepository {
+	private static final String MAINTENANCE_LOCK = "interactions_partition_maintenance";
+
+	private final EntityManager entityManager;
+
+	public InteractionPartitionRepository(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	// Transaction scoped, so only one replica runs maintenance at a time and the lock goes away with the transaction
+	@Transactional(TxType.MANDATORY)
+	public boolean tryMaintenanceLock() {
+		return (Boolean) this.entityManager.createNativeQuery("SELECT pg_try_advisory_xact_lock(hashtext(:lock))")
+			.setParameter("lock", MAINTENANCE_LOCK)
+			.getSingleResult();
+	}
+
+	// Returns false if the partition already existed
+	@Transactional
+	public boolean createPartition(YearMonth month) {
+		var created = (Boolean) this.entityManager.createNativeQuery("SELECT create_interactions_partition(:monthStart)")
+			.setParameter("monthStart", month.atDay(1))
+			.getSingleResult();
+
+		if (created) {
+			Log.infof("Created interactions partition for %s", month);
+		}
+
+		return created;
+	}
+
+	// Drops every monthly partition that ends on or before the start of the given month
+	@Transactional
+	public int dropPartitionsBefore(YearMonth month) {
+		var dropped = ((Number) this.entityManager.createNativeQuery("SELECT drop_interactions_partitions_before(:cutoff)")
+			.setParameter("cutoff", month.atDay(1))
+			.getSingleResult()).intValue();
+
+		if (dropped > 0) {
+			Log.infof("Dropped %d interactions partitions before %s", dropped, month);
+		}
+
+		return dropped;
+	}
+
+	// The monthly partitions that currently exist, oldest first (the default partition isn't included)
+	@Transactional
+	public List<YearMonth> findPartitions() {
+		List<?> names = this.entityManager.createNativeQuery("""
+				SELECT c.relname
+				FROM pg_inherits i
+				JOIN pg_class c ON c.oid = i.inhrelid
+				WHERE i.inhparent = 'interactions'::regclass
+				  AND c.relname ~ '^interactions_[0-9]{4}_[0-9]{2}$'
+				ORDER BY c.relname
+				""")
+			.getResultList();
+
+		return names.stream()
+			.map(name -> name.toString().substring("interactions_".length()).replace('_', '-'))
+			.map(YearMonth::parse)
+			.toList();
+	}
+
+	// Which table an interaction is physically stored in
+	@Transactional
+	public String findPartitionContaining(UUID interactionId) {
+		return this.entityManager.createNativeQuery("SELECT tableoid::regclass::text FROM interactions WHERE interaction_id = :interactionId")
+			.setParameter("interactionId", interactionId)
+			.getSingleResult()
+			.toString();
+	}
+}
@@ -1,16 +1,30 @@
 package ai.scoring.repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import ai.scoring.domain.event.InteractionCompletedEvent;
 import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionCursor;
+import ai.scoring.domain.interaction.InteractionPage;
 import ai.scoring.domain.interaction.InteractionQuery;
+import ai.scoring.domain.interaction.InteractionScore;
 import ai.scoring.domain.sample.Source;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
@@ -19,16 +33,57 @@ import io.quarkus.panache.common.Parameters;
 
 @ApplicationScoped
 public class InteractionRepository implements PanacheRepositoryBase<Interaction, UUID> {
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	private static final int STREAM_FETCH_SIZE = 200;
+
+	// Takes the started event out of interaction_events, interns its system message and stores the interaction in one statement
+	// Empty if there was no started event to pair with
+	private static final String INSERT_CORRELATED_QUERY = """
+		WITH started AS (
+			DELETE FROM interaction_events
+			WHERE interaction_id = :interactionId AND event_type = 'INTERACTION_STARTED'
+			RETURNING system_message, user_message, encode(sha256(convert_to(system_message, 'UTF8')), 'hex') AS system_message_hash
+		),
+		prompt AS (
+			INSERT INTO prompts (hash, content)
+			SELECT system_message_hash, system_message FROM started WHERE system_message IS NOT NULL
+			ON CONFLICT (hash) DO NOTHING
+		),
+		interaction AS (
+			INSERT INTO interactions (interaction_id, interaction_date, application_name, interface_name, method_name, system_message_hash, user_message, result, scored)
+			SELECT :interactionId, :interactionDate, :applicationName, :interfaceName, :methodName, system_message_hash, user_message, CAST(:result AS TEXT), :scored FROM started
+		)
+		SELECT system_message, user_message FROM started
+		""";
+
 	private final CriteriaBuilder criteriaBuilder;
+	private final PromptRepository promptRepository;
 
-	public InteractionRepository(CriteriaBuilder criteriaBuilder) {
+	public InteractionRepository(CriteriaBuilder criteriaBuilder, PromptRepository promptRepository) {
 		this.criteriaBuilder = criteriaBuilder;
+		this.promptRepository = promptRepository;
+	}
+
+	@Override
+	public void persist(Interaction interaction) {
+		// The interaction only stores the hash of its system message, so the message itself has to be in prompts
+		Optional.ofNullable(interaction.getSystemMessage())
+			.ifPresent(this.promptRepository::intern);
+
+		PanacheRepositoryBase.super.persist(interaction);
 	}
 
 	@Transactional
 	public boolean containsSource(Source source) {
 		Log.debugf("Checking if source %s exists", source);
-		return count("#Interaction.countBySource", parameters(source)) > 0;
+
+		return !getEntityManager().createNamedQuery("Interaction.existsBySource")
+			.setParameter("applicationName", source.applicationName())
+			.setParameter("interfaceName", source.interfaceName())
+			.setParameter("methodName", source.methodName())
+			.setMaxResults(1)
+			.getResultList()
+			.isEmpty();
 	}
 
 	@Transactional
@@ -39,6 +94,48 @@ public class InteractionRepository implements PanacheRepositoryBase<Interaction,
 
 	@Transactional
 	public List<Interaction> findInteractions(InteractionQuery query) {
+		var q = createQuery(query);
+		query.getLimit().ifPresent(q::setMaxResults);
+
+		return q.getResultList();
+	}
+
+	@Transactional
+	public InteractionPage findInteractionPage(InteractionQuery query) {
+		var limit = query.getLimit().orElse(DEFAULT_PAGE_SIZE);
+
+		if ((limit < 1) || (limit > InteractionQuery.MAX_LIMIT)) {
+			throw new IllegalArgumentException("limit must be between 1 and %d".formatted(InteractionQuery.MAX_LIMIT));
+		}
+
+		// One extra row tells us whether there's another page without having to count
+		var interactions = findInteractions(query.toBuilder().limit(limit + 1).build());
+
+		if (interactions.size() <= limit) {
+			return new InteractionPage(interactions, null);
+		}
+
+		var page = interactions.subList(0, limit);
+		return new InteractionPage(List.copyOf(page), InteractionCursor.of(page.getLast()));
+	}
+
+	// Detaches each interaction once it's been handed over, so the session never holds more than a fetch's worth
+	@Transactional
+	public void forEachInteraction(InteractionQuery query, Consumer<Interaction> consumer) {
+		Query<Interaction> q = createQuery(query).unwrap(Query.class);
+		q.setFetchSize(STREAM_FETCH_SIZE);
+		q.setReadOnly(true);
+
+		try (var results = q.scroll(ScrollMode.FORWARD_ONLY)) {
+			while (results.next()) {
+				var interaction = results.get();
+				consumer.accept(interaction);
+				getEntityManager().detach(interaction);
+			}
+		}
+	}
+
+	private TypedQuery<Interaction> createQuery(InteractionQuery query) {
 		var q = this.criteriaBuilder.createQuery(Interaction.class);
 		var root = q.from(Interaction.class);
 		var predicates = new ArrayList<Predicate>();
@@ -63,9 +160,99 @@ public class InteractionRepository implements PanacheRepositoryBase<Interaction,
 			.map(end -> this.criteriaBuilder.lessThanOrEqualTo(root.get("interactionDate"), end))
 			.ifPresent(predicates::add);
 
-		q.where(predicates.toArray(Predicate[]::new));
+		// Keyset: (interactionDate, interactionId) > (after.interactionDate, after.interactionId)
+		query.getAfter()
+			.map(after -> this.criteriaBuilder.or(
+				this.criteriaBuilder.greaterThan(root.get("interactionDate"), after.interactionDate()),
+				this.criteriaBuilder.and(
+					this.criteriaBuilder.equal(root.get("interactionDate"), after.interactionDate()),
+					this.criteriaBuilder.greaterThan(root.get("interactionId"), after.interactionId())
+				)
+			))
+			.ifPresent(predicates::add);
+
+		q.where(predicates.toArray(Predicate[]::new))
+			.orderBy(this.criteriaBuilder.asc(root.get("interactionDate")), this.criteriaBuilder.asc(root.get("interactionId")));
 
-		return getEntityManager().createQuery(q).getResultList();
+		return getEntityManager().createQuery(q);
+	}
+
+	// Transaction scoped, so deliveries of the same interaction are handled one after the other, on any replica
+	@Transactional(TxType.MANDATORY)
+	public void lockInteraction(UUID interactionId) {
+		lockInteraction(getEntityManager(), interactionId);
+	}
+
+	static void lockInteraction(EntityManager entityManager, UUID interactionId) {
+		entityManager.createNativeQuery("SELECT 1 FROM (SELECT pg_advisory_xact_lock(:lockKey)) AS lock")
+			.setParameter("lockKey", interactionId.getMostSignificantBits() ^ interactionId.getLeastSignificantBits())
+			.getSingleResult();
+	}
+
+	@Transactional
+	public List<Interaction> findByIds(Collection<UUID> interactionIds) {
+		return interactionIds.isEmpty() ? List.of() : list("interactionId IN ?1", interactionIds);
+	}
+
+	// The set-based alternative to correlating, mapping, persisting and deleting the events one entity at a time, for one round trip instead of several
+	// The interaction handed back isn't managed, so its scores have to be stored with storeScore rather than cascaded
+	@Transactional(TxType.MANDATORY)
+	public Optional<Interaction> insertCorrelated(InteractionCompletedEvent event, boolean scored) {
+		var invocationContext = event.getInvocationContext();
+
+		return getEntityManager().createNativeQuery(INSERT_CORRELATED_QUERY)
+			.setParameter("interactionId", invocationContext.getInteractionId())
+			.setParameter("interactionDate", invocationContext.getInteractionDate())
+			.setParameter("applicationName", invocationContext.getApplicationName())
+			.setParameter("interfaceName", invocationContext.getInterfaceName())
+			.setParameter("methodName", invocationContext.getMethodName())
+			.setParameter("result", event.getResult())
+			.setParameter("scored", scored)
+			.getResultStream()
+			.findFirst()
+			.map(row -> {
+				var columns = (Object[]) row;
+
+				return Interaction.builder()
+					.interactionId(invocationContext.getInteractionId())
+					.interactionDate(invocationContext.getInteractionDate())
+					.applicationName(invocationContext.getApplicationName())
+					.interfaceName(invocationContext.getInterfaceName())
+					.methodName(invocationContext.getMethodName())
+					.systemMessage((String) columns[0])
+					.userMessage((String) columns[1])
+					.result(event.getResult())
+					.scored(scored)
+					.build();
+			});
+	}
+
+	// The date keeps it to the interaction's own partition
+	@Transactional
+	public void markUnscored(Interaction interaction) {
+		update("scored = false WHERE interactionId = ?1 AND interactionDate = ?2", interaction.getInteractionId(), interaction.getInteractionDate());
+	}
+
+	// An interaction stored by insertCorrelated isn't in the session, so its score can't be cascaded
+	@Transactional
+	public void storeScore(InteractionScore score) {
+		if (!getEntityManager().contains(score.getInteraction())) {
+			persistScore(score);
+			getEntityManager().flush();
+		}
+	}
+
+	@Transactional
+	public void persistScore(InteractionScore score) {
+		var interaction = getEntityManager().getReference(Interaction.class, score.getInteraction().getInteractionId());
+		getEntityManager().persist(score.toBuilder().interaction(interaction).build());
+	}
+
+	// The whole list goes out as one JDBC batch, rather than quarkus.hibernate-orm.jdbc.statement-batch-size at a time
+	@Transactional
+	public void persistScores(List<InteractionScore> scores) {
+		getEntityManager().unwrap(Session.class).setJdbcBatchSize(scores.size());
+		scores.forEach(this::persistScore);
 	}
 
 	private static Parameters parameters(Source source) {
@@ -0,0 +1,32 @@
+package ai.scoring.repository;
+
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+
+import ai.scoring.domain.prompt.Prompt;
+import ai.scoring.embedding.ContentHash;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+
+// Prompts are cached (see Prompt), so looking one up doesn't usually go to the database
+@ApplicationScoped
+public class PromptRepository implements PanacheRepositoryBase<Prompt, String> {
+	// Makes sure the content is stored, returning the hash it's stored under
+	@Transactional
+	public String intern(String content) {
+		var hash = ContentHash.of(content);
+
+		if (findByIdOptional(hash).isEmpty()) {
+			persist(Prompt.of(content));
+		}
+
+		return hash;
+	}
+
+	@Transactional
+	public Optional<String> findContent(String hash) {
+		return findByIdOptional(hash).map(Prompt::getContent);
+	}
+}
@@ -0,0 +1,56 @@
+package ai.scoring.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import ai.scoring.evaluation.RescoreVerdict;
+
+// Outcomes of rescores by content key, so the verdict cache survives restarts (see V6 migration)
+@ApplicationScoped
+public class RescoreVerdictRepository {
+	private final EntityManager entityManager;
+
+	public RescoreVerdictRepository(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Transactional
+	public Optional<RescoreVerdict> find(String key, Instant notBefore) {
+		return this.entityManager.createNativeQuery("SELECT score, samples_evaluated, samples_available FROM rescore_verdicts WHERE key = :key AND created_on >= :notBefore")
+			.setParameter("key", key)
+			.setParameter("notBefore", notBefore)
+			.getResultStream()
+			.findFirst()
+			.map(row -> {
+				var columns = (Object[]) row;
+				return new RescoreVerdict(((Number) columns[0]).doubleValue(), null, ((Number) columns[1]).intValue(), ((Number) columns[2]).intValue());
+			});
+	}
+
+	@Transactional
+	public void save(String key, RescoreVerdict verdict) {
+		this.entityManager.createNativeQuery("""
+				INSERT INTO rescore_verdicts (key, score, samples_evaluated, samples_available, created_on)
+				VALUES (:key, :score, :samplesEvaluated, :samplesAvailable, now())
+				ON CONFLICT (key) DO UPDATE
+				SET score = EXCLUDED.score, samples_evaluated = EXCLUDED.samples_evaluated, samples_available = EXCLUDED.samples_available, created_on = EXCLUDED.created_on
+				""")
+			.setParameter("key", key)
+			.setParameter("score", verdict.score())
+			.setParameter("samplesEvaluated", verdict.samplesEvaluated())
+			.setParameter("samplesAvailable", verdict.samplesAvailable())
+			.executeUpdate();
+	}
+
+	// Expired verdicts are never read, this just keeps the table from growing forever
+	@Transactional
+	public int deleteOlderThan(Instant cutoff) {
+		return this.entityManager.createNativeQuery("DELETE FROM rescore_verdicts WHERE created_on < :cutoff")
+			.setParameter("cutoff", cutoff)
+			.executeUpdate();
+	}
+}
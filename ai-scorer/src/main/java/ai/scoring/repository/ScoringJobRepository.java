@@ -0,0 +1,81 @@
+package ai.scoring.repository;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import ai.scoring.scoring.ScoringJob;
+
+// The work queue behind the scoring pipeline's DATABASE mode (see V8 migration)
+@ApplicationScoped
+public class ScoringJobRepository {
+	private final EntityManager entityManager;
+
+	public ScoringJobRepository(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	// Joins the caller's transaction, so the job only exists if the interaction it's for does
+	@Transactional
+	public void enqueue(UUID interactionId) {
+		this.entityManager.createNativeQuery("INSERT INTO scoring_jobs (interaction_id) VALUES (:interactionId) ON CONFLICT (interaction_id) DO NOTHING")
+			.setParameter("interactionId", interactionId)
+			.executeUpdate();
+	}
+
+	// SKIP LOCKED means workers racing for jobs each get a different one rather than waiting on each other
+	// The row lock only lasts for this transaction, after that it's the pushed out available_at that keeps other workers away
+	@Transactional
+	public Optional<ScoringJob> claim(Duration lease) {
+		var leaseId = UUID.randomUUID();
+
+		return this.entityManager.createNativeQuery("""
+				UPDATE scoring_jobs
+				SET available_at = now() + CAST(:lease AS INTERVAL), attempts = attempts + 1, lease_id = :leaseId
+				WHERE interaction_id = (
+					SELECT interaction_id FROM scoring_jobs
+					WHERE available_at <= now()
+					ORDER BY available_at
+					LIMIT 1
+					FOR UPDATE SKIP LOCKED
+				)
+				RETURNING interaction_id, attempts
+				""")
+			.setParameter("lease", lease.toString())
+			.setParameter("leaseId", leaseId)
+			.getResultStream()
+			.findFirst()
+			.map(row -> {
+				var columns = (Object[]) row;
+				return new ScoringJob((UUID) columns[0], leaseId, ((Number) columns[1]).intValue());
+			});
+	}
+
+	// False if the lease ran out and another worker claimed the job in the meantime
+	@Transactional
+	public boolean complete(ScoringJob job) {
+		return this.entityManager.createNativeQuery("DELETE FROM scoring_jobs WHERE interaction_id = :interactionId AND lease_id = :leaseId")
+			.setParameter("interactionId", job.interactionId())
+			.setParameter("leaseId", job.leaseId())
+			.executeUpdate() > 0;
+	}
+
+	// Gives the job back early, rather than waiting for the lease to run out
+	@Transactional
+	public void retry(ScoringJob job, Duration delay) {
+		this.entityManager.createNativeQuery("UPDATE scoring_jobs SET available_at = now() + CAST(:delay AS INTERVAL), lease_id = NULL WHERE interaction_id = :interactionId AND lease_id = :leaseId")
+			.setParameter("delay", delay.toString())
+			.setParameter("interactionId", job.interactionId())
+			.setParameter("leaseId", job.leaseId())
+			.executeUpdate();
+	}
+
+	@Transactional
+	public long count() {
+		return ((Number) this.entityManager.createNativeQuery("SELECT count(*) FROM scoring_jobs").getSingleResult()).longValue();
+	}
+}
@@ -0,0 +1,46 @@
+package ai.scoring.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.Provider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import ai.scoring.model.InteractionEvent;
+
+// Reads a single InteractionEvent or a batch of them sent as CBOR rather than JSON
+@Provider
+@Consumes(CborInteractionEventReader.APPLICATION_CBOR)
+public class CborInteractionEventReader implements MessageBodyReader<Object> {
+	public static final String APPLICATION_CBOR = "application/cbor";
+
+	private final ObjectMapper cborMapper;
+
+	public CborInteractionEventReader(ObjectMapper objectMapper) {
+		// Same modules and settings as the JSON mapper, so both encodings map the same way
+		this.cborMapper = objectMapper.copyWith(new CBORFactory());
+	}
+
+	@Override
+	public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return InteractionEvent.class.isAssignableFrom(type) ||
+			(List.class.isAssignableFrom(type) &&
+				(genericType instanceof ParameterizedType parameterizedType) &&
+				(parameterizedType.getActualTypeArguments()[0] == InteractionEvent.class));
+	}
+
+	@Override
+	public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+		return this.cborMapper.readerFor(this.cborMapper.constructType(genericType)).readValue(entityStream);
+	}
+}
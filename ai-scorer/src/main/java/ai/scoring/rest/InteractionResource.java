@@ -1,23 +1,42 @@
 package ai.scoring.rest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import ai.scoring.api.AiApi;
+import ai.scoring.domain.event.InteractionEventRequest;
+import ai.scoring.domain.interaction.InteractionCursor;
+import ai.scoring.domain.interaction.InteractionEventResult;
+import ai.scoring.domain.interaction.InteractionMode;
 import ai.scoring.domain.interaction.InteractionQuery;
 import ai.scoring.mapping.InteractionEventMapper;
+import ai.scoring.mapping.InteractionEventResultMapper;
 import ai.scoring.mapping.InteractionMapper;
 import ai.scoring.mapping.InteractionModeMapper;
 import ai.scoring.mapping.InteractionScoreMapper;
+import ai.scoring.model.InteractionCoalescedEvent;
 import ai.scoring.model.InteractionEvent;
+import ai.scoring.model.InteractionEventResults;
+import ai.scoring.model.InteractionStartedEvent;
 import ai.scoring.model.Interactions;
+import ai.scoring.model.Prompt;
 import ai.scoring.service.InteractionService;
+import ai.scoring.service.PromptService;
 
 import io.quarkus.logging.Log;
 
@@ -25,27 +44,51 @@ import io.smallrye.common.annotation.RunOnVirtualThread;
 
 @RunOnVirtualThread
 public class InteractionResource implements AiApi {
+	private static final int RETRY_AFTER_SECONDS = 1;
+
 	private final InteractionEventMapper interactionEventMapper;
 	private final InteractionModeMapper interactionModeMapper;
 	private final InteractionScoreMapper interactionScoreMapper;
 	private final InteractionMapper interactionMapper;
+	private final InteractionEventResultMapper interactionEventResultMapper;
 	private final InteractionService interactionService;
+	private final PromptService promptService;
+	private final ObjectMapper objectMapper;
 
-	public InteractionResource(InteractionEventMapper interactionEventMapper, InteractionModeMapper interactionModeMapper, InteractionScoreMapper interactionScoreMapper, InteractionMapper interactionMapper, InteractionService interactionService) {
+	public InteractionResource(InteractionEventMapper interactionEventMapper, InteractionModeMapper interactionModeMapper, InteractionScoreMapper interactionScoreMapper, InteractionMapper interactionMapper, InteractionEventResultMapper interactionEventResultMapper, InteractionService interactionService, PromptService promptService, ObjectMapper objectMapper) {
 		this.interactionEventMapper = interactionEventMapper;
 		this.interactionModeMapper = interactionModeMapper;
 		this.interactionScoreMapper = interactionScoreMapper;
 		this.interactionMapper = interactionMapper;
+		this.interactionEventResultMapper = interactionEventResultMapper;
 		this.interactionService = interactionService;
+		this.promptService = promptService;
+		this.objectMapper = objectMapper;
 	}
 
 	@Override
 	public Response submitInteractionEvent(@NotNull @Valid InteractionEvent event) {
 		Log.infof("Received event: %s", event);
 
+		if (!resolveSystemMessage(event)) {
+			// Not a bad request - the publisher just has to send the whole system message again
+			Log.warnf("No system message stored for the hash in event for interaction %s", event.getInteractionId());
+			return Response.status(Status.CONFLICT).build();
+		}
+
 		var interactionEvent = this.interactionEventMapper.map(event);
 		var interactionMode = this.interactionModeMapper.map(event.getInteractionMode());
 
+		if (this.interactionService.scoresAsynchronously(interactionMode)) {
+			if (isTurnedAway(event, interactionMode)) {
+				return serviceUnavailable();
+			}
+
+			// A started event has nothing to score, so it's answered the same as when scoring synchronously
+			this.interactionService.handleInteractionEvent(interactionEvent, interactionMode);
+			return (event instanceof InteractionStartedEvent) ? Response.noContent().build() : Response.accepted().build();
+		}
+
 		return this.interactionService.handleInteractionEvent(interactionEvent, interactionMode)
 			.map(this.interactionScoreMapper::map)
 			.map(score -> {
@@ -57,23 +100,106 @@ public class InteractionResource implements AiApi {
 	}
 
 	@Override
-	public Response findInteractions(@QueryParam("applicationName") String applicationName, @QueryParam("interfaceName") String interfaceName, @QueryParam("methodName") String methodName, @QueryParam("start") Instant start, @QueryParam("end") Instant end) {
+	public Response submitInteractionEvents(@NotNull @Valid List<@Valid InteractionEvent> events) {
+		Log.infof("Received batch of %d events", events.size());
+
+		// Resolved before mapping, since it fills the system message in
+		var hasSystemMessage = events.stream()
+			.map(this::resolveSystemMessage)
+			.toList();
+
+		var requests = events.stream()
+			.map(event -> new InteractionEventRequest(this.interactionEventMapper.map(event), this.interactionModeMapper.map(event.getInteractionMode())))
+			.toList();
+
+		if (IntStream.range(0, events.size()).filter(hasSystemMessage::get).anyMatch(i -> isTurnedAway(events.get(i), requests.get(i).interactionMode()))) {
+			return serviceUnavailable();
+		}
+
+		var handledRequests = IntStream.range(0, requests.size())
+			.filter(hasSystemMessage::get)
+			.mapToObj(requests::get)
+			.toList();
+
+		var handled = this.interactionService.handleInteractionEvents(handledRequests).iterator();
+		var results = IntStream.range(0, requests.size())
+			.mapToObj(i -> hasSystemMessage.get(i) ? handled.next() : InteractionEventResult.unknownPrompt(requests.get(i).event()))
+			.map(this.interactionEventResultMapper::map)
+			.toList();
+
+		return Response.ok(InteractionEventResults.builder().results(results).build()).build();
+	}
+
+	@Override
+	public Response storePrompt(String hash, @NotNull @Valid Prompt prompt) {
+		return this.promptService.storePrompt(hash, prompt.getContent()) ?
+		       Response.noContent().build() :
+		       Response.status(Status.BAD_REQUEST).build();
+	}
+
+	@Override
+	public Response findInteractions(@QueryParam("applicationName") String applicationName, @QueryParam("interfaceName") String interfaceName, @QueryParam("methodName") String methodName, @QueryParam("start") Instant start, @QueryParam("end") Instant end, @QueryParam("cursor") String cursor, @QueryParam("limit") Integer limit) {
+		if ((limit != null) && ((limit < 1) || (limit > InteractionQuery.MAX_LIMIT))) {
+			Log.debugf("Rejecting limit %d", limit);
+			return Response.status(Status.BAD_REQUEST).build();
+		}
+
+		InteractionCursor after;
+
+		try {
+			after = (cursor != null) ? InteractionCursor.decode(cursor) : null;
+		}
+		catch (IllegalArgumentException e) {
+			Log.debugf(e, "Rejecting cursor %s", cursor);
+			return Response.status(Status.BAD_REQUEST).build();
+		}
+
 		var query = InteractionQuery.builder()
 			.applicationName(applicationName)
 			.interfaceName(interfaceName)
 			.methodName(methodName)
 			.start(start)
 			.end(end)
+			.after(after)
+			.limit(limit)
 			.build();
 
-		var interactions = this.interactionService.findInteractions(query)
+		var page = this.interactionService.findInteractionPage(query);
+		var interactions = page.interactions()
 			.stream()
 			.map(this.interactionMapper::map)
 			.toList();
 
 		return interactions.isEmpty() ?
 		       Response.status(Status.NOT_FOUND).build() :
-		       Response.ok(Interactions.builder().interactions(interactions).build()).build();
+		       Response.ok(
+			       Interactions.builder()
+				       .interactions(interactions)
+				       .nextCursor(page.getNextCursor().map(InteractionCursor::encode).orElse(null))
+				       .build()
+		       ).build();
+	}
+
+	@Override
+	public Response streamInteractions(@QueryParam("applicationName") String applicationName, @QueryParam("interfaceName") String interfaceName, @QueryParam("methodName") String methodName, @QueryParam("start") Instant start, @QueryParam("end") Instant end) {
+		var query = InteractionQuery.builder()
+			.applicationName(applicationName)
+			.interfaceName(interfaceName)
+			.methodName(methodName)
+			.start(start)
+			.end(end)
+			.build();
+
+		StreamingOutput output = outputStream -> {
+			try {
+				this.interactionService.forEachInteraction(query, interaction -> writeLine(outputStream, this.interactionMapper.map(interaction)));
+			}
+			catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		};
+
+		return Response.ok(output, NdjsonInteractionEventsReader.APPLICATION_NDJSON).build();
 	}
 
 	@Override
@@ -85,4 +211,51 @@ public class InteractionResource implements AiApi {
 			.orElseGet(() -> Response.status(Status.NOT_FOUND))
 			.build();
 	}
+
+	// Turned away before they're stored, so the publisher backs off and retries. Started events never add to the queue
+	private boolean isTurnedAway(InteractionEvent event, InteractionMode interactionMode) {
+		return !(event instanceof InteractionStartedEvent) && this.interactionService.isScoringBacklogged(interactionMode);
+	}
+
+	private static Response serviceUnavailable() {
+		return Response.status(Status.SERVICE_UNAVAILABLE)
+			.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+			.build();
+	}
+
+	// Events can send just the hash of a system message we already have (see storePrompt)
+	private boolean resolveSystemMessage(InteractionEvent event) {
+		return switch (event) {
+			case InteractionStartedEvent startedEvent when needsSystemMessage(startedEvent.getSystemMessage(), startedEvent.getSystemMessageHash()) ->
+				this.promptService.findPrompt(startedEvent.getSystemMessageHash())
+					.map(systemMessage -> {
+						startedEvent.setSystemMessage(systemMessage);
+						return true;
+					})
+					.orElse(false);
+			case InteractionCoalescedEvent coalescedEvent when needsSystemMessage(coalescedEvent.getSystemMessage(), coalescedEvent.getSystemMessageHash()) ->
+				this.promptService.findPrompt(coalescedEvent.getSystemMessageHash())
+					.map(systemMessage -> {
+						coalescedEvent.setSystemMessage(systemMessage);
+						return true;
+					})
+					.orElse(false);
+			default -> true;
+		};
+	}
+
+	private static boolean needsSystemMessage(String systemMessage, String systemMessageHash) {
+		return (systemMessage == null) && (systemMessageHash != null);
+	}
+
+	private void writeLine(OutputStream outputStream, ai.scoring.model.Interaction interaction) {
+		try {
+			outputStream.write(this.objectMapper.writeValueAsBytes(interaction));
+			outputStream.write('\n');
+		}
+		catch (IOException e) {
+			// Most likely the client went away
+			throw new UncheckedIOException(e);
+		}
+	}
 }
@@ -0,0 +1,45 @@
+package ai.scoring.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.Provider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ai.scoring.model.InteractionEvent;
+
+@Provider
+@Consumes(NdjsonInteractionEventsReader.APPLICATION_NDJSON)
+public class NdjsonInteractionEventsReader implements MessageBodyReader<List<InteractionEvent>> {
+	public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+	private final ObjectMapper objectMapper;
+
+	public NdjsonInteractionEventsReader(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return List.class.isAssignableFrom(type) &&
+			(genericType instanceof ParameterizedType parameterizedType) &&
+			(parameterizedType.getActualTypeArguments()[0] == InteractionEvent.class);
+	}
+
+	@Override
+	public List<InteractionEvent> readFrom(Class<List<InteractionEvent>> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+		// Each line is a standalone InteractionEvent document
+		try (var events = this.objectMapper.readerFor(InteractionEvent.class).<InteractionEvent>readValues(entityStream)) {
+			return events.readAll();
+		}
+	}
+}
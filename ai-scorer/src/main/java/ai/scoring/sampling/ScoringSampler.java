@@ -0,0 +1,120 @@
+package ai.scoring.sampling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.SamplingConfig;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.domain.sample.Source;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Decides which interactions get scored, per source
+// Each source starts at its configured rate, which is then scaled by how much its recent scores vary
+// Steady sources get scored less, and a source whose scores start moving around gets scored more again
+// NORMAL scores are relevance in [0, 1] and RESCORE scores are on a 0-100 scale, so each mode is tracked on its own and rescores are brought down to [0, 1]
+@ApplicationScoped
+public class ScoringSampler {
+	private static final double RESCORE_SCALE = 100;
+
+	private final SamplingConfig config;
+	private final Map<SourceMode, ScoreStatistics> statistics = new ConcurrentHashMap<>();
+	private final MeterProvider<Counter> decisionCounter;
+
+	public ScoringSampler(AIScoringConfig config, MeterRegistry meterRegistry) {
+		this.config = config.sampling();
+		this.decisionCounter = Counter.builder("scorer.sampling.decisions")
+			.description("Interactions the sampler decided to score or skip")
+			.baseUnit("interactions")
+			.withRegistry(meterRegistry);
+	}
+
+	public boolean shouldScore(Interaction interaction, InteractionMode interactionMode) {
+		return shouldScore(Source.of(interaction), interactionMode);
+	}
+
+	public boolean shouldScore(Source source, InteractionMode interactionMode) {
+		if (!this.config.enabled() || ((interactionMode == InteractionMode.RESCORE) && !this.config.includeRescores())) {
+			return true;
+		}
+
+		var scored = ThreadLocalRandom.current().nextDouble() < rate(source, interactionMode);
+		this.decisionCounter.withTags("source", source.asSourceString(), "scored", String.valueOf(scored)).increment();
+
+		return scored;
+	}
+
+	public void record(InteractionScore score) {
+		if (this.config.enabled() && (score.getScore() != null)) {
+			this.statistics.computeIfAbsent(new SourceMode(Source.of(score.getInteraction()), score.getMode()), key -> new ScoreStatistics(this.config.smoothing()))
+				.add(normalize(score.getScore(), score.getMode()));
+		}
+	}
+
+	public double rate(Source source, InteractionMode interactionMode) {
+		var stats = this.statistics.get(new SourceMode(source, interactionMode));
+
+		if ((stats == null) || (stats.count() < this.config.warmup())) {
+			return 1;
+		}
+
+		var configuredRate = this.config.rates().getOrDefault(source.asSourceString(), this.config.defaultRate());
+		var rate = configuredRate * (stats.standardDeviation() / this.config.targetStandardDeviation());
+
+		return Math.clamp(rate, Math.min(this.config.minRate(), configuredRate), 1);
+	}
+
+	private static double normalize(double score, InteractionMode interactionMode) {
+		return (interactionMode == InteractionMode.RESCORE) ? score / RESCORE_SCALE : score;
+	}
+
+	private record SourceMode(Source source, InteractionMode interactionMode) {
+	}
+
+	// Exponentially weighted, so older scores fade out rather than a source being judged on its whole history
+	static final class ScoreStatistics {
+		private final double smoothing;
+		private long count;
+		private double mean;
+		private double variance;
+
+		ScoreStatistics(double smoothing) {
+			if ((smoothing <= 0) || (smoothing > 1)) {
+				throw new IllegalArgumentException("smoothing must be in (0, 1]");
+			}
+
+			this.smoothing = smoothing;
+		}
+
+		synchronized void add(double score) {
+			if (this.count++ == 0) {
+				this.mean = score;
+				return;
+			}
+
+			var difference = score - this.mean;
+			var increment = this.smoothing * difference;
+			this.mean += increment;
+			this.variance = (1 - this.smoothing) * (this.variance + (difference * increment));
+		}
+
+		synchronized long count() {
+			return this.count;
+		}
+
+		synchronized double mean() {
+			return this.mean;
+		}
+
+		synchronized double standardDeviation() {
+			return Math.sqrt(this.variance);
+		}
+	}
+}
@@ -13,6 +13,9 @@ import ai.scoring.domain.interaction.InteractionMode;
 import ai.scoring.domain.interaction.InteractionScore;
 import ai.scoring.domain.interaction.RescoreResult;
 import ai.scoring.evaluation.InteractionEvaluator;
+import ai.scoring.evaluation.RescoreVerdict;
+import ai.scoring.evaluation.VerdictCache;
+import ai.scoring.sampling.ScoringSampler;
 import dev.langchain4j.model.scoring.ScoringModel;
 
 @ApplicationScoped
@@ -24,10 +27,14 @@ public class InteractionScorer {
 
 	private final ScoringModel scoringModel;
 	private final InteractionEvaluator interactionEvaluator;
+	private final ScoringSampler scoringSampler;
+	private final VerdictCache verdictCache;
 
-	public InteractionScorer(ScoringModel scoringModel, InteractionEvaluator interactionEvaluator) {
+	public InteractionScorer(ScoringModel scoringModel, InteractionEvaluator interactionEvaluator, ScoringSampler scoringSampler, VerdictCache verdictCache) {
 		this.scoringModel = scoringModel;
 		this.interactionEvaluator = interactionEvaluator;
+		this.scoringSampler = scoringSampler;
+		this.verdictCache = verdictCache;
 	}
 
 	public InteractionScore score(Interaction interaction) {
@@ -58,25 +65,28 @@ public class InteractionScorer {
 			.build();
 
 		interaction.getScores().add(score);
+		this.scoringSampler.record(score);
 
 		return score;
 	}
 
 	public RescoreResult rescore(Interaction interaction) {
 		var scoreDate = Instant.now();
-		var evaluationReport = this.interactionEvaluator.evaluate(interaction);
+		var verdict = this.verdictCache.get(interaction, () -> RescoreVerdict.of(this.interactionEvaluator.evaluate(interaction)));
 
-		Log.debugf("Interaction %s rescored as %s", interaction.getInteractionId(), evaluationReport.score());
+		Log.debugf("Interaction %s rescored as %s after evaluating %d of %d samples%s", interaction.getInteractionId(), verdict.score(), verdict.samplesEvaluated(), verdict.samplesAvailable(), verdict.isPartial() ? " (partial estimate)" : "");
 
 		var score = InteractionScore.builder()
 			.interaction(interaction)
-			.score(evaluationReport.score())
+			.score(verdict.score())
 			.scoreDate(scoreDate)
 			.mode(InteractionMode.RESCORE)
+			.partial(verdict.isPartial())
 			.build();
 
 		interaction.getScores().add(score);
+		this.scoringSampler.record(score);
 
-		return new RescoreResult(score, evaluationReport);
+		return new RescoreResult(score, verdict.evaluationReport(), verdict.samplesEvaluated(), verdict.samplesAvailable());
 	}
 }
@@ -0,0 +1,11 @@
+package ai.scoring.scoring;
+
+import ai.scoring.domain.interaction.Interaction;
+
+public record InteractionScoringRequest(Interaction interaction) {
+	public InteractionScoringRequest {
+		if (interaction == null) {
+			throw new IllegalArgumentException("interaction must not be null");
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package ai.scoring.scoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.ScoreWriterConfig;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.repository.InteractionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+// Write-behind for scores whose interaction has already been committed (see ScoringPipeline)
+// Anything that can't be buffered is written straight away, so a score is never dropped for lack of room
+@ApplicationScoped
+public class ScoreWriter {
+	private final InteractionRepository interactionRepository;
+	private final ScoreWriterConfig config;
+	private final BlockingQueue<InteractionScore> buffer;
+	private final DistributionSummary flushSize;
+	private final Timer flushDuration;
+	private final MeterProvider<Counter> writtenCounter;
+	private Thread flusher;
+	private volatile boolean running;
+
+	public ScoreWriter(InteractionRepository interactionRepository, AIScoringConfig config, MeterRegistry meterRegistry) {
+		this.interactionRepository = interactionRepository;
+		this.config = config.scoreWriter();
+		this.buffer = new ArrayBlockingQueue<>(this.config.capacity());
+
+		Gauge.builder("scorer.scores.buffered", this.buffer, BlockingQueue::size)
+			.description("Scores waiting to be written")
+			.baseUnit("scores")
+			.register(meterRegistry);
+
+		this.flushSize = DistributionSummary.builder("scorer.scores.flush.size")
+			.description("Scores written per batch")
+			.baseUnit("scores")
+			.register(meterRegistry);
+
+		this.flushDuration = Timer.builder("scorer.scores.flush.duration")
+			.description("Time taken to write a batch of scores")
+			.register(meterRegistry);
+
+		this.writtenCounter = Counter.builder("scorer.scores.written")
+			.description("Scores written, tagged by whether they went out in a batch, on their own, or failed")
+			.baseUnit("scores")
+			.withRegistry(meterRegistry);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (this.config.enabled()) {
+			this.running = true;
+			this.flusher = Thread.ofVirtual().name("score-writer").start(this::work);
+
+			Log.infof("Started score writer, writing batches of up to %d scores at least every %s", this.config.batchSize(), this.config.flushInterval());
+		}
+	}
+
+	// After the scoring pipeline has stopped (at the default priority), so the scores its workers finish while draining are written too
+	void onStop(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) ShutdownEvent shutdownEvent) {
+		if (this.running) {
+			this.running = false;
+
+			try {
+				this.flusher.join();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			if (!this.buffer.isEmpty()) {
+				Log.infof("Writing %d buffered scores before shutdown", this.buffer.size());
+			}
+
+			drain();
+		}
+	}
+
+	public void write(InteractionScore score) {
+		if (this.running && this.buffer.offer(score)) {
+			if (!this.running) {
+				// Raced with shutdown, so nothing else is going to write it
+				drain();
+			}
+
+			return;
+		}
+
+		writeDirectly(score);
+	}
+
+	private void work() {
+		while (this.running) {
+			try {
+				var batch = nextBatch();
+
+				if (!batch.isEmpty()) {
+					flush(batch);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (RuntimeException error) {
+				Log.errorf(error, "Error writing buffered scores");
+			}
+		}
+	}
+
+	private List<InteractionScore> nextBatch() throws InterruptedException {
+		var batch = new ArrayList<InteractionScore>(this.config.batchSize());
+		var first = this.buffer.poll(this.config.flushInterval().toNanos(), TimeUnit.NANOSECONDS);
+
+		if (first == null) {
+			return batch;
+		}
+
+		batch.add(first);
+		var deadline = System.nanoTime() + this.config.flushInterval().toNanos();
+
+		while (batch.size() < this.config.batchSize()) {
+			this.buffer.drainTo(batch, this.config.batchSize() - batch.size());
+			var remaining = deadline - System.nanoTime();
+
+			if ((batch.size() >= this.config.batchSize()) || (remaining <= 0)) {
+				break;
+			}
+
+			var next = this.buffer.poll(remaining, TimeUnit.NANOSECONDS);
+
+			if (next == null) {
+				break;
+			}
+
+			batch.add(next);
+		}
+
+		return batch;
+	}
+
+	private void drain() {
+		var batch = new ArrayList<InteractionScore>(this.config.batchSize());
+
+		while (this.buffer.drainTo(batch, this.config.batchSize()) > 0) {
+			flush(batch);
+			batch.clear();
+		}
+	}
+
+	private void flush(List<InteractionScore> batch) {
+		this.flushSize.record(batch.size());
+
+		try {
+			this.flushDuration.record(() -> QuarkusTransaction.requiringNew().run(() -> this.interactionRepository.persistScores(batch)));
+			this.writtenCounter.withTags("outcome", "batched").increment(batch.size());
+		}
+		catch (RuntimeException error) {
+			// One bad score takes the whole batch down, so the rest are written one at a time
+			// e.g. its interaction was deleted in the meantime
+			Log.warnf(error, "Error writing a batch of %d scores, writing them one at a time", batch.size());
+			batch.forEach(this::writeDirectly);
+		}
+	}
+
+	private void writeDirectly(InteractionScore score) {
+		try {
+			QuarkusTransaction.requiringNew().run(() -> this.interactionRepository.persistScore(score));
+			this.writtenCounter.withTags("outcome", "direct").increment();
+		}
+		catch (RuntimeException error) {
+			Log.errorf(error, "Error writing score for interaction %s", score.getInteraction().getInteractionId());
+			this.writtenCounter.withTags("outcome", "failed").increment();
+		}
+	}
+}
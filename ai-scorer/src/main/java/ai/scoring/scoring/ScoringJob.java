@@ -0,0 +1,16 @@
+package ai.scoring.scoring;
+
+import java.util.UUID;
+
+// An interaction claimed from scoring_jobs. The lease id proves the claim is still this worker's when the score is written
+public record ScoringJob(UUID interactionId, UUID leaseId, int attempts) {
+	public ScoringJob {
+		if (interactionId == null) {
+			throw new IllegalArgumentException("interactionId must not be null");
+		}
+
+		if (leaseId == null) {
+			throw new IllegalArgumentException("leaseId must not be null");
+		}
+	}
+}
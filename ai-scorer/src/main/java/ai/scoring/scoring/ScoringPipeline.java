@@ -0,0 +1,195 @@
+package ai.scoring.scoring;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.PipelineMode;
+import ai.scoring.config.AIScoringConfig.PipelineConfig;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.repository.InteractionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+// Scores NORMAL interactions once the ingest transaction has committed (in DATABASE mode the ScoringWorkQueue does instead)
+// Anything that can't be queued or fails to be scored is marked unscored so it can be scored later
+@ApplicationScoped
+public class ScoringPipeline {
+	private final InteractionScorer interactionScorer;
+	private final ScoreWriter scoreWriter;
+	private final InteractionRepository interactionRepository;
+	private final PipelineConfig pipelineConfig;
+	private final BlockingQueue<Interaction> queue;
+	private final List<Thread> workers = new ArrayList<>();
+	private final Counter enqueuedCounter;
+	private final Counter overflowCounter;
+	private final MeterProvider<Counter> completedCounter;
+	private volatile boolean running;
+
+	public ScoringPipeline(InteractionScorer interactionScorer, ScoreWriter scoreWriter, InteractionRepository interactionRepository, AIScoringConfig config, MeterRegistry meterRegistry) {
+		this.interactionScorer = interactionScorer;
+		this.scoreWriter = scoreWriter;
+		this.interactionRepository = interactionRepository;
+		this.pipelineConfig = config.pipeline();
+		this.queue = new ArrayBlockingQueue<>(this.pipelineConfig.queueCapacity());
+
+		Gauge.builder("scorer.pipeline.queue.depth", this.queue, BlockingQueue::size)
+			.description("Interactions waiting to be scored")
+			.baseUnit("interactions")
+			.register(meterRegistry);
+
+		Gauge.builder("scorer.pipeline.queue.remaining", this.queue, BlockingQueue::remainingCapacity)
+			.description("Free slots in the scoring queue")
+			.baseUnit("interactions")
+			.register(meterRegistry);
+
+		this.enqueuedCounter = Counter.builder("scorer.pipeline.enqueued")
+			.description("Interactions handed to the scoring pipeline")
+			.baseUnit("interactions")
+			.register(meterRegistry);
+
+		this.overflowCounter = Counter.builder("scorer.pipeline.overflow")
+			.description("Interactions left unscored because the scoring queue was full")
+			.baseUnit("interactions")
+			.register(meterRegistry);
+
+		this.completedCounter = Counter.builder("scorer.pipeline.completed")
+			.description("Interactions processed by the scoring pipeline")
+			.baseUnit("interactions")
+			.withRegistry(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return this.pipelineConfig.enabled();
+	}
+
+	public boolean isFull() {
+		return isInMemory() && (this.queue.remainingCapacity() == 0);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (isInMemory()) {
+			this.running = true;
+			var threadBuilder = Thread.ofVirtual().name("scoring-worker-", 0);
+
+			for (int i = 0; i < this.pipelineConfig.workers(); i++) {
+				this.workers.add(threadBuilder.start(this::work));
+			}
+
+			Log.infof("Started scoring pipeline with %d workers and a queue of %d", this.pipelineConfig.workers(), this.pipelineConfig.queueCapacity());
+		}
+	}
+
+	void onStop(@Observes ShutdownEvent shutdownEvent) {
+		if (this.running) {
+			this.running = false;
+			var deadline = System.nanoTime() + this.pipelineConfig.shutdownTimeout().toNanos();
+
+			for (var worker : this.workers) {
+				try {
+					var remaining = deadline - System.nanoTime();
+
+					if ((remaining <= 0) || !worker.join(Duration.ofNanos(remaining))) {
+						worker.interrupt();
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					worker.interrupt();
+				}
+			}
+
+			if (!this.queue.isEmpty()) {
+				Log.warnf("Scoring pipeline shut down with %d interactions left unscored", this.queue.size());
+			}
+		}
+	}
+
+	void onInteractionCompleted(@Observes(during = TransactionPhase.AFTER_SUCCESS) InteractionScoringRequest request) {
+		if (isInMemory()) {
+			submit(request.interaction());
+		}
+	}
+
+	private boolean isInMemory() {
+		return isEnabled() && (this.pipelineConfig.mode() == PipelineMode.MEMORY);
+	}
+
+	void submit(Interaction interaction) {
+		var enqueued = false;
+
+		if (this.running) {
+			try {
+				enqueued = this.queue.offer(interaction, this.pipelineConfig.enqueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (enqueued) {
+			this.enqueuedCounter.increment();
+		}
+		else if (this.running) {
+			Log.warnf("Scoring queue full, leaving interaction %s unscored", interaction.getInteractionId());
+			this.overflowCounter.increment();
+			markUnscored(interaction);
+		}
+		else {
+			// Shutting down, so there are no workers left to hand it to
+			process(interaction);
+		}
+	}
+
+	private void work() {
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				var interaction = this.queue.poll(1, TimeUnit.SECONDS);
+
+				if (interaction != null) {
+					process(interaction);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void process(Interaction interaction) {
+		try {
+			var score = this.interactionScorer.score(interaction);
+			this.scoreWriter.write(score);
+			this.completedCounter.withTags("outcome", "scored").increment();
+		}
+		catch (RuntimeException error) {
+			Log.errorf(error, "Error scoring interaction %s", interaction.getInteractionId());
+			this.completedCounter.withTags("outcome", "failed").increment();
+			markUnscored(interaction);
+		}
+	}
+
+	private void markUnscored(Interaction interaction) {
+		try {
+			this.interactionRepository.markUnscored(interaction);
+		}
+		catch (RuntimeException error) {
+			Log.errorf(error, "Error marking interaction %s unscored", interaction.getInteractionId());
+		}
+	}
+}
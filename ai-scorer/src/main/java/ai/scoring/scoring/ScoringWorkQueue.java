@@ -0,0 +1,182 @@
+package ai.scoring.scoring;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import ai.scoring.config.AIScoringConfig;
+import ai.scoring.config.AIScoringConfig.PipelineConfig;
+import ai.scoring.config.AIScoringConfig.PipelineMode;
+import ai.scoring.repository.InteractionRepository;
+import ai.scoring.repository.ScoringJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+// Scores NORMAL interactions through the scoring_jobs table when the pipeline runs in DATABASE mode, so any number of replicas can share the work
+// A claimed job is leased rather than held locked, and if a replica dies mid-score its lease runs out and another worker takes the job over
+@ApplicationScoped
+public class ScoringWorkQueue {
+	private final InteractionScorer interactionScorer;
+	private final InteractionRepository interactionRepository;
+	private final ScoringJobRepository scoringJobRepository;
+	private final PipelineConfig pipelineConfig;
+	private final List<Thread> workers = new ArrayList<>();
+	private final Counter enqueuedCounter;
+	private final MeterProvider<Counter> completedCounter;
+	private volatile boolean running;
+
+	public ScoringWorkQueue(InteractionScorer interactionScorer, InteractionRepository interactionRepository, ScoringJobRepository scoringJobRepository, AIScoringConfig config, MeterRegistry meterRegistry) {
+		this.interactionScorer = interactionScorer;
+		this.interactionRepository = interactionRepository;
+		this.scoringJobRepository = scoringJobRepository;
+		this.pipelineConfig = config.pipeline();
+
+		this.enqueuedCounter = Counter.builder("scorer.pipeline.enqueued")
+			.description("Interactions handed to the scoring pipeline")
+			.baseUnit("interactions")
+			.register(meterRegistry);
+
+		this.completedCounter = Counter.builder("scorer.pipeline.completed")
+			.description("Interactions processed by the scoring pipeline")
+			.baseUnit("interactions")
+			.withRegistry(meterRegistry);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (isActive()) {
+			this.running = true;
+			var threadBuilder = Thread.ofVirtual().name("scoring-job-worker-", 0);
+
+			for (int i = 0; i < this.pipelineConfig.workers(); i++) {
+				this.workers.add(threadBuilder.start(this::work));
+			}
+
+			Log.infof("Started %d scoring workers on the scoring_jobs table", this.pipelineConfig.workers());
+		}
+	}
+
+	void onStop(@Observes ShutdownEvent shutdownEvent) {
+		if (this.running) {
+			// Unfinished jobs stay in the table, and their leases run out for another replica (or this one, once it's back) to pick them up
+			this.running = false;
+			var deadline = System.nanoTime() + this.pipelineConfig.shutdownTimeout().toNanos();
+
+			for (var worker : this.workers) {
+				try {
+					var remaining = deadline - System.nanoTime();
+
+					if ((remaining <= 0) || !worker.join(Duration.ofNanos(remaining))) {
+						worker.interrupt();
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					worker.interrupt();
+				}
+			}
+		}
+	}
+
+	void onInteractionCompleted(@Observes InteractionScoringRequest request) {
+		// Part of the ingest transaction, so the job commits (or doesn't) with the interaction
+		if (isActive()) {
+			this.scoringJobRepository.enqueue(request.interaction().getInteractionId());
+			this.enqueuedCounter.increment();
+		}
+	}
+
+	boolean processNext() {
+		var job = QuarkusTransaction.requiringNew().call(() -> this.scoringJobRepository.claim(this.pipelineConfig.lease()));
+		job.ifPresent(this::process);
+
+		return job.isPresent();
+	}
+
+	private boolean isActive() {
+		return this.pipelineConfig.enabled() && (this.pipelineConfig.mode() == PipelineMode.DATABASE);
+	}
+
+	private void work() {
+		while (this.running) {
+			try {
+				if (!processNext()) {
+					Thread.sleep(this.pipelineConfig.pollInterval());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (RuntimeException error) {
+				Log.errorf(error, "Error claiming a scoring job");
+				sleep(this.pipelineConfig.pollInterval());
+			}
+		}
+	}
+
+	private void process(ScoringJob job) {
+		var interaction = QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findByIdOptional(job.interactionId()));
+
+		if (interaction.isEmpty()) {
+			// e.g. its partition was dropped while it waited
+			Log.warnf("Interaction %s no longer exists, dropping its scoring job", job.interactionId());
+			QuarkusTransaction.requiringNew().run(() -> this.scoringJobRepository.complete(job));
+			this.completedCounter.withTags("outcome", "missing").increment();
+			return;
+		}
+
+		try {
+			var score = this.interactionScorer.score(interaction.get());
+			var completed = QuarkusTransaction.requiringNew().call(() -> {
+				if (!this.scoringJobRepository.complete(job)) {
+					return false;
+				}
+
+				this.interactionRepository.persistScore(score);
+				return true;
+			});
+
+			if (completed) {
+				this.completedCounter.withTags("outcome", "scored").increment();
+			}
+			else {
+				Log.warnf("Lease on interaction %s ran out while scoring it, leaving it to the worker that took it over", job.interactionId());
+				this.completedCounter.withTags("outcome", "lease_lost").increment();
+			}
+		}
+		catch (RuntimeException error) {
+			failed(job, error);
+		}
+	}
+
+	private void failed(ScoringJob job, RuntimeException error) {
+		if (job.attempts() >= this.pipelineConfig.maxAttempts()) {
+			Log.errorf(error, "Error scoring interaction %s, giving up after %d attempts", job.interactionId(), job.attempts());
+			QuarkusTransaction.requiringNew().run(() -> this.scoringJobRepository.complete(job));
+			this.completedCounter.withTags("outcome", "abandoned").increment();
+		}
+		else {
+			Log.errorf(error, "Error scoring interaction %s (attempt %d of %d), will retry", job.interactionId(), job.attempts(), this.pipelineConfig.maxAttempts());
+			QuarkusTransaction.requiringNew().run(() -> this.scoringJobRepository.retry(job, this.pipelineConfig.retryDelay().multipliedBy(job.attempts())));
+			this.completedCounter.withTags("outcome", "failed").increment();
+		}
+	}
+
+	private static void sleep(Duration duration) {
+		try {
+			Thread.sleep(duration);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,53 +1,177 @@
 package ai.scoring.service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.transaction.Transactional;
 
+import org.hibernate.exception.ConstraintViolationException;
+
+import ai.scoring.correlation.InteractionCorrelator;
+import ai.scoring.correlation.ReorderBuffer;
+import ai.scoring.correlation.StartedEventParked;
+import ai.scoring.deduplication.EventDeduplicator;
+import ai.scoring.domain.event.InteractionCoalescedEvent;
 import ai.scoring.domain.event.InteractionCompletedEvent;
 import ai.scoring.domain.event.InteractionEvent;
+import ai.scoring.domain.event.InteractionEventRequest;
 import ai.scoring.domain.event.InteractionStartedEvent;
 import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionEventResult;
 import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionPage;
 import ai.scoring.domain.interaction.InteractionQuery;
 import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.domain.interaction.InteractionStored;
 import ai.scoring.domain.interaction.RescoreResult;
 import ai.scoring.mapping.InteractionMapper;
-import ai.scoring.repository.InteractionEventRepository;
 import ai.scoring.repository.InteractionRepository;
+import ai.scoring.sampling.ScoringSampler;
 import ai.scoring.scoring.InteractionScorer;
+import ai.scoring.scoring.InteractionScoringRequest;
+import ai.scoring.scoring.ScoringPipeline;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
 
 import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 
 @ApplicationScoped
 public class InteractionService {
+	private static final String UNIQUE_VIOLATION = "23505";
+
 	private final InteractionScorer interactionScorer;
-	private final InteractionEventRepository interactionEventRepository;
+	private final InteractionCorrelator interactionCorrelator;
+	private final ReorderBuffer reorderBuffer;
 	private final InteractionRepository interactionRepository;
 	private final InteractionMapper interactionMapper;
+	private final ScoringPipeline scoringPipeline;
+	private final ScoringSampler scoringSampler;
+	private final EventDeduplicator eventDeduplicator;
+	private final Event<InteractionScoringRequest> interactionScoringRequests;
+	private final Event<InteractionStored> interactionStoredEvents;
+	private final Event<StartedEventParked> startedEventsParked;
 
-	public InteractionService(InteractionScorer interactionScorer, InteractionEventRepository interactionEventRepository, InteractionRepository interactionRepository, InteractionMapper interactionMapper) {
+	public InteractionService(InteractionScorer interactionScorer, InteractionCorrelator interactionCorrelator, ReorderBuffer reorderBuffer, InteractionRepository interactionRepository, InteractionMapper interactionMapper, ScoringPipeline scoringPipeline, ScoringSampler scoringSampler, EventDeduplicator eventDeduplicator, Event<InteractionScoringRequest> interactionScoringRequests, Event<InteractionStored> interactionStoredEvents, Event<StartedEventParked> startedEventsParked) {
 		this.interactionScorer = interactionScorer;
-		this.interactionEventRepository = interactionEventRepository;
+		this.interactionCorrelator = interactionCorrelator;
+		this.reorderBuffer = reorderBuffer;
 		this.interactionRepository = interactionRepository;
 		this.interactionMapper = interactionMapper;
+		this.scoringPipeline = scoringPipeline;
+		this.scoringSampler = scoringSampler;
+		this.eventDeduplicator = eventDeduplicator;
+		this.interactionScoringRequests = interactionScoringRequests;
+		this.interactionStoredEvents = interactionStoredEvents;
+		this.startedEventsParked = startedEventsParked;
+	}
+
+	public boolean scoresAsynchronously(InteractionMode interactionMode) {
+		return (interactionMode == InteractionMode.NORMAL) && this.scoringPipeline.isEnabled();
+	}
+
+	public boolean isScoringBacklogged(InteractionMode interactionMode) {
+		return scoresAsynchronously(interactionMode) && this.scoringPipeline.isFull();
 	}
 
 	@WithSpan("handleInteractionEvent")
-	@Transactional
 	public Optional<InteractionScore> handleInteractionEvent(@SpanAttribute("arg.event") InteractionEvent event, @SpanAttribute("arg.interactionMode") InteractionMode interactionMode) {
-		return storeInteractionEvent(event)
-			.filter(interaction -> event instanceof InteractionCompletedEvent)
-			.flatMap(i -> computeInteractionScore(i, interactionMode))
-			.map(interactionScore -> {
-				saveInteraction(interactionScore.getInteraction());
-				return interactionScore;
-			});
+		try {
+			return QuarkusTransaction.joiningExisting().call(() -> handle(event, interactionMode));
+		}
+		catch (RuntimeException error) {
+			if (!isDuplicate(error)) {
+				throw error;
+			}
+
+			// Stored by another delivery between looking for it and storing it
+			var interactionId = event.getInvocationContext().getInteractionId();
+			Log.infof("Interaction %s stored by another delivery in the meantime, not handling its %s event again", interactionId, event.getEventType());
+			this.eventDeduplicator.duplicate(event);
+
+			return QuarkusTransaction.requiringNew().call(() ->
+				acknowledgedScore(event, this.interactionRepository.findByIdOptional(interactionId).orElseThrow(() -> error), interactionMode)
+			);
+		}
+	}
+
+	private Optional<InteractionScore> handle(InteractionEvent event, InteractionMode interactionMode) {
+		// Answer a redelivery with what the first delivery came up with
+		var alreadyStored = this.eventDeduplicator.requiresStoredCheck(event, interactionMode) ?
+		                    findStoredLocked(event.getInvocationContext().getInteractionId()) :
+		                    Optional.<Interaction>empty();
+
+		if (alreadyStored.isPresent()) {
+			Log.infof("Interaction %s already stored, not handling its %s event again", alreadyStored.get().getInteractionId(), event.getEventType());
+			this.eventDeduplicator.duplicate(event);
+			return acknowledgedScore(event, alreadyStored.get(), interactionMode);
+		}
+
+		var score = storeInteractionEvent(event, interactionMode)
+			.flatMap(i -> computeInteractionScore(i, interactionMode));
+
+		this.eventDeduplicator.handled(event);
+		return score;
+	}
+
+	// Each event is stored in a transaction of its own, so a bad event only rolls back itself
+	@WithSpan("handleInteractionEvents")
+	public List<InteractionEventResult> handleInteractionEvents(List<InteractionEventRequest> requests) {
+		var startedInBatch = requests.stream()
+			.map(InteractionEventRequest::event)
+			.filter(InteractionStartedEvent.class::isInstance)
+			.map(InteractionStartedEvent.class::cast)
+			.collect(Collectors.toMap(e -> e.getInvocationContext().getInteractionId(), Function.identity(), (first, second) -> first));
+
+		var completedIds = requests.stream()
+			.map(InteractionEventRequest::event)
+			.filter(InteractionCompletedEvent.class::isInstance)
+			.map(e -> e.getInvocationContext().getInteractionId())
+			.collect(Collectors.toSet());
+
+		var alreadyStored = this.interactionRepository.findByIds(
+				requests.stream()
+					.filter(request -> this.eventDeduplicator.requiresStoredCheck(request.event(), request.interactionMode()))
+					.map(request -> request.event().getInvocationContext().getInteractionId())
+					.collect(Collectors.toSet())
+			)
+			.stream()
+			.collect(Collectors.toMap(Interaction::getInteractionId, Function.identity()));
+
+		var results = new ArrayList<InteractionEventResult>(requests.size());
+
+		for (var request : requests) {
+			var stored = Optional.ofNullable(alreadyStored.get(request.event().getInvocationContext().getInteractionId()));
+
+			if (stored.isPresent()) {
+				this.eventDeduplicator.duplicate(request.event());
+				results.add(
+					acknowledgedScore(request.event(), stored.get(), request.interactionMode())
+						.map(score -> InteractionEventResult.scored(request.event(), score))
+						.orElseGet(() -> InteractionEventResult.stored(request.event()))
+				);
+
+				continue;
+			}
+
+			results.add(handleInBatch(request, startedInBatch, completedIds));
+		}
+
+		requests.forEach(request -> this.eventDeduplicator.handled(request.event()));
+		return results;
 	}
 
 	@Transactional
@@ -59,17 +183,148 @@ public class InteractionService {
 		return this.interactionRepository.findInteractions(query);
 	}
 
+	public InteractionPage findInteractionPage(InteractionQuery query) {
+		return this.interactionRepository.findInteractionPage(query);
+	}
+
+	public void forEachInteraction(InteractionQuery query, Consumer<Interaction> consumer) {
+		this.interactionRepository.forEachInteraction(query, consumer);
+	}
+
+	private Optional<Interaction> findStoredLocked(UUID interactionId) {
+		this.interactionRepository.lockInteraction(interactionId);
+		return this.interactionRepository.findByIdOptional(interactionId);
+	}
+
+	// What a redelivered event is answered with. A started event never has a score of its own
+	private static Optional<InteractionScore> acknowledgedScore(InteractionEvent event, Interaction interaction, InteractionMode interactionMode) {
+		if (event instanceof InteractionStartedEvent) {
+			return Optional.empty();
+		}
+
+		return interaction.getScores().stream()
+			.filter(score -> score.getMode() == interactionMode)
+			.max(Comparator.comparing(InteractionScore::getScoreDate));
+	}
+
+	private InteractionEventResult handleInBatch(InteractionEventRequest request, Map<UUID, InteractionStartedEvent> startedInBatch, Set<UUID> completedIds) {
+		var event = request.event();
+		var interactionMode = request.interactionMode();
+		Optional<Interaction> interaction;
+
+		try {
+			interaction = storeInOwnTransaction(() -> storeInBatch(event, interactionMode, startedInBatch, completedIds), interactionMode);
+		}
+		catch (RuntimeException error) {
+			if (isDuplicate(error)) {
+				// Stored by another delivery between looking for it and storing it
+				var acknowledged = QuarkusTransaction.requiringNew().call(() ->
+					this.interactionRepository.findByIdOptional(event.getInvocationContext().getInteractionId())
+						.map(stored -> acknowledgedScore(event, stored, interactionMode)
+							.map(score -> InteractionEventResult.scored(event, score))
+							.orElseGet(() -> InteractionEventResult.stored(event)))
+				);
+
+				if (acknowledged.isPresent()) {
+					this.eventDeduplicator.duplicate(event);
+					return acknowledged.get();
+				}
+			}
+
+			Log.errorf(error, "Error storing %s event for interaction %s", event.getEventType(), event.getInvocationContext().getInteractionId());
+			parkPartnerOf(event, startedInBatch, interactionMode);
+			return InteractionEventResult.failed(event, error);
+		}
+
+		return interaction
+			.map(i -> scoresAsynchronously(interactionMode) ? InteractionEventResult.accepted(event) : scoreInBatch(event, i, interactionMode))
+			.orElseGet(() -> {
+				if (event instanceof InteractionCompletedEvent) {
+					return this.reorderBuffer.holds(interactionMode) ? InteractionEventResult.accepted(event) : InteractionEventResult.uncorrelated(event);
+				}
+
+				return InteractionEventResult.stored(event);
+			});
+	}
+
+	private Optional<Interaction> storeInOwnTransaction(Supplier<Optional<Interaction>> store, InteractionMode interactionMode) {
+		return QuarkusTransaction.requiringNew().call(() -> {
+			var stored = store.get();
+
+			if (scoresAsynchronously(interactionMode)) {
+				stored.filter(Interaction::isScored).ifPresent(this::enqueueInteraction);
+			}
+
+			return stored;
+		});
+	}
+
+	private Optional<Interaction> storeInBatch(InteractionEvent event, InteractionMode interactionMode, Map<UUID, InteractionStartedEvent> startedInBatch, Set<UUID> completedIds) {
+		var interactionId = event.getInvocationContext().getInteractionId();
+
+		return switch (event) {
+			case InteractionStartedEvent startedEvent when completedIds.contains(interactionId) -> Optional.empty();
+			case InteractionStartedEvent startedEvent -> storeInteractionStarted(startedEvent, interactionMode);
+			case InteractionCompletedEvent completedEvent -> Optional.ofNullable(startedInBatch.get(interactionId))
+				.map(startedEvent -> saveInteraction(this.interactionMapper.map(startedEvent, completedEvent), interactionMode))
+				.or(() -> storeInteractionCompleted(completedEvent, interactionMode));
+			case InteractionCoalescedEvent coalescedEvent -> Optional.of(storeInteractionCoalesced(coalescedEvent, interactionMode));
+			default -> throw new IllegalStateException("Unexpected interaction event: " + event);
+		};
+	}
+
+	private void parkPartnerOf(InteractionEvent event, Map<UUID, InteractionStartedEvent> startedInBatch, InteractionMode interactionMode) {
+		if (event instanceof InteractionCompletedEvent) {
+			Optional.ofNullable(startedInBatch.get(event.getInvocationContext().getInteractionId()))
+				.ifPresent(startedEvent -> {
+					try {
+						QuarkusTransaction.requiringNew().run(() -> storeInteractionStarted(startedEvent, interactionMode));
+					}
+					catch (RuntimeException error) {
+						Log.errorf(error, "Error parking started event for interaction %s", startedEvent.getInvocationContext().getInteractionId());
+					}
+				});
+		}
+	}
+
+	private InteractionEventResult scoreInBatch(InteractionEvent event, Interaction interaction, InteractionMode interactionMode) {
+		// The interaction is already committed, just without a score
+		try {
+			return computeInteractionScore(interaction, interactionMode)
+				.map(score -> InteractionEventResult.scored(event, score))
+				.orElseGet(() -> InteractionEventResult.stored(event));
+		}
+		catch (RuntimeException error) {
+			Log.errorf(error, "Error scoring interaction %s", interaction.getInteractionId());
+			return InteractionEventResult.failed(event, error);
+		}
+	}
+
 	private Optional<InteractionScore> computeInteractionScore(Interaction completedInteraction, InteractionMode interactionMode) {
-		return switch(interactionMode) {
-			case NORMAL -> Optional.ofNullable(scoreInteraction(completedInteraction));
+		if (!completedInteraction.isScored()) {
+			Log.debugf("Interaction %s not sampled for scoring", completedInteraction.getInteractionId());
+			return Optional.empty();
+		}
+
+		var score = switch(interactionMode) {
+			case NORMAL -> scoresAsynchronously(interactionMode) ? enqueueInteraction(completedInteraction) : Optional.ofNullable(scoreInteraction(completedInteraction));
 			case RESCORE -> rescoreInteraction(completedInteraction, interactionMode);
 		};
+
+		score.ifPresent(this.interactionRepository::storeScore);
+		return score;
+	}
+
+	private Optional<InteractionScore> enqueueInteraction(Interaction completedInteraction) {
+		this.interactionScoringRequests.fire(new InteractionScoringRequest(completedInteraction));
+		return Optional.empty();
 	}
 
 	private Optional<InteractionScore> rescoreInteraction(Interaction completedInteraction, InteractionMode interactionMode) {
 		if (interactionMode == InteractionMode.RESCORE) {
 			var rescoreResult = rescoreInteraction(completedInteraction);
-			Log.infof("Interaction %s rescored as %s", rescoreResult.interactionScore().getInteraction().getInteractionId(), rescoreResult.interactionScore().getScore());
+			var rescore = rescoreResult.interactionScore();
+			Log.infof("Interaction %s rescored as %s (%s: %d of %d samples evaluated)", rescore.getInteraction().getInteractionId(), rescore.getScore(), rescore.isPartial() ? "partial estimate" : "full sample", rescoreResult.samplesEvaluated(), rescoreResult.samplesAvailable());
 
 			return Optional.ofNullable(rescoreResult.interactionScore());
 		}
@@ -77,37 +332,41 @@ public class InteractionService {
 		return Optional.empty();
 	}
 
-	private Optional<Interaction> storeInteractionEvent(InteractionEvent event) {
+	private Optional<Interaction> storeInteractionEvent(InteractionEvent event, InteractionMode interactionMode) {
 		return switch (event) {
-			case InteractionStartedEvent startedEvent -> {
-				storeInteractionStarted(startedEvent);
-				yield Optional.empty();
-			}
-			case InteractionCompletedEvent completedEvent -> storeInteractionCompleted(completedEvent);
+			case InteractionStartedEvent startedEvent -> storeInteractionStarted(startedEvent, interactionMode);
+			case InteractionCompletedEvent completedEvent -> storeInteractionCompleted(completedEvent, interactionMode);
+			case InteractionCoalescedEvent coalescedEvent -> Optional.of(storeInteractionCoalesced(coalescedEvent, interactionMode));
 			default -> throw new IllegalStateException("Unexpected interaction event: " + event);
 		};
 	}
 
-	private Optional<Interaction> storeInteractionCompleted(InteractionCompletedEvent interactionCompletedEvent) {
-		return this.interactionEventRepository.getCorrelatedStartedEvent(interactionCompletedEvent)
-			.map(startedEvent -> this.interactionMapper.map(startedEvent, interactionCompletedEvent))
-			.map(interaction -> {
-					//				QuarkusTransaction.joiningExisting().call(() -> {
-					// Delete its corresponding interaction events
-					this.interactionEventRepository.deleteAllForInteractionId(interactionCompletedEvent.getInvocationContext()
-					                                                                                   .getInteractionId());
+	private Optional<Interaction> storeInteractionCompleted(InteractionCompletedEvent interactionCompletedEvent, InteractionMode interactionMode) {
+		return correlate(interactionCompletedEvent, interactionMode)
+			.map(this::interactionStored);
+	}
 
-					// Store it as an interaction
-					saveInteraction(interaction);
+	private Interaction storeInteractionCoalesced(InteractionCoalescedEvent interactionCoalescedEvent, InteractionMode interactionMode) {
+		return saveInteraction(this.interactionMapper.map(interactionCoalescedEvent), interactionMode);
+	}
 
-					return interaction;
-				});
-//				}));
+	private Interaction saveInteraction(Interaction completedInteraction, InteractionMode interactionMode) {
+		return interactionStored(persistInteraction(completedInteraction, interactionMode));
 	}
 
-	private Interaction saveInteraction(Interaction interaction) {
+	private Interaction persistInteraction(Interaction completedInteraction, InteractionMode interactionMode) {
+		var interaction = this.scoringSampler.shouldScore(completedInteraction, interactionMode) ?
+		                  completedInteraction :
+		                  completedInteraction.toBuilder().scored(false).build();
+
+		// Flushed straight away, so an interaction that's already stored fails here rather than after it's been scored
 		this.interactionRepository.persist(interaction);
-//		QuarkusTransaction.joiningExisting().run(() -> this.interactionRepository.persist(interaction));
+		this.interactionRepository.flush();
+		return interaction;
+	}
+
+	private Interaction interactionStored(Interaction interaction) {
+		this.interactionStoredEvents.fire(new InteractionStored(interaction));
 		return interaction;
 	}
 
@@ -115,13 +374,118 @@ public class InteractionService {
 		return this.interactionScorer.rescore(interaction);
 	}
 
-	private void storeInteractionStarted(InteractionStartedEvent event) {
-		this.interactionEventRepository.persist(event);
-//		QuarkusTransaction.joiningExisting()
-//			.run(() -> this.interactionEventRepository.persist(event));
+	// The InteractionStored event is left to the caller, so it happens outside the lock
+	private Optional<Interaction> correlate(InteractionCompletedEvent event, InteractionMode interactionMode) {
+		if (!this.reorderBuffer.holds(interactionMode)) {
+			return correlateAndPersist(event, interactionMode);
+		}
+
+		return this.reorderBuffer.exclusively(event.getInvocationContext().getInteractionId(), () -> {
+			var interaction = correlateAndPersist(event, interactionMode);
+
+			if (interaction.isEmpty()) {
+				this.reorderBuffer.hold(event);
+			}
+
+			return interaction;
+		});
+	}
+
+	private Optional<Interaction> correlateAndPersist(InteractionCompletedEvent event, InteractionMode interactionMode) {
+		var buffered = this.interactionCorrelator.takeBuffered(event);
+
+		if (buffered.isPresent()) {
+			return buffered.map(startedEvent -> persistInteraction(this.interactionMapper.map(startedEvent, event), interactionMode));
+		}
+
+		// The sampler only gets a say once there's an interaction, so a completed event with nothing to pair with isn't counted as a decision
+		return this.interactionCorrelator.insertCorrelated(event, true)
+			.map(interaction -> {
+				if (this.scoringSampler.shouldScore(interaction, interactionMode)) {
+					return interaction;
+				}
+
+				this.interactionRepository.markUnscored(interaction);
+				return interaction.toBuilder().scored(false).build();
+			});
+	}
+
+	private Optional<Interaction> storeInteractionStarted(InteractionStartedEvent event, InteractionMode interactionMode) {
+		if (!this.reorderBuffer.isEnabled()) {
+			park(event, interactionMode);
+			return Optional.empty();
+		}
+
+		var interactionId = event.getInvocationContext().getInteractionId();
+		var completedEvent = this.reorderBuffer.exclusively(interactionId, () -> {
+			var held = this.reorderBuffer.take(interactionId);
+
+			if (held.isEmpty()) {
+				park(event, interactionMode);
+			}
+
+			return held;
+		});
+
+		return completedEvent.map(e -> saveInteraction(this.interactionMapper.map(event, e), interactionMode));
+	}
+
+	private void park(InteractionStartedEvent event, InteractionMode interactionMode) {
+		if (this.interactionCorrelator.parksInMemory()) {
+			// Only parked once this transaction commits (see onStartedEventParked)
+			this.startedEventsParked.fire(new StartedEventParked(event, interactionMode));
+		}
+		else {
+			this.interactionCorrelator.park(event);
+		}
+	}
+
+	void onStartedEventParked(@Observes(during = TransactionPhase.AFTER_SUCCESS) StartedEventParked parked) {
+		var event = parked.event();
+
+		if (!this.reorderBuffer.isEnabled()) {
+			this.interactionCorrelator.park(event);
+			return;
+		}
+
+		// Its completed event may have got here, and been held, while the started event's transaction was still open
+		var interactionId = event.getInvocationContext().getInteractionId();
+		var completedEvent = this.reorderBuffer.exclusively(interactionId, () -> {
+			var held = this.reorderBuffer.take(interactionId);
+
+			if (held.isEmpty()) {
+				this.interactionCorrelator.park(event);
+			}
+
+			return held;
+		});
+
+		completedEvent.ifPresent(e -> {
+			var interactionMode = parked.interactionMode();
+
+			try {
+				storeInOwnTransaction(() -> Optional.of(saveInteraction(this.interactionMapper.map(event, e), interactionMode)), interactionMode)
+					.filter(interaction -> !scoresAsynchronously(interactionMode))
+					.ifPresent(interaction -> computeInteractionScore(interaction, interactionMode));
+			}
+			catch (RuntimeException error) {
+				Log.errorf(error, "Error storing interaction %s", interactionId);
+			}
+		});
 	}
 
 	private InteractionScore scoreInteraction(Interaction interaction) {
 		return this.interactionScorer.score(interaction);
 	}
+
+	// A unique constraint broken by storing an interaction that's already there
+	private static boolean isDuplicate(Throwable error) {
+		for (var cause = error; cause != null; cause = cause.getCause()) {
+			if ((cause instanceof ConstraintViolationException violation) && UNIQUE_VIOLATION.equals(violation.getSQLState())) {
+				return true;
+			}
+		}
+
+		return false;
+	}
 }
@@ -0,0 +1,40 @@
+package ai.scoring.service;
+
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import ai.scoring.embedding.ContentHash;
+import ai.scoring.repository.PromptRepository;
+
+import io.quarkus.logging.Log;
+
+@ApplicationScoped
+public class PromptService {
+	private final PromptRepository promptRepository;
+
+	public PromptService(PromptRepository promptRepository) {
+		this.promptRepository = promptRepository;
+	}
+
+	// Returns false if the hash doesn't match the content
+	public boolean storePrompt(String hash, String content) {
+		if (!ContentHash.of(content).equals(hash)) {
+			Log.debugf("Rejecting prompt, %s isn't the hash of its content", hash);
+			return false;
+		}
+
+		this.promptRepository.intern(content);
+		return true;
+	}
+
+	public Optional<String> findPrompt(String hash) {
+		var content = this.promptRepository.findContent(hash);
+
+		if (content.isEmpty()) {
+			Log.warnf("No prompt stored for hash %s", hash);
+		}
+
+		return content;
+	}
+}
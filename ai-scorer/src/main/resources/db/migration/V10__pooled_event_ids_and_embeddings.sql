@@ -0,0 +1,13 @@
+-- Interaction events are now allocated 50 ids at a time
+-- With the sequence still incrementing by 1, Hibernate's pooled optimizer would hand out ids another replica (or the next allocation) also hands out
+ALTER SEQUENCE interaction_events_seq INCREMENT BY 50;
+
+CREATE TABLE interaction_embeddings (
+	interaction_id UUID NOT NULL,
+	content_hash VARCHAR(64) NOT NULL,
+	vector BYTEA NOT NULL,
+	scale FLOAT(24) NOT NULL,
+	PRIMARY KEY (interaction_id)
+);
+
+CREATE INDEX interaction_embeddings_content_hash_idx ON interaction_embeddings (content_hash);
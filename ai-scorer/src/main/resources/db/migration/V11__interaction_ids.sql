@@ -0,0 +1,100 @@
+-- Since V3 the primary key of interactions is (interaction_id, interaction_date), so nothing in the table stops the same
+-- interaction_id being stored again under another date, and interaction_scores has had no foreign key
+--
+-- interaction_ids holds each stored interaction_id exactly once, kept in step with interactions by triggers
+-- - Storing an interaction_id that's already stored fails with a unique violation, whatever its date
+-- - interaction_scores references it, so a score can't be written for an interaction that isn't stored, and deleting an interaction deletes its scores
+
+CREATE TABLE interaction_ids (
+	interaction_id UUID NOT NULL,
+	interaction_date TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+	PRIMARY KEY (interaction_id)
+);
+
+-- Should any interaction_id already be stored more than once, its earliest row is the one registered
+INSERT INTO interaction_ids (interaction_id, interaction_date)
+SELECT DISTINCT ON (interaction_id) interaction_id, interaction_date
+FROM interactions
+ORDER BY interaction_id, interaction_date;
+
+CREATE OR REPLACE FUNCTION register_interaction_id() RETURNS TRIGGER AS $$
+BEGIN
+	INSERT INTO interaction_ids (interaction_id, interaction_date) VALUES (NEW.interaction_id, NEW.interaction_date);
+	RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION unregister_interaction_id() RETURNS TRIGGER AS $$
+BEGIN
+	-- Rows create_interactions_partition is only moving into a new partition stay registered
+	IF current_setting('interactions.moving_partition', true) = 'on' THEN
+		RETURN NULL;
+	END IF;
+
+	DELETE FROM interaction_ids WHERE interaction_id = OLD.interaction_id AND interaction_date = OLD.interaction_date;
+	RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- Created on the parent, so every partition (including ones attached later) gets them
+CREATE TRIGGER interactions_register_id AFTER INSERT ON interactions FOR EACH ROW EXECUTE FUNCTION register_interaction_id();
+CREATE TRIGGER interactions_unregister_id AFTER DELETE ON interactions FOR EACH ROW EXECUTE FUNCTION unregister_interaction_id();
+
+-- Scores left behind by interactions deleted while there was no foreign key
+DELETE FROM interaction_scores s
+WHERE NOT EXISTS (SELECT 1 FROM interaction_ids i WHERE i.interaction_id = s.interaction_id);
+
+ALTER TABLE interaction_scores
+	ADD CONSTRAINT interaction_scores_interaction_id_fk FOREIGN KEY (interaction_id) REFERENCES interaction_ids ON DELETE CASCADE;
+
+-- As in V3, except that the rows moved out of the default partition keep their registered interaction_id (and with it their scores)
+CREATE OR REPLACE FUNCTION create_interactions_partition(month_start DATE) RETURNS BOOLEAN AS $$
+DECLARE
+	partition_start TIMESTAMPTZ := date_trunc('month', month_start::TIMESTAMP) AT TIME ZONE 'UTC';
+	partition_end TIMESTAMPTZ := (date_trunc('month', month_start::TIMESTAMP) + INTERVAL '1 month') AT TIME ZONE 'UTC';
+	partition_name TEXT := 'interactions_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+	IF to_regclass(partition_name) IS NOT NULL THEN
+		RETURN FALSE;
+	END IF;
+
+	EXECUTE format('CREATE TABLE %I (LIKE interactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+
+	PERFORM set_config('interactions.moving_partition', 'on', true);
+	EXECUTE format(
+		'WITH moved AS (DELETE FROM interactions_default WHERE interaction_date >= %L AND interaction_date < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+		partition_start, partition_end, partition_name
+	);
+	PERFORM set_config('interactions.moving_partition', 'off', true);
+
+	EXECUTE format('ALTER TABLE interactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', partition_name, partition_start, partition_end);
+
+	RETURN TRUE;
+END
+$$ LANGUAGE plpgsql;
+
+-- As in V3, except that scores go through the foreign key when the interaction_ids of the dropped rows are deleted
+CREATE OR REPLACE FUNCTION drop_interactions_partitions_before(cutoff DATE) RETURNS INTEGER AS $$
+DECLARE
+	expired RECORD;
+	dropped INTEGER := 0;
+BEGIN
+	FOR expired IN
+		SELECT c.relname
+		FROM pg_inherits i
+		JOIN pg_class c ON c.oid = i.inhrelid
+		WHERE i.inhparent = 'interactions'::regclass
+		  AND c.relname ~ '^interactions_[0-9]{4}_[0-9]{2}$'
+		  AND (to_date(substring(c.relname FROM 14), 'YYYY_MM') + INTERVAL '1 month') <= cutoff
+		ORDER BY c.relname
+	LOOP
+		EXECUTE format('ALTER TABLE interactions DETACH PARTITION %I', expired.relname);
+		EXECUTE format('DELETE FROM interaction_ids WHERE (interaction_id, interaction_date) IN (SELECT interaction_id, interaction_date FROM %I)', expired.relname);
+		EXECUTE format('DELETE FROM interaction_embeddings WHERE interaction_id IN (SELECT interaction_id FROM %I)', expired.relname);
+		EXECUTE format('DROP TABLE %I', expired.relname);
+		dropped := dropped + 1;
+	END LOOP;
+
+	RETURN dropped;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,40 @@
+-- The schema as Hibernate used to generate it with drop-and-create
+-- Databases created that way are baselined at this version (quarkus.flyway.baseline-on-migrate)
+
+CREATE SEQUENCE interaction_events_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE interactions (
+	interaction_id UUID NOT NULL,
+	interaction_date TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+	application_name VARCHAR(255),
+	interface_name VARCHAR(255),
+	method_name VARCHAR(255),
+	system_message TEXT,
+	user_message TEXT,
+	result TEXT,
+	PRIMARY KEY (interaction_id)
+);
+
+CREATE TABLE interaction_scores (
+	interaction_id UUID NOT NULL,
+	score_date TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+	score FLOAT(53) NOT NULL,
+	mode VARCHAR(255) NOT NULL CHECK (mode IN ('NORMAL', 'RESCORE')),
+	PRIMARY KEY (interaction_id, score_date),
+	CONSTRAINT interaction_scores_interaction_id_fk FOREIGN KEY (interaction_id) REFERENCES interactions
+);
+
+CREATE TABLE interaction_events (
+	id BIGINT NOT NULL,
+	event_type VARCHAR(31) NOT NULL,
+	application_name VARCHAR(255),
+	interface_name VARCHAR(255),
+	method_name VARCHAR(255),
+	interaction_id UUID NOT NULL,
+	interaction_date TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+	created_on TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+	system_message TEXT,
+	user_message TEXT,
+	result TEXT,
+	PRIMARY KEY (id)
+);
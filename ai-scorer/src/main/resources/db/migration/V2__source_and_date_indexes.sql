@@ -0,0 +1,8 @@
+-- Interaction.findAllBySource/countBySource, and findInteractions filtered by source and paged in (interaction_date, interaction_id) order
+CREATE INDEX interactions_source_date_idx ON interactions (application_name, interface_name, method_name, interaction_date, interaction_id);
+
+-- findInteractions without a source filter, paged in (interaction_date, interaction_id) order
+CREATE INDEX interactions_date_idx ON interactions (interaction_date, interaction_id);
+
+-- Correlating completed events with their started event
+CREATE INDEX interaction_events_interaction_id_idx ON interaction_events (interaction_id);
@@ -0,0 +1,104 @@
+-- Range-partition interactions by month on interaction_date
+--
+-- Postgres needs the partition key in every unique constraint, so the primary key becomes (interaction_id, interaction_date)
+-- A foreign key can't reference interaction_id on its own any more either, so interaction_scores loses its foreign key
+-- Hibernate still cascades scores from their interaction, and dropping a partition cleans up its scores (see drop_interactions_partitions_before)
+
+DO $$
+DECLARE
+	fk RECORD;
+BEGIN
+	-- Named by V1, but randomly named on databases Hibernate created
+	FOR fk IN
+		SELECT conname FROM pg_constraint
+		WHERE conrelid = 'interaction_scores'::regclass AND confrelid = 'interactions'::regclass AND contype = 'f'
+	LOOP
+		EXECUTE format('ALTER TABLE interaction_scores DROP CONSTRAINT %I', fk.conname);
+	END LOOP;
+END $$;
+
+ALTER TABLE interactions RENAME TO interactions_unpartitioned;
+ALTER INDEX interactions_pkey RENAME TO interactions_unpartitioned_pkey;
+DROP INDEX interactions_source_date_idx;
+DROP INDEX interactions_date_idx;
+
+CREATE TABLE interactions (
+	interaction_id UUID NOT NULL,
+	interaction_date TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+	application_name VARCHAR(255),
+	interface_name VARCHAR(255),
+	method_name VARCHAR(255),
+	system_message TEXT,
+	user_message TEXT,
+	result TEXT,
+	PRIMARY KEY (interaction_id, interaction_date)
+) PARTITION BY RANGE (interaction_date);
+
+-- Created on the parent, so every partition gets them
+CREATE INDEX interactions_source_date_idx ON interactions (application_name, interface_name, method_name, interaction_date, interaction_id);
+CREATE INDEX interactions_date_idx ON interactions (interaction_date, interaction_id);
+
+-- Catches anything outside the monthly partitions (e.g. far past or future dates) so inserts never fail
+CREATE TABLE interactions_default PARTITION OF interactions DEFAULT;
+
+-- Creates the partition for the (UTC) month containing month_start, if it doesn't already exist
+-- Rows for that month already sitting in the default partition are moved into it, otherwise the attach would fail
+CREATE OR REPLACE FUNCTION create_interactions_partition(month_start DATE) RETURNS BOOLEAN AS $$
+DECLARE
+	partition_start TIMESTAMPTZ := date_trunc('month', month_start::TIMESTAMP) AT TIME ZONE 'UTC';
+	partition_end TIMESTAMPTZ := (date_trunc('month', month_start::TIMESTAMP) + INTERVAL '1 month') AT TIME ZONE 'UTC';
+	partition_name TEXT := 'interactions_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+	IF to_regclass(partition_name) IS NOT NULL THEN
+		RETURN FALSE;
+	END IF;
+
+	EXECUTE format('CREATE TABLE %I (LIKE interactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+	EXECUTE format(
+		'WITH moved AS (DELETE FROM interactions_default WHERE interaction_date >= %L AND interaction_date < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+		partition_start, partition_end, partition_name
+	);
+	EXECUTE format('ALTER TABLE interactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', partition_name, partition_start, partition_end);
+
+	RETURN TRUE;
+END
+$$ LANGUAGE plpgsql;
+
+-- Detaches and drops every monthly partition that ends on or before cutoff, along with the scores and embeddings of its interactions
+-- Returns the number of partitions dropped
+CREATE OR REPLACE FUNCTION drop_interactions_partitions_before(cutoff DATE) RETURNS INTEGER AS $$
+DECLARE
+	expired RECORD;
+	dropped INTEGER := 0;
+BEGIN
+	FOR expired IN
+		SELECT c.relname
+		FROM pg_inherits i
+		JOIN pg_class c ON c.oid = i.inhrelid
+		WHERE i.inhparent = 'interactions'::regclass
+		  AND c.relname ~ '^interactions_[0-9]{4}_[0-9]{2}$'
+		  AND (to_date(substring(c.relname FROM 14), 'YYYY_MM') + INTERVAL '1 month') <= cutoff
+		ORDER BY c.relname
+	LOOP
+		EXECUTE format('ALTER TABLE interactions DETACH PARTITION %I', expired.relname);
+		EXECUTE format('DELETE FROM interaction_scores WHERE interaction_id IN (SELECT interaction_id FROM %I)', expired.relname);
+		EXECUTE format('DELETE FROM interaction_embeddings WHERE interaction_id IN (SELECT interaction_id FROM %I)', expired.relname);
+		EXECUTE format('DROP TABLE %I', expired.relname);
+		dropped := dropped + 1;
+	END LOOP;
+
+	RETURN dropped;
+END
+$$ LANGUAGE plpgsql;
+
+-- A partition for every month that already has data, plus the current month
+-- PartitionMaintenance keeps creating them ahead of time from here on
+SELECT create_interactions_partition(month_start)
+FROM (
+	SELECT DISTINCT date_trunc('month', interaction_date AT TIME ZONE 'UTC')::DATE AS month_start FROM interactions_unpartitioned
+	UNION
+	SELECT date_trunc('month', now() AT TIME ZONE 'UTC')::DATE
+) months;
+
+INSERT INTO interactions SELECT * FROM interactions_unpartitioned;
+DROP TABLE interactions_unpartitioned;
@@ -0,0 +1,22 @@
+-- System messages are stored once, keyed by the hex encoded SHA-256 of their content (see ContentHash), and interactions refer to them by hash
+
+CREATE TABLE prompts (
+	hash VARCHAR(64) NOT NULL,
+	content TEXT NOT NULL,
+	created_on TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(),
+	PRIMARY KEY (hash)
+);
+
+INSERT INTO prompts (hash, content)
+SELECT DISTINCT encode(sha256(convert_to(system_message, 'UTF8')), 'hex'), system_message
+FROM interactions
+WHERE system_message IS NOT NULL;
+
+-- Added to the partitioned parent, so every partition gets it
+ALTER TABLE interactions ADD COLUMN system_message_hash VARCHAR(64);
+
+UPDATE interactions
+SET system_message_hash = encode(sha256(convert_to(system_message, 'UTF8')), 'hex')
+WHERE system_message IS NOT NULL;
+
+ALTER TABLE interactions DROP COLUMN system_message;
@@ -0,0 +1,3 @@
+-- Interactions the scoring sampler skipped are still stored, just flagged as unscored
+-- Everything stored before sampling existed was scored
+ALTER TABLE interactions ADD COLUMN scored BOOLEAN NOT NULL DEFAULT TRUE;
@@ -0,0 +1,13 @@
+-- Persisted rescore verdicts (ai.scoring.verdict-cache.persist), keyed by the hex encoded SHA-256 of the source, normalized user message and result
+
+CREATE TABLE rescore_verdicts (
+	key VARCHAR(64) NOT NULL,
+	score DOUBLE PRECISION NOT NULL,
+	samples_evaluated INTEGER NOT NULL,
+	samples_available INTEGER NOT NULL,
+	created_on TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(),
+	PRIMARY KEY (key)
+);
+
+-- Lookups ignore expired verdicts, and expired verdicts are deleted in bulk
+CREATE INDEX rescore_verdicts_created_on_idx ON rescore_verdicts (created_on);
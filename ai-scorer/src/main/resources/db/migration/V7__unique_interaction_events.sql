@@ -0,0 +1,12 @@
+-- A redelivered started event used to leave a second row behind, which broke correlating its interaction
+DELETE FROM interaction_events e
+	USING interaction_events earlier
+	WHERE e.interaction_id = earlier.interaction_id
+	  AND e.event_type = earlier.event_type
+	  AND e.id > earlier.id;
+
+-- Each interaction has at most one event of each type waiting to be correlated
+CREATE UNIQUE INDEX interaction_events_interaction_id_event_type_idx ON interaction_events (interaction_id, event_type);
+
+-- Covered by the unique index
+DROP INDEX interaction_events_interaction_id_idx;
@@ -0,0 +1,15 @@
+-- NORMAL interactions waiting to be scored when the scoring pipeline runs in DATABASE mode (ai.scoring.pipeline.mode)
+-- A job can be claimed once available_at has passed. Claiming it pushes available_at out by the lease, so a job whose replica died becomes claimable again by itself
+-- No foreign key, since interactions is partitioned and its primary key includes interaction_date
+
+CREATE TABLE scoring_jobs (
+	interaction_id UUID NOT NULL,
+	available_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(),
+	attempts INTEGER NOT NULL DEFAULT 0,
+	lease_id UUID,
+	enqueued_on TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(),
+	PRIMARY KEY (interaction_id)
+);
+
+-- Workers claim the longest waiting available job
+CREATE INDEX scoring_jobs_available_at_idx ON scoring_jobs (available_at);
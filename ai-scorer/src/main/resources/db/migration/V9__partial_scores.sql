@@ -0,0 +1,3 @@
+-- Rescores that stopped evaluating samples once the outcome was decided only estimate the score from the samples they got through
+-- Everything scored before then was evaluated against every sample
+ALTER TABLE interaction_scores ADD COLUMN partial BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,142 @@
+package ai.scoring.correlation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import ai.scoring.domain.event.InteractionCompletedEvent;
+import ai.scoring.domain.event.InteractionStartedEvent;
+import ai.scoring.domain.event.InvocationContext;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.mapping.InteractionMapper;
+import ai.scoring.repository.InteractionEventRepository;
+import ai.scoring.repository.InteractionRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+// Completed events per second paired with a started event waiting in interaction_events, each in its own transaction like an ingest request
+// Entity: load the started event, map it, persist the interaction, then load and delete the events one entity at a time
+// Set-based: InteractionRepository.insertCorrelated, one statement for all of it
+// Run with mvn test -Dtest=CorrelationBenchmarkTests -Dbenchmark=true
+@QuarkusTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CorrelationBenchmarkTests {
+	private static final int WARMUP_INTERACTIONS = 500;
+	private static final int INTERACTIONS = 2_000;
+
+	@Inject
+	InteractionCorrelator interactionCorrelator;
+
+	@Inject
+	InteractionMapper interactionMapper;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Inject
+	InteractionEventRepository interactionEventRepository;
+
+	@BeforeEach
+	void cleanUp() {
+		QuarkusTransaction.requiringNew().run(() -> {
+			this.interactionEventRepository.deleteAll();
+			this.interactionRepository.streamAll()
+				.map(Interaction::getInteractionId)
+				.forEach(this.interactionRepository::deleteById);
+		});
+	}
+
+	@Test
+	void setBasedCorrelationOutpacesEntityCorrelation() {
+		run(this::correlateEntities, WARMUP_INTERACTIONS);
+		run(this::correlateSetBased, WARMUP_INTERACTIONS);
+
+		var entity = run(this::correlateEntities, INTERACTIONS);
+		var setBased = run(this::correlateSetBased, INTERACTIONS);
+
+		System.out.printf("entity: %.0f interactions/s, set-based: %.0f interactions/s%n", entity, setBased);
+		assertThat(setBased).isGreaterThan(entity);
+	}
+
+	// Interactions per second
+	private double run(Correlation correlation, int interactions) {
+		var completedEvents = park(interactions);
+		var start = System.nanoTime();
+
+		completedEvents.forEach(completedEvent ->
+			assertThat(QuarkusTransaction.requiringNew().call(() -> correlation.correlate(completedEvent))).isTrue()
+		);
+
+		var seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.count())).isZero();
+		return interactions / seconds;
+	}
+
+	private boolean correlateEntities(InteractionCompletedEvent completedEvent) {
+		var interactionId = completedEvent.getInvocationContext().getInteractionId();
+		var interaction = this.interactionEventRepository.getCorrelatedStartedEvent(completedEvent)
+			.map(startedEvent -> this.interactionMapper.map(startedEvent, completedEvent));
+
+		interaction.ifPresent(correlated -> {
+			this.interactionRepository.persist(correlated);
+			this.interactionEventRepository.deleteAllForInteractionId(interactionId);
+		});
+
+		return interaction.isPresent();
+	}
+
+	private boolean correlateSetBased(InteractionCompletedEvent completedEvent) {
+		return this.interactionCorrelator.insertCorrelated(completedEvent, true).isPresent();
+	}
+
+	private List<InteractionCompletedEvent> park(int interactions) {
+		var invocationContexts = IntStream.range(0, interactions)
+			.mapToObj(i -> invocationContext())
+			.toList();
+
+		QuarkusTransaction.requiringNew().run(() ->
+			invocationContexts.forEach(invocationContext ->
+				this.interactionCorrelator.park(
+					InteractionStartedEvent.builder()
+						.invocationContext(invocationContext)
+						.systemMessage("You are a helpful insurance claims assistant. Use the following context to answer.")
+						.userMessage("Summarize claim CLM195501: a burst pipe flooded the basement of the insured's home.")
+						.build()
+				)
+			)
+		);
+
+		return invocationContexts.stream()
+			.map(invocationContext -> InteractionCompletedEvent.builder()
+				.invocationContext(invocationContext)
+				.result("The insured's basement flooded after a pipe burst, damaging the flooring, drywall and furnace.")
+				.build())
+			.toList();
+	}
+
+	private static InvocationContext invocationContext() {
+		return InvocationContext.builder()
+			.interactionId(UUID.randomUUID())
+			.interactionDate(Instant.now())
+			.applicationName("parasol-app")
+			.interfaceName("org.parasol.ai.ClaimService")
+			.methodName("chat")
+			.build();
+	}
+
+	@FunctionalInterface
+	private interface Correlation {
+		boolean correlate(InteractionCompletedEvent completedEvent);
+	}
+}
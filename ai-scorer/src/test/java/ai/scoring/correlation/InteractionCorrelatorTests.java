@@ -0,0 +1,141 @@
+package ai.scoring.correlation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.correlation.InteractionCorrelatorTests.MemoryCorrelationProfile;
+import ai.scoring.domain.event.InteractionCompletedEvent;
+import ai.scoring.domain.event.InteractionEvent;
+import ai.scoring.domain.event.InteractionStartedEvent;
+import ai.scoring.domain.event.InvocationContext;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.repository.InteractionEventRepository;
+import ai.scoring.service.InteractionService;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(MemoryCorrelationProfile.class)
+class InteractionCorrelatorTests {
+	@Inject
+	InteractionCorrelator interactionCorrelator;
+
+	@Inject
+	InteractionEventRepository interactionEventRepository;
+
+	@Inject
+	InteractionService interactionService;
+
+	@Test
+	void correlatesFromMemory() {
+		var interactionId = UUID.randomUUID();
+		var startedEvent = startedEvent(interactionId);
+
+		this.interactionCorrelator.park(startedEvent);
+
+		assertThat(storedEvents(interactionId)).isEmpty();
+		assertThat(this.interactionCorrelator.takeBuffered(completedEvent(interactionId)))
+			.get()
+			.isSameAs(startedEvent);
+
+		// Gone once it has been matched
+		assertThat(this.interactionCorrelator.takeBuffered(completedEvent(interactionId))).isEmpty();
+	}
+
+	@Test
+	void parksOnlyOnceIngestCommits() {
+		var rolledBack = startedEvent(UUID.randomUUID());
+		var committed = startedEvent(UUID.randomUUID());
+
+		QuarkusTransaction.requiringNew().run(() -> {
+			this.interactionService.handleInteractionEvent(rolledBack, InteractionMode.NORMAL);
+
+			// Nothing for a completed event to find until the ingest has committed
+			assertThat(this.interactionCorrelator.takeBuffered(completedEvent(rolledBack.getInvocationContext().getInteractionId()))).isEmpty();
+			QuarkusTransaction.setRollbackOnly();
+		});
+
+		QuarkusTransaction.requiringNew().run(() -> this.interactionService.handleInteractionEvent(committed, InteractionMode.NORMAL));
+
+		assertThat(this.interactionCorrelator.takeBuffered(completedEvent(rolledBack.getInvocationContext().getInteractionId()))).isEmpty();
+		assertThat(this.interactionCorrelator.takeBuffered(completedEvent(committed.getInvocationContext().getInteractionId())))
+			.get()
+			.isSameAs(committed);
+	}
+
+	@Test
+	void spillsExpiredEventsToDatabase() throws InterruptedException {
+		var interactionId = UUID.randomUUID();
+		this.interactionCorrelator.park(startedEvent(interactionId));
+
+		var deadline = Instant.now().plusSeconds(10);
+
+		while (storedEvents(interactionId).isEmpty() && Instant.now().isBefore(deadline)) {
+			Thread.sleep(100);
+		}
+
+		assertThat(storedEvents(interactionId))
+			.singleElement()
+			.isInstanceOf(InteractionStartedEvent.class);
+
+		assertThat(this.interactionCorrelator.takeBuffered(completedEvent(interactionId))).isEmpty();
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionCorrelator.insertCorrelated(completedEvent(interactionId), true)))
+			.get()
+			.extracting(Interaction::getInteractionId)
+			.isEqualTo(interactionId);
+
+		assertThat(storedEvents(interactionId)).isEmpty();
+	}
+
+	private List<InteractionEvent> storedEvents(UUID interactionId) {
+		return QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.getAllForInteractionId(interactionId));
+	}
+
+	private static InteractionStartedEvent startedEvent(UUID interactionId) {
+		return InteractionStartedEvent.builder()
+			.invocationContext(invocationContext(interactionId))
+			.systemMessage("You are a chat agent")
+			.userMessage("Hello")
+			.build();
+	}
+
+	private static InteractionCompletedEvent completedEvent(UUID interactionId) {
+		return InteractionCompletedEvent.builder()
+			.invocationContext(invocationContext(interactionId))
+			.result("Hi!")
+			.build();
+	}
+
+	private static InvocationContext invocationContext(UUID interactionId) {
+		return InvocationContext.builder()
+			.interactionId(interactionId)
+			.interactionDate(Instant.now())
+			.applicationName("app")
+			.interfaceName("iface")
+			.methodName("method")
+			.build();
+	}
+
+	public static class MemoryCorrelationProfile implements QuarkusTestProfile {
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of(
+				"ai.scoring.correlation.mode", "memory",
+				"ai.scoring.correlation.ttl", Duration.ofSeconds(1).toString()
+			);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package ai.scoring.correlation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ai.scoring.correlation.ReorderBufferTests.ReorderEnabledProfile;
+import ai.scoring.domain.event.InteractionCompletedEvent;
+import ai.scoring.domain.event.InteractionEvent;
+import ai.scoring.domain.event.InteractionEventRequest;
+import ai.scoring.domain.event.InteractionStartedEvent;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionEventResult;
+import ai.scoring.domain.interaction.InteractionEventResult.Status;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.mapping.InteractionEventMapper;
+import ai.scoring.repository.InteractionEventRepository;
+import ai.scoring.repository.InteractionRepository;
+import ai.scoring.service.InteractionService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(ReorderEnabledProfile.class)
+class ReorderBufferTests {
+	@Inject
+	InteractionService interactionService;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Inject
+	InteractionEventRepository interactionEventRepository;
+
+	@Inject
+	InteractionEventMapper interactionEventMapper;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@Inject
+	ReorderBuffer reorderBuffer;
+
+	@BeforeEach
+	void cleanRepos() {
+		QuarkusTransaction.requiringNew().run(() -> {
+			this.interactionEventRepository.deleteAll();
+			this.interactionRepository.streamAll()
+				.map(Interaction::getInteractionId)
+				.forEach(this.interactionRepository::deleteById);
+		});
+	}
+
+	@Test
+	void scoresOnceStartedEventArrives() throws IOException {
+		InteractionCompletedEvent completedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+		InteractionStartedEvent startedEvent = loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class);
+		var interactionId = completedEvent.getInvocationContext().getInteractionId();
+
+		assertThat(handle(completedEvent)).isEmpty();
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findByIdOptional(interactionId))).isEmpty();
+
+		// Finished as soon as its partner shows up, without the started event ever being parked
+		assertThat(handle(startedEvent))
+			.get()
+			.extracting(InteractionScore::getScore)
+			.isEqualTo(0.8565);
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.count())).isZero();
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.count())).isOne();
+	}
+
+	@Test
+	void heldCompletedEventSurvivesRestart() throws IOException {
+		InteractionCompletedEvent completedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+		InteractionStartedEvent startedEvent = loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class);
+		var interactionId = UUID.randomUUID();
+		completedEvent.getInvocationContext().setInteractionId(interactionId);
+		startedEvent.getInvocationContext().setInteractionId(interactionId);
+
+		assertThat(handle(completedEvent)).isEmpty();
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.getAllForInteractionId(interactionId)))
+			.singleElement()
+			.isInstanceOf(InteractionCompletedEvent.class);
+
+		// Whatever was in memory went with the restart, so the started event finds it in the database
+		this.reorderBuffer.forgetAll();
+
+		assertThat(handle(startedEvent))
+			.get()
+			.extracting(InteractionScore::getScore)
+			.isEqualTo(0.8565);
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.count())).isZero();
+	}
+
+	@Test
+	void batchAcceptsCompletedEventWithoutStartedEvent() throws IOException {
+		InteractionCompletedEvent completedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+		InteractionStartedEvent startedEvent = loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class);
+
+		assertThat(handleBatch(completedEvent))
+			.singleElement()
+			.extracting(InteractionEventResult::status)
+			.isEqualTo(Status.ACCEPTED);
+
+		assertThat(handleBatch(startedEvent))
+			.singleElement()
+			.extracting(InteractionEventResult::status, result -> result.score().getScore())
+			.containsExactly(Status.SCORED, 0.8565);
+	}
+
+	@Test
+	void rescoresAreNotHeld() throws IOException {
+		InteractionCompletedEvent completedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+		completedEvent.getInvocationContext().setInteractionId(UUID.randomUUID());
+
+		assertThat(this.interactionService.handleInteractionEvents(List.of(new InteractionEventRequest(completedEvent, InteractionMode.RESCORE))))
+			.singleElement()
+			.extracting(InteractionEventResult::status)
+			.isEqualTo(Status.UNCORRELATED);
+	}
+
+	@Test
+	void dropsCompletedEventAfterWindow() throws IOException, InterruptedException {
+		InteractionCompletedEvent completedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+		InteractionStartedEvent startedEvent = loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class);
+		var interactionId = UUID.randomUUID();
+		completedEvent.getInvocationContext().setInteractionId(interactionId);
+		startedEvent.getInvocationContext().setInteractionId(interactionId);
+
+		var expiredBefore = expiredCount();
+		assertThat(handle(completedEvent)).isEmpty();
+
+		var deadline = Instant.now().plusSeconds(10);
+
+		while ((expiredCount() == expiredBefore) && Instant.now().isBefore(deadline)) {
+			Thread.sleep(100);
+		}
+
+		assertThat(expiredCount()).isGreaterThan(expiredBefore);
+
+		// Too late, so it waits for a completed event like any other started event
+		assertThat(handle(startedEvent)).isEmpty();
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.getAllForInteractionId(interactionId)))
+			.singleElement()
+			.isInstanceOf(InteractionStartedEvent.class);
+	}
+
+	private double expiredCount() {
+		var counter = this.meterRegistry.find("scorer.reorder.events").tag("outcome", "expired").counter();
+		return (counter != null) ? counter.count() : 0;
+	}
+
+	private Optional<InteractionScore> handle(InteractionEvent event) {
+		return QuarkusTransaction.requiringNew().call(() -> this.interactionService.handleInteractionEvent(event, InteractionMode.NORMAL));
+	}
+
+	private List<InteractionEventResult> handleBatch(InteractionEvent event) {
+		return this.interactionService.handleInteractionEvents(List.of(new InteractionEventRequest(event, InteractionMode.NORMAL)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends InteractionEvent, A extends ai.scoring.model.InteractionEvent> T loadEvent(String fileName, Class<A> clazz) throws IOException {
+		try (var is = ReorderBufferTests.class.getClassLoader().getResourceAsStream(fileName)) {
+			return (T) this.interactionEventMapper.map(this.objectMapper.readValue(is, clazz));
+		}
+	}
+
+	public static class ReorderEnabledProfile implements QuarkusTestProfile {
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of(
+				"ai.scoring.reorder.enabled", "true",
+				"ai.scoring.reorder.window", "1s"
+			);
+		}
+	}
+}
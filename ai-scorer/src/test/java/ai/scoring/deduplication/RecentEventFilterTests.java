@@ -0,0 +1,95 @@
+package ai.scoring.deduplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.domain.event.InteractionEventType;
+
+class RecentEventFilterTests {
+	@Test
+	void remembersAddedEvents() {
+		var filter = new RecentEventFilter(1_000, 0.01);
+		var interactionIds = new ArrayList<UUID>();
+
+		for (var i = 0; i < 1_000; i++) {
+			var interactionId = UUID.randomUUID();
+			interactionIds.add(interactionId);
+			filter.add(interactionId, InteractionEventType.INTERACTION_STARTED);
+		}
+
+		assertThat(interactionIds)
+			.allMatch(interactionId -> filter.mightContain(interactionId, InteractionEventType.INTERACTION_STARTED));
+	}
+
+	@Test
+	void tellsEventTypesApart() {
+		var filter = new RecentEventFilter(1_000, 0.000001);
+		var interactionId = UUID.randomUUID();
+
+		filter.add(interactionId, InteractionEventType.INTERACTION_STARTED);
+
+		assertThat(filter.mightContain(interactionId, InteractionEventType.INTERACTION_STARTED)).isTrue();
+		assertThat(filter.mightContain(interactionId, InteractionEventType.INTERACTION_COMPLETED)).isFalse();
+		assertThat(filter.mightContain(interactionId, InteractionEventType.INTERACTION_COALESCED)).isFalse();
+	}
+
+	@Test
+	void falsePositivesStayNearConfiguredRate() {
+		var filter = new RecentEventFilter(10_000, 0.01);
+
+		for (var i = 0; i < 9_999; i++) {
+			filter.add(UUID.randomUUID(), InteractionEventType.INTERACTION_COMPLETED);
+		}
+
+		var falsePositives = 0;
+
+		for (var i = 0; i < 100_000; i++) {
+			if (filter.mightContain(UUID.randomUUID(), InteractionEventType.INTERACTION_COMPLETED)) {
+				falsePositives++;
+			}
+		}
+
+		assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+	}
+
+	@Test
+	void forgetsEventsTwoGenerationsOld() {
+		var filter = new RecentEventFilter(100, 0.000001);
+		var oldest = UUID.randomUUID();
+		filter.add(oldest, InteractionEventType.INTERACTION_STARTED);
+
+		// Fills the rest of the first generation, then the whole second one
+		for (var i = 0; i < 99; i++) {
+			filter.add(UUID.randomUUID(), InteractionEventType.INTERACTION_STARTED);
+		}
+
+		assertThat(filter.mightContain(oldest, InteractionEventType.INTERACTION_STARTED)).isTrue();
+
+		for (var i = 0; i < 100; i++) {
+			filter.add(UUID.randomUUID(), InteractionEventType.INTERACTION_STARTED);
+		}
+
+		assertThat(filter.mightContain(oldest, InteractionEventType.INTERACTION_STARTED)).isFalse();
+	}
+
+	@Test
+	void sizesForExpectedEvents() {
+		var filter = new RecentEventFilter(100_000, 0.01);
+
+		// About 9.6 bits and 7 hashes per event for a 1% false positive rate
+		assertThat(filter.bits()).isBetween(950_000, 970_000);
+		assertThat(filter.hashes()).isEqualTo(7);
+	}
+
+	@Test
+	void rejectsInvalidSizing() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new RecentEventFilter(0, 0.01));
+		assertThatIllegalArgumentException().isThrownBy(() -> new RecentEventFilter(100, 0));
+		assertThatIllegalArgumentException().isThrownBy(() -> new RecentEventFilter(100, 1));
+	}
+}
@@ -0,0 +1,124 @@
+package ai.scoring.embedding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class HnswIndexTests {
+	private static final int DIMENSIONS = 16;
+
+	@Test
+	void emptyIndex() {
+		var index = new HnswIndex(16, 100, 64);
+
+		assertThat(index.size()).isZero();
+		assertThat(index.search(new float[DIMENSIONS], 5)).isEmpty();
+	}
+
+	@Test
+	void invalidMaxConnections() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new HnswIndex(1, 100, 64))
+			.withMessage("maxConnections must be at least 2");
+	}
+
+	@Test
+	void addIsIdempotent() {
+		var index = new HnswIndex(16, 100, 64);
+		var id = UUID.randomUUID();
+
+		assertThat(index.add(id, new float[] { 1, 0 })).isTrue();
+		assertThat(index.add(id, new float[] { 0, 1 })).isFalse();
+		assertThat(index.size()).isOne();
+		assertThat(index.contains(id)).isTrue();
+		assertThat(index.search(new float[] { 0, 1 }, 5)).containsExactly(id);
+	}
+
+	@Test
+	void findsExactMatchFirst() {
+		var random = new Random(7);
+		var index = new HnswIndex(16, 100, 64);
+		var vectors = new ArrayList<float[]>();
+		var ids = new ArrayList<UUID>();
+
+		for (int i = 0; i < 500; i++) {
+			var vector = randomVector(random);
+			var id = UUID.randomUUID();
+			vectors.add(vector);
+			ids.add(id);
+			index.add(id, vector);
+		}
+
+		assertThat(index.search(vectors.get(123), 1)).containsExactly(ids.get(123));
+	}
+
+	@Test
+	void recallAgainstBruteForce() {
+		var random = new Random(42);
+		var index = new HnswIndex(16, 100, 64);
+		var vectors = new ArrayList<float[]>();
+		var ids = new ArrayList<UUID>();
+
+		for (int i = 0; i < 2000; i++) {
+			var vector = randomVector(random);
+			var id = UUID.randomUUID();
+			vectors.add(vector);
+			ids.add(id);
+			index.add(id, vector);
+		}
+
+		var k = 10;
+		var queries = 50;
+		var found = 0;
+
+		for (int q = 0; q < queries; q++) {
+			var query = randomVector(random);
+			var expected = bruteForce(query, vectors, ids, k);
+			var actual = new HashSet<>(index.search(query, k));
+
+			found += (int) expected.stream().filter(actual::contains).count();
+		}
+
+		assertThat(found / (double) (queries * k)).isGreaterThanOrEqualTo(0.95);
+	}
+
+	private static List<UUID> bruteForce(float[] query, List<float[]> vectors, List<UUID> ids, int k) {
+		return IntStream.range(0, vectors.size())
+			.boxed()
+			.sorted(Comparator.comparingDouble(i -> -cosine(query, vectors.get(i))))
+			.limit(k)
+			.map(ids::get)
+			.toList();
+	}
+
+	private static double cosine(float[] a, float[] b) {
+		double dot = 0, normA = 0, normB = 0;
+
+		for (int i = 0; i < a.length; i++) {
+			dot += a[i] * b[i];
+			normA += a[i] * a[i];
+			normB += b[i] * b[i];
+		}
+
+		return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+	}
+
+	private static float[] randomVector(Random random) {
+		var vector = new float[DIMENSIONS];
+
+		for (int i = 0; i < DIMENSIONS; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+
+		return vector;
+	}
+}
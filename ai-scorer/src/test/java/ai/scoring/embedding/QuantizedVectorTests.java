@@ -0,0 +1,46 @@
+package ai.scoring.embedding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.store.embedding.CosineSimilarity;
+
+class QuantizedVectorTests {
+	@Test
+	void roundTripsWithinOneStep() {
+		var vector = new float[] { 0.5f, -0.25f, 0.125f, 0f, -0.5f };
+		var quantized = QuantizedVector.quantize(vector);
+
+		assertThat(quantized.values()).hasSize(vector.length);
+		assertThat(quantized.values()[0]).isEqualTo(Byte.MAX_VALUE);
+		assertThat(quantized.values()[4]).isEqualTo((byte) -Byte.MAX_VALUE);
+
+		var restored = quantized.dequantize();
+
+		for (int i = 0; i < vector.length; i++) {
+			assertThat(restored[i]).isCloseTo(vector[i], within(quantized.scale()));
+		}
+	}
+
+	@Test
+	void zeroVector() {
+		var quantized = QuantizedVector.quantize(new float[3]);
+
+		assertThat(quantized.scale()).isEqualTo(1f);
+		assertThat(quantized.dequantize()).containsExactly(0f, 0f, 0f);
+	}
+
+	@Test
+	void preservesCosineSimilarity() {
+		var a = new float[] { 0.12f, -0.48f, 0.33f, 0.91f, -0.05f, 0.27f };
+		var b = new float[] { 0.10f, -0.40f, 0.35f, 0.88f, 0.02f, 0.31f };
+
+		var exact = CosineSimilarity.between(Embedding.from(a), Embedding.from(b));
+		var quantized = CosineSimilarity.between(Embedding.from(QuantizedVector.quantize(a).dequantize()), Embedding.from(QuantizedVector.quantize(b).dequantize()));
+
+		assertThat(quantized).isCloseTo(exact, within(0.01));
+	}
+}
@@ -0,0 +1,134 @@
+package ai.scoring.evaluation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.domain.event.InteractionCoalescedEvent;
+import ai.scoring.domain.event.InvocationContext;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.sample.Source;
+import ai.scoring.evaluation.SampleCacheTests.SampleCacheEnabledProfile;
+import ai.scoring.repository.InteractionRepository;
+import ai.scoring.service.InteractionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkiverse.langchain4j.testing.evaluation.EvaluationSample;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(SampleCacheEnabledProfile.class)
+class SampleCacheTests {
+	@Inject
+	SampleCache sampleCache;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Inject
+	InteractionService interactionService;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@Test
+	void noSamplesWhenNothingStored() {
+		assertThat(this.sampleCache.getSamples(new Source("nothing", "here", "yet")))
+			.isEmpty();
+	}
+
+	@Test
+	void checksForSamplesWithoutLoadingThem() {
+		var source = new Source("app-" + UUID.randomUUID(), "interface", "method");
+
+		assertThat(this.sampleCache.hasSamples(source)).isFalse();
+		QuarkusTransaction.requiringNew().run(() -> this.interactionRepository.persist(interaction(source, UUID.randomUUID())));
+
+		var lookupsBefore = lookups();
+		assertThat(this.sampleCache.hasSamples(source)).isTrue();
+
+		// Nothing was loaded into the cache to answer it
+		assertThat(lookups()).isEqualTo(lookupsBefore);
+	}
+
+	@Test
+	void keepsCachedSamplesUpToDate() {
+		var source = new Source("app-" + UUID.randomUUID(), "interface", "method");
+		var existing = interaction(source, UUID.randomUUID());
+
+		QuarkusTransaction.requiringNew().run(() -> this.interactionRepository.persist(existing));
+
+		// First lookup comes from the database
+		assertThat(this.sampleCache.getSamples(source))
+			.extracting(EvaluationSample::name)
+			.containsExactly(existing.getInteractionId().toString());
+
+		var newInteractionId = UUID.randomUUID();
+		this.interactionService.handleInteractionEvent(coalescedEvent(source, newInteractionId), InteractionMode.NORMAL);
+
+		// Remove everything underneath the cache - the next lookup must not need the database
+		QuarkusTransaction.requiringNew().run(() ->
+			this.interactionRepository.list("applicationName", source.applicationName())
+				.forEach(this.interactionRepository::delete)
+		);
+
+		assertThat(this.sampleCache.getSamples(source))
+			.extracting(EvaluationSample::name)
+			.containsExactly(existing.getInteractionId().toString(), newInteractionId.toString());
+	}
+
+	private double lookups() {
+		return this.meterRegistry.find("scorer.samples.lookups").counters()
+			.stream()
+			.mapToDouble(Counter::count)
+			.sum();
+	}
+
+	private static Interaction interaction(Source source, UUID interactionId) {
+		return Interaction.builder()
+			.interactionId(interactionId)
+			.interactionDate(Instant.now())
+			.applicationName(source.applicationName())
+			.interfaceName(source.interfaceName())
+			.methodName(source.methodName())
+			.systemMessage("system message")
+			.userMessage("user message")
+			.result("result")
+			.build();
+	}
+
+	private static InteractionCoalescedEvent coalescedEvent(Source source, UUID interactionId) {
+		return InteractionCoalescedEvent.builder()
+			.invocationContext(
+				InvocationContext.builder()
+					.interactionId(interactionId)
+					.interactionDate(Instant.now())
+					.applicationName(source.applicationName())
+					.interfaceName(source.interfaceName())
+					.methodName(source.methodName())
+					.build()
+			)
+			.systemMessage("system message")
+			.userMessage("user message")
+			.result("result")
+			.build();
+	}
+
+	public static class SampleCacheEnabledProfile implements QuarkusTestProfile {
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of("ai.scoring.sample-cache.enabled", "true");
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package ai.scoring.evaluation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.evaluation.SequentialProbabilityRatioTest.Decision;
+
+class SequentialProbabilityRatioTestTests {
+	@Test
+	void undecidedBeforeAnyResults() {
+		assertThat(new SequentialProbabilityRatioTest(75, 10, 0.05, 0.05).decision()).isEqualTo(Decision.UNDECIDED);
+	}
+
+	@Test
+	void decidesAboveAfterConsistentPasses() {
+		var sprt = new SequentialProbabilityRatioTest(75, 10, 0.05, 0.05);
+		var evaluated = 0;
+		var decision = Decision.UNDECIDED;
+
+		while (decision == Decision.UNDECIDED) {
+			decision = sprt.record(true);
+			evaluated++;
+		}
+
+		assertThat(decision).isEqualTo(Decision.ABOVE);
+		assertThat(evaluated).isLessThan(20);
+	}
+
+	@Test
+	void decidesBelowAfterConsistentFailures() {
+		var sprt = new SequentialProbabilityRatioTest(75, 10, 0.05, 0.05);
+		var evaluated = 0;
+		var decision = Decision.UNDECIDED;
+
+		while (decision == Decision.UNDECIDED) {
+			decision = sprt.record(false);
+			evaluated++;
+		}
+
+		assertThat(decision).isEqualTo(Decision.BELOW);
+		assertThat(evaluated).isLessThan(5);
+	}
+
+	@Test
+	void staysUndecidedAtTheThreshold() {
+		var sprt = new SequentialProbabilityRatioTest(75, 10, 0.05, 0.05);
+
+		// Exactly 3 in 4 passing sits right on the threshold
+		for (int i = 0; i < 10; i++) {
+			sprt.record(true);
+			sprt.record(true);
+			sprt.record(true);
+			sprt.record(false);
+		}
+
+		assertThat(sprt.decision()).isEqualTo(Decision.UNDECIDED);
+	}
+
+	@Test
+	void invalidErrorRates() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new SequentialProbabilityRatioTest(75, 10, 0, 0.05))
+			.withMessage("alpha and beta must be between 0 and 1");
+	}
+
+	@Test
+	void invalidIndifference() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new SequentialProbabilityRatioTest(75, 0, 0.05, 0.05))
+			.withMessage("indifference must be greater than 0");
+	}
+}
@@ -0,0 +1,120 @@
+package ai.scoring.evaluation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.evaluation.VerdictCacheTests.VerdictCacheEnabledProfile;
+import ai.scoring.repository.RescoreVerdictRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(VerdictCacheEnabledProfile.class)
+class VerdictCacheTests {
+	@Inject
+	VerdictCache verdictCache;
+
+	@Inject
+	RescoreVerdictRepository verdictRepository;
+
+	@Test
+	void keyIgnoresWhitespaceInUserMessage() {
+		var source = "app-" + UUID.randomUUID();
+
+		assertThat(VerdictCache.key(interaction(source, "  What is\n my  claim status? ", "result")))
+			.isEqualTo(VerdictCache.key(interaction(source, "What is my claim status?", "result")));
+	}
+
+	@Test
+	void keyDependsOnSourceAndResult() {
+		var source = "app-" + UUID.randomUUID();
+		var key = VerdictCache.key(interaction(source, "user message", "result"));
+
+		assertThat(VerdictCache.key(interaction(source, "user message", "another result"))).isNotEqualTo(key);
+		assertThat(VerdictCache.key(interaction("app-" + UUID.randomUUID(), "user message", "result"))).isNotEqualTo(key);
+	}
+
+	@Test
+	void reusesVerdictForSameContent() {
+		var source = "app-" + UUID.randomUUID();
+		var evaluations = new AtomicInteger();
+		var verdict = new RescoreVerdict(80, null, 3, 10);
+
+		var first = this.verdictCache.get(interaction(source, "user message", "result"), () -> {
+			evaluations.incrementAndGet();
+			return verdict;
+		});
+
+		var second = this.verdictCache.get(interaction(source, "user  message", "result"), () -> {
+			evaluations.incrementAndGet();
+			return new RescoreVerdict(10, null, 1, 10);
+		});
+
+		assertThat(first).isEqualTo(verdict);
+		assertThat(second).isEqualTo(verdict);
+		assertThat(evaluations).hasValue(1);
+	}
+
+	@Test
+	void readsPersistedVerdicts() {
+		var interaction = interaction("app-" + UUID.randomUUID(), "user message", "result");
+
+		// As if an earlier run of the scorer had evaluated it
+		QuarkusTransaction.requiringNew().run(() -> this.verdictRepository.save(VerdictCache.key(interaction), new RescoreVerdict(42, null, 2, 5)));
+
+		var verdict = QuarkusTransaction.requiringNew().call(() ->
+			this.verdictCache.get(interaction, () -> {
+				throw new AssertionError("Should have used the persisted verdict");
+			})
+		);
+
+		assertThat(verdict)
+			.extracting(RescoreVerdict::score, RescoreVerdict::samplesEvaluated, RescoreVerdict::samplesAvailable, RescoreVerdict::isPartial)
+			.containsExactly(42.0, 2, 5, true);
+	}
+
+	@Test
+	void ignoresExpiredPersistedVerdicts() {
+		var key = VerdictCache.key(interaction("app-" + UUID.randomUUID(), "user message", "result"));
+
+		QuarkusTransaction.requiringNew().run(() -> this.verdictRepository.save(key, new RescoreVerdict(42, null, 2, 5)));
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.verdictRepository.find(key, Instant.now().plusSeconds(60))))
+			.isEmpty();
+	}
+
+	private static Interaction interaction(String applicationName, String userMessage, String result) {
+		return Interaction.builder()
+			.interactionId(UUID.randomUUID())
+			.interactionDate(Instant.now())
+			.applicationName(applicationName)
+			.interfaceName("interface")
+			.methodName("method")
+			.systemMessage("system message")
+			.userMessage(userMessage)
+			.result(result)
+			.build();
+	}
+
+	public static class VerdictCacheEnabledProfile implements QuarkusTestProfile {
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of(
+				"ai.scoring.verdict-cache.enabled", "true",
+				"ai.scoring.verdict-cache.persist", "true"
+			);
+		}
+	}
+}
@@ -35,9 +35,10 @@ class InteractionScoreMapperTests {
 
 		var score = InteractionScore.builder()
 			.score(60.0)
-			.mode(InteractionMode.NORMAL)
+			.mode(InteractionMode.RESCORE)
 			.scoreDate(Instant.now())
 			.interaction(interaction)
+			.partial(true)
 			.build();
 
 		interaction.getScores().add(score);
@@ -51,14 +52,16 @@ class InteractionScoreMapperTests {
 				ai.scoring.model.InteractionScore::getInteractionDate,
 				ai.scoring.model.InteractionScore::getScoreDate,
 				ai.scoring.model.InteractionScore::getScore,
-				s -> s.getInteractionMode().name()
+				s -> s.getInteractionMode().name(),
+				ai.scoring.model.InteractionScore::getPartial
 			)
 			.containsExactly(
 				interaction.getInteractionId(),
 				interaction.getInteractionDate(),
 				score.getScoreDate(),
 				score.getScore(),
-				score.getMode().name()
+				score.getMode().name(),
+				true
 			);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package ai.scoring.partitioning;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.repository.InteractionPartitionRepository;
+import ai.scoring.repository.InteractionRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class PartitionMaintenanceTests {
+	@Inject
+	PartitionMaintenance partitionMaintenance;
+
+	@Inject
+	InteractionPartitionRepository partitionRepository;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Test
+	void createsUpcomingPartitions() {
+		this.partitionMaintenance.maintain();
+
+		var currentMonth = YearMonth.now(ZoneOffset.UTC);
+
+		assertThat(this.partitionRepository.findPartitions())
+			.contains(currentMonth, currentMonth.plusMonths(1), currentMonth.plusMonths(2), currentMonth.plusMonths(3));
+
+		// Nothing new to do the second time round
+		assertThat(this.partitionRepository.createPartition(currentMonth)).isFalse();
+	}
+
+	@Test
+	void movesRowsOutOfDefaultPartitionThenDropsThem() {
+		var month = YearMonth.of(2019, 5);
+		var interaction = Interaction.builder()
+			.interactionId(UUID.randomUUID())
+			.interactionDate(Instant.parse("2019-05-31T23:59:59Z"))
+			.applicationName("app")
+			.interfaceName("interface")
+			.methodName("method")
+			.userMessage("user message")
+			.result("result")
+			.build();
+
+		interaction.getScores().add(
+			InteractionScore.builder()
+				.interaction(interaction)
+				.score(0.5)
+				.scoreDate(Instant.now())
+				.mode(InteractionMode.NORMAL)
+				.build()
+		);
+
+		QuarkusTransaction.requiringNew().run(() -> this.interactionRepository.persist(interaction));
+
+		// No partition for that month yet
+		assertThat(this.partitionRepository.findPartitionContaining(interaction.getInteractionId())).isEqualTo("interactions_default");
+
+		assertThat(this.partitionRepository.createPartition(month)).isTrue();
+		assertThat(this.partitionRepository.findPartitionContaining(interaction.getInteractionId())).isEqualTo("interactions_2019_05");
+
+		// The month ends on 2019-06-01, so it's only dropped from then on
+		assertThat(this.partitionRepository.dropPartitionsBefore(month)).isZero();
+		assertThat(this.partitionRepository.dropPartitionsBefore(month.plusMonths(1))).isOne();
+
+		assertThat(this.partitionRepository.findPartitions()).doesNotContain(month);
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findByIdOptional(interaction.getInteractionId()))).isEmpty();
+	}
+}
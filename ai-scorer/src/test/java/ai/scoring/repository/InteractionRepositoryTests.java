@@ -1,20 +1,31 @@
 package ai.scoring.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Stream;
 
 import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import ai.scoring.domain.event.InteractionCompletedEvent;
+import ai.scoring.domain.event.InteractionStartedEvent;
+import ai.scoring.domain.event.InvocationContext;
 import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
 import ai.scoring.domain.interaction.InteractionQuery;
+import ai.scoring.domain.interaction.InteractionScore;
 
 import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
@@ -25,6 +36,12 @@ class InteractionRepositoryTests {
 	@Inject
 	InteractionRepository interactionRepository;
 
+	@Inject
+	InteractionEventRepository interactionEventRepository;
+
+	@Inject
+	PromptRepository promptRepository;
+
 	@ParameterizedTest
 	@MethodSource("queries")
 	void findInteractions(InteractionQuery query, List<Interaction> expectedInteractions) {
@@ -46,6 +63,177 @@ class InteractionRepositoryTests {
 			);
 	}
 
+	@Test
+	void pagesThroughKeyset() {
+		interactionRepository.deleteAll();
+
+		// Two share a date, so the id has to break the tie
+		var sameDate = Instant.parse("2024-01-01T12:00:00Z");
+		var persisted = Stream.of(sameDate, sameDate, Instant.parse("2024-01-02T12:00:00Z"), Instant.parse("2024-01-03T12:00:00Z"), Instant.parse("2024-01-04T12:00:00Z"))
+			.map(date -> Interaction.builder()
+				.interactionId(UUID.randomUUID())
+				.applicationName("testApp")
+				.interfaceName("testInterface")
+				.methodName("testMethod")
+				.interactionDate(date)
+				.userMessage("user")
+				.result("res")
+				.build())
+			.peek(interactionRepository::persist)
+			.toList();
+
+		var query = InteractionQuery.builder().applicationName("testApp").limit(2).build();
+		var seen = new ArrayList<UUID>();
+		var pages = 0;
+		var page = interactionRepository.findInteractionPage(query);
+
+		while (true) {
+			pages++;
+			assertThat(page.interactions()).hasSizeLessThanOrEqualTo(2);
+			page.interactions().forEach(interaction -> seen.add(interaction.getInteractionId()));
+
+			if (page.getNextCursor().isEmpty()) {
+				break;
+			}
+
+			page = interactionRepository.findInteractionPage(query.toBuilder().after(page.getNextCursor().get()).build());
+		}
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(seen)
+			.doesNotHaveDuplicates()
+			.containsExactlyInAnyOrderElementsOf(persisted.stream().map(Interaction::getInteractionId).toList());
+
+		// Dates never go backwards across pages
+		assertThat(seen.stream().map(id -> interactionRepository.findById(id).getInteractionDate()).toList())
+			.isSorted();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, -1, InteractionQuery.MAX_LIMIT + 1 })
+	void pageRejectsLimitOutOfRange(int limit) {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> interactionRepository.findInteractionPage(InteractionQuery.builder().limit(limit).build()))
+			.withMessageContaining("limit");
+	}
+
+	@Test
+	void forEachInteraction() {
+		setupData();
+
+		var seen = new ArrayList<Interaction>();
+		interactionRepository.forEachInteraction(InteractionQuery.builder().build(), seen::add);
+
+		assertThat(seen)
+			.extracting(Interaction::getApplicationName)
+			.containsExactly("testApp", "otherApp");
+	}
+
+	@Test
+	void insertsCorrelatedInteraction() {
+		var interactionId = UUID.randomUUID();
+		var invocationContext = InvocationContext.builder()
+			.interactionId(interactionId)
+			.interactionDate(Instant.parse("2024-01-01T12:00:00Z"))
+			.applicationName("testApp")
+			.interfaceName("testInterface")
+			.methodName("testMethod")
+			.build();
+
+		var completedEvent = InteractionCompletedEvent.builder()
+			.invocationContext(invocationContext)
+			.result("res")
+			.build();
+
+		// Nothing to pair with yet
+		assertThat(interactionRepository.insertCorrelated(completedEvent, true)).isEmpty();
+
+		interactionEventRepository.persist(
+			InteractionStartedEvent.builder()
+				.invocationContext(invocationContext)
+				.systemMessage("a system message only this test uses")
+				.userMessage("user")
+				.build()
+		);
+
+		var interaction = interactionRepository.insertCorrelated(completedEvent, false);
+
+		assertThat(interaction)
+			.get()
+			.extracting(Interaction::getSystemMessage, Interaction::getUserMessage, Interaction::getResult, Interaction::isScored)
+			.containsExactly("a system message only this test uses", "user", "res", false);
+
+		assertThat(interactionEventRepository.getAllForInteractionId(interactionId)).isEmpty();
+		assertThat(promptRepository.findContent(interaction.get().getSystemMessageHash())).hasValue("a system message only this test uses");
+
+		// Hashed by the database the same way as in Java, so reading it back finds the system message
+		assertThat(interactionRepository.findById(interactionId))
+			.usingRecursiveComparison()
+			.ignoringFieldsMatchingRegexes(".*hibernate_.*")
+			.ignoringFields("scores")
+			.isEqualTo(interaction.get());
+	}
+
+	@Test
+	void rejectsInteractionIdStoredUnderAnotherDate() {
+		var interactionId = UUID.randomUUID();
+
+		interactionRepository.persist(interaction(interactionId, Instant.parse("2024-01-01T12:00:00Z")));
+		interactionRepository.flush();
+		interactionRepository.getEntityManager().clear();
+
+		// A different primary key as far as the partitioned table is concerned
+		assertThatExceptionOfType(PersistenceException.class)
+			.isThrownBy(() -> {
+				interactionRepository.persist(interaction(interactionId, Instant.parse("2024-02-01T12:00:00Z")));
+				interactionRepository.flush();
+			})
+			.withMessageContaining("interaction_ids_pkey");
+	}
+
+	@Test
+	void deletingInteractionDeletesItsScores() {
+		var interaction = interaction(UUID.randomUUID(), Instant.parse("2024-01-01T12:00:00Z"));
+		interaction.getScores().add(
+			InteractionScore.builder()
+				.interaction(interaction)
+				.score(0.5)
+				.scoreDate(Instant.now())
+				.mode(InteractionMode.NORMAL)
+				.build()
+		);
+
+		interactionRepository.persist(interaction);
+		interactionRepository.flush();
+
+		// Straight past Hibernate, which would otherwise have deleted the score itself
+		interactionRepository.getEntityManager()
+			.createNativeQuery("DELETE FROM interactions WHERE interaction_id = :interactionId")
+			.setParameter("interactionId", interaction.getInteractionId())
+			.executeUpdate();
+
+		assertThat(countScores(interaction.getInteractionId())).isZero();
+	}
+
+	private long countScores(UUID interactionId) {
+		return ((Number) interactionRepository.getEntityManager()
+			.createNativeQuery("SELECT count(*) FROM interaction_scores WHERE interaction_id = :interactionId")
+			.setParameter("interactionId", interactionId)
+			.getSingleResult()).longValue();
+	}
+
+	private static Interaction interaction(UUID interactionId, Instant interactionDate) {
+		return Interaction.builder()
+			.interactionId(interactionId)
+			.applicationName("testApp")
+			.interfaceName("testInterface")
+			.methodName("testMethod")
+			.interactionDate(interactionDate)
+			.userMessage("user")
+			.result("res")
+			.build();
+	}
+
 	private void setupData() {
 		interactionRepository.deleteAll();
 
@@ -1,24 +1,55 @@
 package ai.scoring.rest;
 
 import static io.restassured.RestAssured.get;
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response.Status;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import ai.scoring.domain.event.InteractionEventRequest;
+import ai.scoring.domain.event.InteractionEventType;
+import ai.scoring.domain.event.InteractionStartedEvent;
 import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionCursor;
+import ai.scoring.domain.interaction.InteractionEventResult;
 import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionPage;
 import ai.scoring.domain.interaction.InteractionQuery;
 import ai.scoring.domain.interaction.InteractionScore;
 import ai.scoring.mapping.InteractionMapperTests;
+import ai.scoring.model.InteractionEventResults;
+import ai.scoring.model.InteractionEventStatus;
+import ai.scoring.model.Interactions;
 import ai.scoring.service.InteractionService;
+import ai.scoring.service.PromptService;
 
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
@@ -30,15 +61,107 @@ class InteractionResourceTests {
 	@InjectMock
 	InteractionService interactionService;
 
+	@InjectMock
+	PromptService promptService;
+
 	@Test
 	void findInteractionsNothingFound() {
-		when(this.interactionService.findInteractions(any(InteractionQuery.class)))
-			.thenReturn(List.of());
+		when(this.interactionService.findInteractionPage(any(InteractionQuery.class)))
+			.thenReturn(new InteractionPage(List.of(), null));
 
 		get("/ai/interactions").then()
 			.statusCode(Status.NOT_FOUND.getStatusCode());
 	}
 
+	@Test
+	void findInteractionsNextPage() {
+		var interaction = interaction();
+		var nextCursor = InteractionCursor.of(interaction);
+
+		when(this.interactionService.findInteractionPage(any(InteractionQuery.class)))
+			.thenReturn(new InteractionPage(List.of(interaction), nextCursor));
+
+		var response = given()
+			.queryParam("limit", 1)
+			.get("/ai/interactions").then()
+			.statusCode(Status.OK.getStatusCode())
+			.contentType(ContentType.JSON)
+			.extract().as(Interactions.class);
+
+		assertThat(response.getInteractions()).singleElement();
+		assertThat(response.getNextCursor()).isEqualTo(nextCursor.encode());
+
+		var query = ArgumentCaptor.forClass(InteractionQuery.class);
+		verify(this.interactionService).findInteractionPage(query.capture());
+
+		assertThat(query.getValue().getLimit()).hasValue(1);
+		assertThat(query.getValue().getAfter()).isEmpty();
+	}
+
+	@Test
+	void findInteractionsFromCursor() {
+		var cursor = new InteractionCursor(Instant.parse("2024-01-01T12:00:00Z"), UUID.randomUUID());
+
+		when(this.interactionService.findInteractionPage(any(InteractionQuery.class)))
+			.thenReturn(new InteractionPage(List.of(interaction()), null));
+
+		var response = given()
+			.queryParam("cursor", cursor.encode())
+			.get("/ai/interactions").then()
+			.statusCode(Status.OK.getStatusCode())
+			.extract().as(Interactions.class);
+
+		assertThat(response.getNextCursor()).isNull();
+
+		var query = ArgumentCaptor.forClass(InteractionQuery.class);
+		verify(this.interactionService).findInteractionPage(query.capture());
+
+		assertThat(query.getValue().getAfter()).hasValue(cursor);
+	}
+
+	@Test
+	void findInteractionsInvalidCursor() {
+		given()
+			.queryParam("cursor", "not-a-cursor")
+			.get("/ai/interactions").then()
+			.statusCode(Status.BAD_REQUEST.getStatusCode());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, -1, 1001 })
+	void findInteractionsLimitOutOfRange(int limit) {
+		given()
+			.queryParam("limit", limit)
+			.get("/ai/interactions").then()
+			.statusCode(Status.BAD_REQUEST.getStatusCode());
+
+		verify(this.interactionService, never()).findInteractionPage(any(InteractionQuery.class));
+	}
+
+	@Test
+	void streamInteractions() {
+		var interactions = List.of(interaction(), interaction());
+
+		doAnswer(invocation -> {
+			Consumer<Interaction> consumer = invocation.getArgument(1);
+			interactions.forEach(consumer);
+			return null;
+		})
+			.when(this.interactionService)
+			.forEachInteraction(any(InteractionQuery.class), any());
+
+		var body = get("/ai/interactions/stream").then()
+			.statusCode(Status.OK.getStatusCode())
+			.contentType("application/x-ndjson")
+			.extract().asString();
+
+		assertThat(body.lines())
+			.hasSize(2)
+			.allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"))
+			.anySatisfy(line -> assertThat(line).contains(interactions.getFirst().getInteractionId().toString()))
+			.anySatisfy(line -> assertThat(line).contains(interactions.getLast().getInteractionId().toString()));
+	}
+
 	@Test
 	void findByUUIDNotFound() {
 		when(this.interactionService.getInteraction(any(UUID.class)))
@@ -80,4 +203,250 @@ class InteractionResourceTests {
 
 		InteractionMapperTests.assertMappingCorrect(response, interaction);
 	}
-}
\ No newline at end of file
+
+	@Test
+	void submitNormalEventAccepted() {
+		when(this.interactionService.scoresAsynchronously(InteractionMode.NORMAL))
+			.thenReturn(true);
+
+		given()
+			.contentType(ContentType.JSON)
+			.body("""
+				{"interactionType":"completed","interactionId":"%s","interactionDate":"2023-09-20T12:34:56Z","applicationName":"app","interfaceName":"iface","methodName":"method","interactionMode":"NORMAL","result":"res"}
+				""".formatted(UUID.randomUUID()))
+			.post("/ai/interactions").then()
+			.statusCode(Status.ACCEPTED.getStatusCode());
+
+		verify(this.interactionService).handleInteractionEvent(any(), any(InteractionMode.class));
+	}
+
+	@Test
+	void submitNormalEventWhileScoringBacklogged() {
+		when(this.interactionService.scoresAsynchronously(InteractionMode.NORMAL))
+			.thenReturn(true);
+
+		when(this.interactionService.isScoringBacklogged(InteractionMode.NORMAL))
+			.thenReturn(true);
+
+		given()
+			.contentType(ContentType.JSON)
+			.body(completedEventJson(UUID.randomUUID()))
+			.post("/ai/interactions").then()
+			.statusCode(Status.SERVICE_UNAVAILABLE.getStatusCode())
+			.header(HttpHeaders.RETRY_AFTER, "1");
+
+		verify(this.interactionService, never()).handleInteractionEvent(any(), any(InteractionMode.class));
+
+		// Started events don't add to the backlog
+		when(this.promptService.findPrompt("abc123"))
+			.thenReturn(Optional.of("sys"));
+
+		given()
+			.contentType(ContentType.JSON)
+			.body(startedEventJson("abc123"))
+			.post("/ai/interactions").then()
+			.statusCode(Status.NO_CONTENT.getStatusCode());
+	}
+
+	@Test
+	void submitNdjsonBatch() {
+		var interactionId = UUID.randomUUID();
+		var ndjson = """
+			{"interactionType":"started","interactionId":"%1$s","interactionDate":"2023-09-20T12:34:56Z","applicationName":"app","interfaceName":"iface","methodName":"method","interactionMode":"NORMAL","systemMessage":"sys","userMessage":"user"}
+			{"interactionType":"completed","interactionId":"%1$s","interactionDate":"2023-09-20T12:34:56Z","applicationName":"app","interfaceName":"iface","methodName":"method","interactionMode":"NORMAL","result":"res"}
+			""".formatted(interactionId);
+
+		when(this.interactionService.handleInteractionEvents(anyList()))
+			.thenReturn(List.of(
+				new InteractionEventResult(interactionId, InteractionEventType.INTERACTION_STARTED, InteractionEventResult.Status.STORED, null, null),
+				new InteractionEventResult(interactionId, InteractionEventType.INTERACTION_COMPLETED, InteractionEventResult.Status.STORED, null, null)
+			));
+
+		var response = given()
+			.contentType("application/x-ndjson")
+			.body(ndjson)
+			.post("/ai/interactions/batch").then()
+			.statusCode(Status.OK.getStatusCode())
+			.contentType(ContentType.JSON)
+			.extract().as(InteractionEventResults.class);
+
+		assertThat(response.getResults())
+			.extracting(ai.scoring.model.InteractionEventResult::getInteractionType)
+			.containsExactly("started", "completed");
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<InteractionEventRequest>> requests = ArgumentCaptor.forClass(List.class);
+		verify(this.interactionService).handleInteractionEvents(requests.capture());
+
+		assertThat(requests.getValue())
+			.extracting(request -> request.event().getEventType())
+			.containsExactly(InteractionEventType.INTERACTION_STARTED, InteractionEventType.INTERACTION_COMPLETED);
+	}
+
+	@Test
+	void submitGzippedEvent() throws IOException {
+		when(this.interactionService.scoresAsynchronously(InteractionMode.NORMAL))
+			.thenReturn(true);
+
+		var body = new ByteArrayOutputStream();
+
+		try (var gzip = new GZIPOutputStream(body)) {
+			gzip.write(completedEventJson(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+		}
+
+		given()
+			.contentType(ContentType.JSON)
+			.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+			.body(body.toByteArray())
+			.post("/ai/interactions").then()
+			.statusCode(Status.ACCEPTED.getStatusCode());
+
+		verify(this.interactionService).handleInteractionEvent(any(), any(InteractionMode.class));
+	}
+
+	@Test
+	void submitCborEvent() throws IOException {
+		when(this.interactionService.scoresAsynchronously(InteractionMode.NORMAL))
+			.thenReturn(true);
+
+		var interactionId = UUID.randomUUID();
+		var cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(new ObjectMapper().readTree(completedEventJson(interactionId)));
+
+		given()
+			.contentType(CborInteractionEventReader.APPLICATION_CBOR)
+			.body(cbor)
+			.post("/ai/interactions").then()
+			.statusCode(Status.ACCEPTED.getStatusCode());
+
+		var event = ArgumentCaptor.forClass(ai.scoring.domain.event.InteractionEvent.class);
+		verify(this.interactionService).handleInteractionEvent(event.capture(), any(InteractionMode.class));
+
+		assertThat(event.getValue().getInvocationContext().getInteractionId()).isEqualTo(interactionId);
+		assertThat(event.getValue().getEventType()).isEqualTo(InteractionEventType.INTERACTION_COMPLETED);
+	}
+
+	@Test
+	void storePrompt() {
+		when(this.promptService.storePrompt("abc123", "sys"))
+			.thenReturn(true);
+
+		given()
+			.contentType(ContentType.JSON)
+			.body("""
+				{"content":"sys"}
+				""")
+			.put("/ai/prompts/{hash}", "abc123").then()
+			.statusCode(Status.NO_CONTENT.getStatusCode());
+	}
+
+	@Test
+	void storePromptHashMismatch() {
+		when(this.promptService.storePrompt(anyString(), anyString()))
+			.thenReturn(false);
+
+		given()
+			.contentType(ContentType.JSON)
+			.body("""
+				{"content":"sys"}
+				""")
+			.put("/ai/prompts/{hash}", "abc123").then()
+			.statusCode(Status.BAD_REQUEST.getStatusCode());
+	}
+
+	@Test
+	void submitEventWithSystemMessageHash() {
+		when(this.interactionService.scoresAsynchronously(InteractionMode.NORMAL))
+			.thenReturn(true);
+
+		when(this.promptService.findPrompt("abc123"))
+			.thenReturn(Optional.of("sys"));
+
+		given()
+			.contentType(ContentType.JSON)
+			.body(startedEventJson("abc123"))
+			.post("/ai/interactions").then()
+			.statusCode(Status.NO_CONTENT.getStatusCode());
+
+		var event = ArgumentCaptor.forClass(ai.scoring.domain.event.InteractionEvent.class);
+		verify(this.interactionService).handleInteractionEvent(event.capture(), any(InteractionMode.class));
+
+		assertThat(event.getValue())
+			.isInstanceOf(InteractionStartedEvent.class)
+			.extracting(e -> ((InteractionStartedEvent) e).getSystemMessage())
+			.isEqualTo("sys");
+	}
+
+	@Test
+	void submitEventWithUnknownSystemMessageHash() {
+		when(this.promptService.findPrompt(eq("abc123")))
+			.thenReturn(Optional.empty());
+
+		given()
+			.contentType(ContentType.JSON)
+			.body(startedEventJson("abc123"))
+			.post("/ai/interactions").then()
+			.statusCode(Status.CONFLICT.getStatusCode());
+
+		verify(this.interactionService, never()).handleInteractionEvent(any(), any(InteractionMode.class));
+	}
+
+	@Test
+	void submitBatchWithUnknownSystemMessageHash() {
+		var interactionId = UUID.randomUUID();
+		var ndjson = startedEventJson("abc123") + completedEventJson(interactionId);
+
+		when(this.promptService.findPrompt(eq("abc123")))
+			.thenReturn(Optional.empty());
+
+		when(this.interactionService.handleInteractionEvents(anyList()))
+			.thenReturn(List.of(new InteractionEventResult(interactionId, InteractionEventType.INTERACTION_COMPLETED, InteractionEventResult.Status.ACCEPTED, null, null)));
+
+		// The scorer lost the prompt, so only that event comes back to be sent again
+		var response = given()
+			.contentType("application/x-ndjson")
+			.body(ndjson)
+			.post("/ai/interactions/batch").then()
+			.statusCode(Status.OK.getStatusCode())
+			.extract().as(InteractionEventResults.class);
+
+		assertThat(response.getResults())
+			.extracting(ai.scoring.model.InteractionEventResult::getInteractionType, ai.scoring.model.InteractionEventResult::getStatus)
+			.containsExactly(
+				tuple("started", InteractionEventStatus.UNKNOWN_PROMPT),
+				tuple("completed", InteractionEventStatus.ACCEPTED)
+			);
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<InteractionEventRequest>> requests = ArgumentCaptor.forClass(List.class);
+		verify(this.interactionService).handleInteractionEvents(requests.capture());
+
+		assertThat(requests.getValue())
+			.extracting(request -> request.event().getEventType())
+			.containsExactly(InteractionEventType.INTERACTION_COMPLETED);
+	}
+
+	private static String startedEventJson(String systemMessageHash) {
+		return """
+			{"interactionType":"started","interactionId":"%s","interactionDate":"2023-09-20T12:34:56Z","applicationName":"app","interfaceName":"iface","methodName":"method","interactionMode":"NORMAL","systemMessageHash":"%s","userMessage":"user"}
+			""".formatted(UUID.randomUUID(), systemMessageHash);
+	}
+
+	private static String completedEventJson(UUID interactionId) {
+		return """
+			{"interactionType":"completed","interactionId":"%s","interactionDate":"2023-09-20T12:34:56Z","applicationName":"app","interfaceName":"iface","methodName":"method","interactionMode":"NORMAL","result":"res"}
+			""".formatted(interactionId);
+	}
+
+	private static Interaction interaction() {
+		return Interaction.builder()
+		                  .applicationName("app")
+		                  .interactionId(UUID.randomUUID())
+		                  .interactionDate(Instant.now())
+		                  .interfaceName("iface")
+		                  .methodName("method")
+		                  .systemMessage("System message")
+		                  .userMessage("User message")
+		                  .result("Result")
+		                  .build();
+	}
+}
@@ -0,0 +1,159 @@
+package ai.scoring.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import ai.scoring.model.InteractionEvent;
+import ai.scoring.model.InteractionStartedEvent;
+
+// Bytes on the wire and (de)serialization time per event for each encoding/compression combination
+// Run with mvn test -Dtest=WireFormatBenchmarkTests -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WireFormatBenchmarkTests {
+	private static final int WARMUP_ITERATIONS = 2_000;
+	private static final int ITERATIONS = 10_000;
+
+	// Configured like the Quarkus ObjectMapper
+	private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+		.findAndRegisterModules()
+		.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+		.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+	private static final ObjectMapper CBOR_MAPPER = JSON_MAPPER.copyWith(new CBORFactory());
+
+	enum WireFormat {
+		JSON(JSON_MAPPER, false),
+		JSON_GZIP(JSON_MAPPER, true),
+		CBOR(CBOR_MAPPER, false),
+		CBOR_GZIP(CBOR_MAPPER, true);
+
+		private final ObjectMapper mapper;
+		private final boolean gzip;
+
+		WireFormat(ObjectMapper mapper, boolean gzip) {
+			this.mapper = mapper;
+			this.gzip = gzip;
+		}
+
+		byte[] write(InteractionEvent event) {
+			try {
+				var bytes = new ByteArrayOutputStream();
+
+				try (var out = this.gzip ? new GZIPOutputStream(bytes) : (OutputStream) bytes) {
+					this.mapper.writerFor(InteractionEvent.class).writeValue(out, event);
+				}
+
+				return bytes.toByteArray();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		InteractionEvent read(byte[] bytes) {
+			try (var in = this.gzip ? new GZIPInputStream(new ByteArrayInputStream(bytes)) : (InputStream) new ByteArrayInputStream(bytes)) {
+				return this.mapper.readValue(in, InteractionEvent.class);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(WireFormat.class)
+	void startedEvent(WireFormat wireFormat) {
+		var event = startedEvent();
+		var bytes = wireFormat.write(event);
+
+		assertThat(wireFormat.read(bytes))
+			.isInstanceOf(InteractionStartedEvent.class)
+			.usingRecursiveComparison()
+			.isEqualTo(event);
+
+		for (var i = 0; i < WARMUP_ITERATIONS; i++) {
+			wireFormat.read(wireFormat.write(event));
+		}
+
+		var writeStart = System.nanoTime();
+
+		for (var i = 0; i < ITERATIONS; i++) {
+			wireFormat.write(event);
+		}
+
+		var writeNanos = (System.nanoTime() - writeStart) / ITERATIONS;
+		var readStart = System.nanoTime();
+
+		for (var i = 0; i < ITERATIONS; i++) {
+			wireFormat.read(bytes);
+		}
+
+		var readNanos = (System.nanoTime() - readStart) / ITERATIONS;
+
+		System.out.printf("%-10s %8d bytes/event %8d ns/write %8d ns/read%n", wireFormat, bytes.length, writeNanos, readNanos);
+	}
+
+	@Test
+	void compressionShrinksTypicalEvent() {
+		var event = startedEvent();
+
+		assertThat(WireFormat.JSON_GZIP.write(event).length).isLessThan(WireFormat.JSON.write(event).length / 2);
+		assertThat(WireFormat.CBOR.write(event).length).isLessThan(WireFormat.JSON.write(event).length);
+	}
+
+	// Roughly what parasol-app sends: a system message with RAG context and a claim summary as the user message
+	private static InteractionEvent startedEvent() {
+		var ragContext = new StringBuilder();
+
+		for (var i = 0; i < 20; i++) {
+			ragContext.append("Policy section %d: Claims for water damage must be filed within 30 days of the incident and include photos of the damage, a repair estimate and the policy number.\n".formatted(i));
+		}
+
+		var json = """
+			{
+			  "interactionType": "started",
+			  "interactionId": "%s",
+			  "interactionDate": "2023-09-20T12:34:56Z",
+			  "applicationName": "parasol-app",
+			  "interfaceName": "org.parasol.ai.ClaimService",
+			  "methodName": "chat",
+			  "interactionMode": "NORMAL",
+			  "systemMessage": %s,
+			  "userMessage": %s
+			}
+			""";
+
+		try {
+			return JSON_MAPPER.readValue(
+				json.formatted(
+					UUID.randomUUID(),
+					JSON_MAPPER.writeValueAsString("You are a helpful insurance claims assistant. Use the following context to answer.\n" + ragContext),
+					JSON_MAPPER.writeValueAsString("Summarize claim CLM195501: a burst pipe flooded the basement of the insured's home on the 3rd of March, damaging the flooring, drywall and a furnace.")
+				),
+				InteractionEvent.class
+			);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package ai.scoring.sampling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.domain.event.InteractionCoalescedEvent;
+import ai.scoring.domain.event.InteractionCompletedEvent;
+import ai.scoring.domain.event.InvocationContext;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.domain.sample.Source;
+import ai.scoring.repository.InteractionRepository;
+import ai.scoring.sampling.ScoringSamplerTests.SamplingEnabledProfile;
+import ai.scoring.service.InteractionService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(SamplingEnabledProfile.class)
+class ScoringSamplerTests {
+	private static final String NEVER_SCORED_APPLICATION = "never-scored";
+
+	@Inject
+	ScoringSampler scoringSampler;
+
+	@Inject
+	InteractionService interactionService;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@Test
+	void scoresEverythingDuringWarmup() {
+		var source = newSource();
+
+		for (int i = 0; i < 4; i++) {
+			this.scoringSampler.record(score(source, 0.9, InteractionMode.NORMAL));
+		}
+
+		assertThat(this.scoringSampler.rate(source, InteractionMode.NORMAL)).isEqualTo(1);
+	}
+
+	@Test
+	void steadyScoresLowerTheRate() {
+		var source = newSource();
+
+		for (int i = 0; i < 50; i++) {
+			this.scoringSampler.record(score(source, 0.9, InteractionMode.NORMAL));
+		}
+
+		assertThat(this.scoringSampler.rate(source, InteractionMode.NORMAL)).isEqualTo(0.01);
+	}
+
+	@Test
+	void unstableScoresRaiseTheRate() {
+		var source = newSource();
+
+		for (int i = 0; i < 50; i++) {
+			this.scoringSampler.record(score(source, (i % 2 == 0) ? 0.2 : 0.85, InteractionMode.NORMAL));
+		}
+
+		assertThat(this.scoringSampler.rate(source, InteractionMode.NORMAL)).isEqualTo(1);
+	}
+
+	@Test
+	void relevanceScoresKeepTheirShareOfScoring() {
+		var source = newSource();
+
+		// Spread like real relevance scores, which never move by more than a fraction of 1
+		for (int i = 0; i < 50; i++) {
+			this.scoringSampler.record(score(source, 0.7 + (0.1 * (i % 3)), InteractionMode.NORMAL));
+		}
+
+		assertThat(this.scoringSampler.rate(source, InteractionMode.NORMAL)).isBetween(0.25, 0.5);
+	}
+
+	@Test
+	void modesAreTrackedSeparately() {
+		var source = newSource();
+
+		for (int i = 0; i < 50; i++) {
+			this.scoringSampler.record(score(source, (i % 2 == 0) ? 10 : 95, InteractionMode.RESCORE));
+			this.scoringSampler.record(score(source, 0.9, InteractionMode.NORMAL));
+		}
+
+		assertThat(this.scoringSampler.rate(source, InteractionMode.RESCORE)).isEqualTo(1);
+		assertThat(this.scoringSampler.rate(source, InteractionMode.NORMAL)).isEqualTo(0.01);
+	}
+
+	@Test
+	void rescoresAlwaysScored() {
+		var source = warmedUpNeverScoredSource();
+
+		assertThat(this.scoringSampler.shouldScore(interaction(source), InteractionMode.RESCORE)).isTrue();
+		assertThat(this.scoringSampler.shouldScore(interaction(source), InteractionMode.NORMAL)).isFalse();
+	}
+
+	@Test
+	void unsampledInteractionsStoredUnscored() {
+		var source = warmedUpNeverScoredSource();
+
+		var interactionId = UUID.randomUUID();
+		var score = QuarkusTransaction.requiringNew().call(() -> this.interactionService.handleInteractionEvent(coalescedEvent(source, interactionId), InteractionMode.NORMAL));
+
+		assertThat(score).isEmpty();
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findByIdOptional(interactionId)))
+			.get()
+			.satisfies(interaction -> {
+				assertThat(interaction.isScored()).isFalse();
+				assertThat(interaction.getScores()).isEmpty();
+			});
+	}
+
+	@Test
+	void uncorrelatedEventsAreNotSampled() {
+		var source = newSource();
+		var interactionId = UUID.randomUUID();
+
+		// Nothing to pair it with, so there's no interaction to decide on yet
+		var completedEvent = InteractionCompletedEvent.builder()
+			.invocationContext(invocationContext(source, interactionId))
+			.result("result")
+			.build();
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionService.handleInteractionEvent(completedEvent, InteractionMode.NORMAL))).isEmpty();
+		assertThat(this.meterRegistry.find("scorer.sampling.decisions").tag("source", source.asSourceString()).counters()).isEmpty();
+	}
+
+	private Source warmedUpNeverScoredSource() {
+		var source = new Source(NEVER_SCORED_APPLICATION, "interface", "method");
+
+		for (int i = 0; i < 20; i++) {
+			this.scoringSampler.record(score(source, 0.9, InteractionMode.NORMAL));
+		}
+
+		return source;
+	}
+
+	private static Source newSource() {
+		return new Source("app-" + UUID.randomUUID(), "interface", "method");
+	}
+
+	private static Interaction interaction(Source source) {
+		return Interaction.builder()
+			.interactionId(UUID.randomUUID())
+			.interactionDate(Instant.now())
+			.applicationName(source.applicationName())
+			.interfaceName(source.interfaceName())
+			.methodName(source.methodName())
+			.systemMessage("system message")
+			.userMessage("user message")
+			.result("result")
+			.build();
+	}
+
+	private static InteractionScore score(Source source, double score, InteractionMode interactionMode) {
+		return InteractionScore.builder()
+			.interaction(interaction(source))
+			.score(score)
+			.scoreDate(Instant.now())
+			.mode(interactionMode)
+			.build();
+	}
+
+	private static InteractionCoalescedEvent coalescedEvent(Source source, UUID interactionId) {
+		return InteractionCoalescedEvent.builder()
+			.invocationContext(invocationContext(source, interactionId))
+			.systemMessage("system message")
+			.userMessage("user message")
+			.result("result")
+			.build();
+	}
+
+	private static InvocationContext invocationContext(Source source, UUID interactionId) {
+		return InvocationContext.builder()
+			.interactionId(interactionId)
+			.interactionDate(Instant.now())
+			.applicationName(source.applicationName())
+			.interfaceName(source.interfaceName())
+			.methodName(source.methodName())
+			.build();
+	}
+
+	public static class SamplingEnabledProfile implements QuarkusTestProfile {
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of(
+				"ai.scoring.sampling.enabled", "true",
+				"ai.scoring.sampling.default-rate", "0.5",
+				"ai.scoring.sampling.min-rate", "0.01",
+				"ai.scoring.sampling.warmup", "20",
+				"ai.scoring.sampling.rates.\"%s::interface::method\"".formatted(NEVER_SCORED_APPLICATION), "0"
+			);
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package ai.scoring.scoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.repository.InteractionRepository;
+import ai.scoring.scoring.ScoreWriterTests.SmallBatchProfile;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(SmallBatchProfile.class)
+class ScoreWriterTests {
+	private static final int BATCH_SIZE = 10;
+
+	@Inject
+	ScoreWriter scoreWriter;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void cleanUp() {
+		QuarkusTransaction.requiringNew().run(() ->
+			this.interactionRepository.streamAll()
+				.map(Interaction::getInteractionId)
+				.forEach(this.interactionRepository::deleteById)
+		);
+	}
+
+	@Test
+	void writesScoresInBatches() throws InterruptedException {
+		var batchesBefore = flushSize().count();
+		var interactions = storeInteractions(25);
+
+		interactions.forEach(interaction -> this.scoreWriter.write(score(interaction)));
+
+		assertThat(waitForScores(interactions, Duration.ofSeconds(10))).hasSize(25);
+
+		// Two full batches, and whatever was left once the flush interval ran out
+		assertThat(flushSize().count() - batchesBefore).isBetween(3L, 25L);
+		assertThat(flushSize().max()).isLessThanOrEqualTo(BATCH_SIZE);
+		assertThat(this.meterRegistry.find("scorer.scores.flush.duration").timer().count()).isPositive();
+	}
+
+	@Test
+	void writesPartialBatchAfterFlushInterval() throws InterruptedException {
+		var interactions = storeInteractions(1);
+
+		this.scoreWriter.write(score(interactions.getFirst()));
+
+		assertThat(waitForScores(interactions, Duration.ofSeconds(5)))
+			.singleElement()
+			.extracting(InteractionScore::getScore)
+			.isEqualTo(0.5);
+	}
+
+	@Test
+	void writesRestOfBatchWhenOneScoreFails() throws InterruptedException {
+		var failedBefore = written("failed");
+		var interactions = storeInteractions(5);
+
+		// Its interaction was never stored, so its row breaks the foreign key and the batch with it
+		var orphan = Interaction.builder()
+			.interactionId(UUID.randomUUID())
+			.interactionDate(Instant.now())
+			.applicationName("app")
+			.interfaceName("iface")
+			.methodName("method")
+			.build();
+
+		this.scoreWriter.write(score(orphan));
+		interactions.forEach(interaction -> this.scoreWriter.write(score(interaction)));
+
+		assertThat(waitForScores(interactions, Duration.ofSeconds(10))).hasSize(5);
+		assertThat(written("failed") - failedBefore).isOne();
+	}
+
+	@Test
+	void scoreForDeletedInteractionFails() throws InterruptedException {
+		var failedBefore = written("failed");
+		var deleted = storeInteractions(1).getFirst();
+		var interactions = storeInteractions(1);
+
+		QuarkusTransaction.requiringNew().run(() -> this.interactionRepository.deleteById(deleted.getInteractionId()));
+
+		// Scored while it was still there, written after it's gone
+		this.scoreWriter.write(score(deleted));
+		this.scoreWriter.write(score(interactions.getFirst()));
+
+		assertThat(waitForScores(interactions, Duration.ofSeconds(5))).hasSize(1);
+		assertThat(written("failed") - failedBefore).isOne();
+		assertThat(countScores(deleted.getInteractionId())).isZero();
+	}
+
+	private List<Interaction> storeInteractions(int count) {
+		var interactions = IntStream.range(0, count)
+			.mapToObj(i -> Interaction.builder()
+				.interactionId(UUID.randomUUID())
+				.interactionDate(Instant.now())
+				.applicationName("app")
+				.interfaceName("iface")
+				.methodName("method")
+				.userMessage("Hello")
+				.result("Hi!")
+				.build())
+			.toList();
+
+		QuarkusTransaction.requiringNew().run(() -> interactions.forEach(this.interactionRepository::persist));
+		return interactions;
+	}
+
+	private List<InteractionScore> waitForScores(List<Interaction> interactions, Duration timeout) throws InterruptedException {
+		var interactionIds = interactions.stream().map(Interaction::getInteractionId).toList();
+		var deadline = Instant.now().plus(timeout);
+		List<InteractionScore> scores = List.of();
+
+		while (Instant.now().isBefore(deadline)) {
+			scores = QuarkusTransaction.requiringNew().call(() ->
+				this.interactionRepository.findByIds(interactionIds)
+					.stream()
+					.flatMap(interaction -> interaction.getScores().stream())
+					.toList()
+			);
+
+			if (scores.size() >= interactionIds.size()) {
+				break;
+			}
+
+			Thread.sleep(100);
+		}
+
+		return scores;
+	}
+
+	// Straight from the table, since there's no interaction left to reach its scores through
+	private long countScores(UUID interactionId) {
+		return QuarkusTransaction.requiringNew().call(() ->
+			((Number) this.interactionRepository.getEntityManager()
+				.createNativeQuery("SELECT count(*) FROM interaction_scores WHERE interaction_id = :interactionId")
+				.setParameter("interactionId", interactionId)
+				.getSingleResult()).longValue()
+		);
+	}
+
+	private DistributionSummary flushSize() {
+		return this.meterRegistry.find("scorer.scores.flush.size").summary();
+	}
+
+	private double written(String outcome) {
+		var counter = this.meterRegistry.find("scorer.scores.written").tag("outcome", outcome).counter();
+		return (counter != null) ? counter.count() : 0;
+	}
+
+	private static InteractionScore score(Interaction interaction) {
+		return InteractionScore.builder()
+			.interaction(interaction)
+			.score(0.5)
+			.scoreDate(Instant.now())
+			.mode(InteractionMode.NORMAL)
+			.build();
+	}
+
+	public static class SmallBatchProfile implements QuarkusTestProfile {
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of(
+				"ai.scoring.score-writer.batch-size", String.valueOf(BATCH_SIZE),
+				"ai.scoring.score-writer.flush-interval", "200ms"
+			);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package ai.scoring.scoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ai.scoring.domain.event.InteractionEvent;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.mapping.InteractionEventMapper;
+import ai.scoring.repository.InteractionRepository;
+import ai.scoring.scoring.ScoringPipelineTests.PipelineEnabledProfile;
+import ai.scoring.service.InteractionService;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectSpy;
+
+@QuarkusTest
+@TestProfile(PipelineEnabledProfile.class)
+class ScoringPipelineTests {
+	@Inject
+	InteractionService interactionService;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Inject
+	InteractionEventMapper interactionEventMapper;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@InjectSpy
+	InteractionScorer interactionScorer;
+
+	@Test
+	void scoresAfterIngestCommits() throws IOException, InterruptedException {
+		var interactionId = UUID.randomUUID();
+
+		assertThat(this.interactionService.scoresAsynchronously(InteractionMode.NORMAL)).isTrue();
+		assertThat(this.interactionService.scoresAsynchronously(InteractionMode.RESCORE)).isFalse();
+
+		assertThat(this.interactionService.handleInteractionEvent(loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class, interactionId), InteractionMode.NORMAL))
+			.isEmpty();
+
+		// Ingest returns straight away without a score
+		assertThat(this.interactionService.handleInteractionEvent(loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class, interactionId), InteractionMode.NORMAL))
+			.isEmpty();
+
+		assertThat(waitForScores(interactionId, Duration.ofSeconds(10)))
+			.singleElement()
+			.extracting(InteractionScore::getScore, InteractionScore::getMode)
+			.containsExactly(0.8565, InteractionMode.NORMAL);
+	}
+
+	@Test
+	void leavesUnscoredWhenScoringFails() throws IOException, InterruptedException {
+		var interactionId = UUID.randomUUID();
+
+		doThrow(new IllegalStateException("Scorer unavailable"))
+			.when(this.interactionScorer)
+			.score(argThat(interaction -> interaction.getInteractionId().equals(interactionId)));
+
+		this.interactionService.handleInteractionEvent(loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class, interactionId), InteractionMode.NORMAL);
+		this.interactionService.handleInteractionEvent(loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class, interactionId), InteractionMode.NORMAL);
+
+		var deadline = Instant.now().plusSeconds(10);
+
+		while (isScored(interactionId) && Instant.now().isBefore(deadline)) {
+			Thread.sleep(100);
+		}
+
+		// Findable, rather than looking like it was scored
+		assertThat(isScored(interactionId)).isFalse();
+	}
+
+	private boolean isScored(UUID interactionId) {
+		return QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findByIdOptional(interactionId).map(Interaction::isScored).orElse(true));
+	}
+
+	private List<InteractionScore> waitForScores(UUID interactionId, Duration timeout) throws InterruptedException {
+		var deadline = Instant.now().plus(timeout);
+
+		while (Instant.now().isBefore(deadline)) {
+			var scores = QuarkusTransaction.requiringNew().call(() ->
+				this.interactionRepository.findByIdOptional(interactionId)
+					.map(Interaction::getScores)
+					.map(List::copyOf)
+					.orElseGet(List::of)
+			);
+
+			if (!scores.isEmpty()) {
+				return scores;
+			}
+
+			Thread.sleep(100);
+		}
+
+		return List.of();
+	}
+
+	private <A extends ai.scoring.model.InteractionEvent> InteractionEvent loadEvent(String fileName, Class<A> clazz, UUID interactionId) throws IOException {
+		try (var is = ScoringPipelineTests.class.getClassLoader().getResourceAsStream(fileName)) {
+			var event = this.interactionEventMapper.map(this.objectMapper.readValue(is, clazz));
+			event.getInvocationContext().setInteractionId(interactionId);
+
+			return event;
+		}
+	}
+
+	public static class PipelineEnabledProfile implements QuarkusTestProfile {
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of("ai.scoring.pipeline.enabled", "true");
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package ai.scoring.scoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.domain.event.InteractionCoalescedEvent;
+import ai.scoring.domain.event.InvocationContext;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.repository.InteractionRepository;
+import ai.scoring.repository.ScoringJobRepository;
+import ai.scoring.scoring.ScoringWorkQueueTests.WorkQueueProfile;
+import ai.scoring.service.InteractionService;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.scoring.ScoringModel;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+// Replicas are simulated by separate groups of workers in this JVM
+// Every claim and completion is its own transaction on its own connection, so to the database they look just like workers in separate processes
+@QuarkusTest
+@TestProfile(WorkQueueProfile.class)
+class ScoringWorkQueueTests {
+	private static final double FAKE_SCORE = 0.9;
+	private static final Duration FAKE_LATENCY = Duration.ofMillis(50);
+
+	@Inject
+	ScoringWorkQueue scoringWorkQueue;
+
+	@Inject
+	ScoringJobRepository scoringJobRepository;
+
+	@Inject
+	InteractionService interactionService;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Inject
+	FakeScoringModel fakeScoringModel;
+
+	@BeforeEach
+	void cleanUp() {
+		QuarkusTransaction.requiringNew().run(() -> {
+			this.interactionRepository.streamAll()
+				.map(Interaction::getInteractionId)
+				.forEach(this.interactionRepository::deleteById);
+
+			this.interactionRepository.getEntityManager().createNativeQuery("DELETE FROM scoring_jobs").executeUpdate();
+		});
+
+		this.fakeScoringModel.reset();
+	}
+
+	@Test
+	void replicasShareWorkWithoutScoringTwice() throws InterruptedException {
+		var interactionIds = ingest(60);
+
+		// Ingest only leaves the work behind
+		assertThat(this.scoringJobRepository.count()).isEqualTo(60);
+		assertThat(scores(interactionIds)).isEmpty();
+
+		var processedByReplica = drain(3, 4);
+
+		assertThat(processedByReplica)
+			.hasSize(3)
+			.allSatisfy(processed -> assertThat(processed).isPositive());
+
+		assertThat(processedByReplica.stream().mapToInt(Integer::intValue).sum()).isEqualTo(60);
+		assertThat(this.fakeScoringModel.calls()).isEqualTo(60);
+		assertThat(this.scoringJobRepository.count()).isZero();
+
+		assertThat(scores(interactionIds))
+			.hasSize(60)
+			.allSatisfy(score -> assertThat(score.getScore()).isEqualTo(FAKE_SCORE))
+			.extracting(score -> score.getInteraction().getInteractionId())
+			.containsExactlyInAnyOrderElementsOf(interactionIds);
+	}
+
+	@Test
+	void replicasScoreConcurrently() throws InterruptedException {
+		var interactionIds = ingest(40);
+
+		drain(4, 2);
+
+		// Claims never overlap, yet the workers don't queue up behind each other's scoring calls either
+		assertThat(this.fakeScoringModel.calls()).isEqualTo(40);
+		assertThat(this.fakeScoringModel.maxConcurrentCalls()).isGreaterThan(1);
+		assertThat(scores(interactionIds))
+			.hasSize(40)
+			.extracting(score -> score.getInteraction().getInteractionId())
+			.containsExactlyInAnyOrderElementsOf(interactionIds);
+	}
+
+	@Test
+	void expiredLeaseIsClaimedAgain() throws InterruptedException {
+		var interactionId = ingest(1).getFirst();
+
+		// A replica that claims the job and then dies
+		var abandoned = QuarkusTransaction.requiringNew().call(() -> this.scoringJobRepository.claim(Duration.ofMillis(500)));
+		assertThat(abandoned).get().extracting(ScoringJob::interactionId).isEqualTo(interactionId);
+
+		// Nobody else can take it while the lease lasts
+		assertThat(this.scoringWorkQueue.processNext()).isFalse();
+
+		Thread.sleep(600);
+
+		assertThat(this.scoringWorkQueue.processNext()).isTrue();
+		assertThat(scores(List.of(interactionId))).singleElement().extracting(InteractionScore::getScore).isEqualTo(FAKE_SCORE);
+
+		// Too late for the first claim to complete it
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.scoringJobRepository.complete(abandoned.get()))).isFalse();
+	}
+
+	private List<UUID> ingest(int count) {
+		var interactionIds = new ArrayList<UUID>();
+
+		for (var i = 0; i < count; i++) {
+			var interactionId = UUID.randomUUID();
+			interactionIds.add(interactionId);
+
+			assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionService.handleInteractionEvent(coalescedEvent(interactionId), InteractionMode.NORMAL)))
+				.isEmpty();
+		}
+
+		return interactionIds;
+	}
+
+	// Runs every replica's workers until there's nothing left to claim, returning how many interactions each replica scored
+	private List<Integer> drain(int replicas, int workersPerReplica) throws InterruptedException {
+		var processed = new ArrayList<AtomicInteger>();
+		var workers = new ArrayList<Thread>();
+
+		for (var replica = 0; replica < replicas; replica++) {
+			var processedByReplica = new AtomicInteger();
+			processed.add(processedByReplica);
+
+			for (var worker = 0; worker < workersPerReplica; worker++) {
+				workers.add(Thread.ofVirtual().name("replica-%d-worker-%d".formatted(replica, worker)).start(() -> {
+					while (this.scoringWorkQueue.processNext()) {
+						processedByReplica.incrementAndGet();
+					}
+				}));
+			}
+		}
+
+		for (var worker : workers) {
+			worker.join();
+		}
+
+		return processed.stream().map(AtomicInteger::get).toList();
+	}
+
+	private List<InteractionScore> scores(List<UUID> interactionIds) {
+		return QuarkusTransaction.requiringNew().call(() ->
+			this.interactionRepository.findByIds(interactionIds)
+				.stream()
+				.flatMap(interaction -> interaction.getScores().stream())
+				.toList()
+		);
+	}
+
+	private static InteractionCoalescedEvent coalescedEvent(UUID interactionId) {
+		return InteractionCoalescedEvent.builder()
+			.invocationContext(
+				InvocationContext.builder()
+					.interactionId(interactionId)
+					.interactionDate(Instant.now())
+					.applicationName("app")
+					.interfaceName("iface")
+					.methodName("method")
+					.build()
+			)
+			.systemMessage("You are a chat agent")
+			.userMessage("Hello")
+			.result("Hi!")
+			.build();
+	}
+
+	// Stands in for the remote scoring model, taking about as long as a quick one would
+	@Alternative
+	@ApplicationScoped
+	public static class FakeScoringModel implements ScoringModel {
+		private final AtomicInteger calls = new AtomicInteger();
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+
+		// Accessed through methods, since the injected bean is a client proxy
+		public int calls() {
+			return this.calls.get();
+		}
+
+		public int maxConcurrentCalls() {
+			return this.maxInFlight.get();
+		}
+
+		public void reset() {
+			this.calls.set(0);
+			this.maxInFlight.set(0);
+		}
+
+		@Override
+		public Response<List<Double>> scoreAll(List<TextSegment> segments, String query) {
+			this.calls.incrementAndGet();
+			this.maxInFlight.accumulateAndGet(this.inFlight.incrementAndGet(), Math::max);
+
+			try {
+				Thread.sleep(FAKE_LATENCY);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				this.inFlight.decrementAndGet();
+			}
+
+			return Response.from(segments.stream().map(segment -> FAKE_SCORE).toList());
+		}
+	}
+
+	public static class WorkQueueProfile implements QuarkusTestProfile {
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			// No workers of its own, the tests run them
+			return Map.of(
+				"ai.scoring.pipeline.enabled", "true",
+				"ai.scoring.pipeline.mode", "database",
+				"ai.scoring.pipeline.workers", "0"
+			);
+		}
+
+		@Override
+		public Set<Class<?>> getEnabledAlternatives() {
+			return Set.of(FakeScoringModel.class);
+		}
+	}
+}
@@ -33,6 +33,9 @@ class SemanticSimilarityScorerTests extends InteractionScorerTests {
 		var report = rescoreResult.evaluationReport();
 
 		assertThat(report.evaluations()).singleElement();
+		assertThat(rescoreResult.samplesEvaluated()).isOne();
+		assertThat(rescoreResult.samplesAvailable()).isOne();
+		assertThat(rescoreResult.interactionScore().isPartial()).isFalse();
 
 		var evalResult = report.evaluations().getFirst();
 
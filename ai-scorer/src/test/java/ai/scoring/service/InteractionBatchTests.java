@@ -0,0 +1,234 @@
+package ai.scoring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ai.scoring.deduplication.EventDeduplicator;
+import ai.scoring.domain.event.InteractionCoalescedEvent;
+import ai.scoring.domain.event.InteractionCompletedEvent;
+import ai.scoring.domain.event.InteractionEvent;
+import ai.scoring.domain.event.InteractionEventRequest;
+import ai.scoring.domain.event.InteractionStartedEvent;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionEventResult;
+import ai.scoring.domain.interaction.InteractionEventResult.Status;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.mapping.InteractionEventMapper;
+import ai.scoring.repository.InteractionEventRepository;
+import ai.scoring.repository.InteractionRepository;
+import ai.scoring.scoring.InteractionScorer;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
+
+// Batches commit each event on its own, so unlike InteractionServiceTests these can't run inside a test transaction
+@QuarkusTest
+class InteractionBatchTests {
+	@Inject
+	InteractionService interactionService;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Inject
+	InteractionEventRepository interactionEventRepository;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@Inject
+	InteractionEventMapper interactionEventMapper;
+
+	@InjectSpy
+	InteractionScorer interactionScorer;
+
+	@InjectSpy
+	EventDeduplicator eventDeduplicator;
+
+	@BeforeEach
+	void cleanRepos() {
+		QuarkusTransaction.requiringNew().run(() -> {
+			this.interactionEventRepository.deleteAll();
+			this.interactionRepository.streamAll()
+				.map(Interaction::getInteractionId)
+				.forEach(this.interactionRepository::deleteById);
+		});
+	}
+
+	@Test
+	void handlesBatchOfEvents() throws IOException {
+		// One started event already in the event table
+		InteractionStartedEvent storedStartedEvent = loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class);
+		assertThat(handle(storedStartedEvent)).isEmpty();
+		InteractionCompletedEvent storedCompletedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+
+		// A started/completed pair that arrives in the same batch
+		InteractionStartedEvent batchStartedEvent = loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class);
+		InteractionCompletedEvent batchCompletedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+		batchStartedEvent.getInvocationContext().setInteractionId(UUID.randomUUID());
+		batchCompletedEvent.getInvocationContext().setInteractionId(batchStartedEvent.getInvocationContext().getInteractionId());
+
+		// A completed event nobody has seen the start of
+		InteractionCompletedEvent orphanCompletedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+		orphanCompletedEvent.getInvocationContext().setInteractionId(UUID.randomUUID());
+
+		var results = handleBatch(batchStartedEvent, storedCompletedEvent, batchCompletedEvent, orphanCompletedEvent);
+
+		assertThat(results)
+			.extracting(InteractionEventResult::interactionId, InteractionEventResult::status)
+			.containsExactly(
+				tuple(batchStartedEvent.getInvocationContext().getInteractionId(), Status.STORED),
+				tuple(storedStartedEvent.getInvocationContext().getInteractionId(), Status.SCORED),
+				tuple(batchCompletedEvent.getInvocationContext().getInteractionId(), Status.SCORED),
+				tuple(orphanCompletedEvent.getInvocationContext().getInteractionId(), Status.UNCORRELATED)
+			);
+
+		assertThat(results.get(1).score())
+			.isNotNull()
+			.extracting(InteractionScore::getScore)
+			.isEqualTo(0.8565);
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.count())).isZero();
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.count())).isEqualTo(2);
+	}
+
+	@Test
+	void acknowledgesRedeliveredEvents() throws IOException {
+		InteractionStartedEvent startedEvent = loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class);
+		InteractionCompletedEvent completedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+		var interactionId = startedEvent.getInvocationContext().getInteractionId();
+
+		assertThat(handle(startedEvent)).isEmpty();
+
+		// Still just the one waiting to be correlated
+		assertThat(handleBatch(startedEvent))
+			.singleElement()
+			.extracting(InteractionEventResult::interactionId, InteractionEventResult::status)
+			.containsExactly(interactionId, Status.STORED);
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.getAllForInteractionId(interactionId))).hasSize(1);
+
+		assertThat(handle(completedEvent)).isPresent();
+		var firstScore = QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findById(interactionId).getScores().getFirst());
+
+		// Same answer, without storing or scoring it again
+		assertThat(handleBatch(completedEvent))
+			.singleElement()
+			.extracting(InteractionEventResult::interactionId, InteractionEventResult::status, result -> result.score().getScoreDate())
+			.containsExactly(interactionId, Status.SCORED, firstScore.getScoreDate());
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findById(interactionId).getScores())).hasSize(1);
+	}
+
+	@Test
+	void acknowledgesDuplicateStoredByAnotherReplica() throws IOException {
+		InteractionCoalescedEvent coalescedEvent = coalescedEvent();
+		var interactionId = coalescedEvent.getInvocationContext().getInteractionId();
+
+		assertThat(handle(coalescedEvent)).isPresent();
+		var firstScore = QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findById(interactionId).getScores().getFirst());
+
+		// Another replica's filter has never seen it, so it goes straight to storing it and runs into the one already there
+		doReturn(false)
+			.when(this.eventDeduplicator)
+			.requiresStoredCheck(any(), any());
+
+		assertThat(this.interactionService.handleInteractionEvent(coalescedEvent, InteractionMode.NORMAL))
+			.get()
+			.extracting(InteractionScore::getScoreDate)
+			.isEqualTo(firstScore.getScoreDate());
+
+		assertThat(handleBatch(coalescedEvent))
+			.singleElement()
+			.extracting(InteractionEventResult::status, result -> result.score().getScoreDate())
+			.containsExactly(Status.SCORED, firstScore.getScoreDate());
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findById(interactionId).getScores())).hasSize(1);
+	}
+
+	@Test
+	void failedEventDoesNotRollBackRestOfBatch() throws IOException {
+		InteractionCoalescedEvent first = coalescedEvent();
+		InteractionCoalescedEvent broken = coalescedEvent();
+		InteractionCoalescedEvent last = coalescedEvent();
+
+		// Can't be mapped to an interaction, so storing it fails part way through its transaction
+		broken.getInvocationContext().setMethodName(null);
+
+		assertThat(handleBatch(first, broken, last))
+			.extracting(InteractionEventResult::interactionId, InteractionEventResult::status)
+			.containsExactly(
+				tuple(first.getInvocationContext().getInteractionId(), Status.SCORED),
+				tuple(broken.getInvocationContext().getInteractionId(), Status.FAILED),
+				tuple(last.getInvocationContext().getInteractionId(), Status.SCORED)
+			);
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findByIds(List.of(first.getInvocationContext().getInteractionId(), last.getInvocationContext().getInteractionId()))))
+			.hasSize(2)
+			.allSatisfy(interaction -> assertThat(interaction.getScores()).hasSize(1));
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.count())).isEqualTo(2);
+	}
+
+	@Test
+	void scoringFailureKeepsInteraction() throws IOException {
+		InteractionCoalescedEvent coalescedEvent = coalescedEvent();
+		var interactionId = coalescedEvent.getInvocationContext().getInteractionId();
+
+		doThrow(new IllegalStateException("Scorer unavailable"))
+			.when(this.interactionScorer)
+			.score(argThat(interaction -> interaction.getInteractionId().equals(interactionId)));
+
+		assertThat(handleBatch(coalescedEvent))
+			.singleElement()
+			.extracting(InteractionEventResult::status, InteractionEventResult::error)
+			.containsExactly(Status.FAILED, "Scorer unavailable");
+
+		// Already committed by the time it was scored
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findById(interactionId).getScores())).isEmpty();
+	}
+
+	private Optional<InteractionScore> handle(InteractionEvent event) {
+		return QuarkusTransaction.requiringNew().call(() -> this.interactionService.handleInteractionEvent(event, InteractionMode.NORMAL));
+	}
+
+	private List<InteractionEventResult> handleBatch(InteractionEvent... events) {
+		return this.interactionService.handleInteractionEvents(
+			List.of(events).stream()
+				.map(event -> new InteractionEventRequest(event, InteractionMode.NORMAL))
+				.toList()
+		);
+	}
+
+	private InteractionCoalescedEvent coalescedEvent() throws IOException {
+		InteractionCoalescedEvent coalescedEvent = loadEvent("interaction-coalesced.json", ai.scoring.model.InteractionCoalescedEvent.class);
+		coalescedEvent.getInvocationContext().setInteractionId(UUID.randomUUID());
+
+		return coalescedEvent;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends InteractionEvent, A extends ai.scoring.model.InteractionEvent> T loadEvent(String fileName, Class<A> clazz) throws IOException {
+		try (var is = InteractionBatchTests.class.getClassLoader().getResourceAsStream(fileName)) {
+			return (T) this.interactionEventMapper.map(this.objectMapper.readValue(is, clazz));
+		}
+	}
+}
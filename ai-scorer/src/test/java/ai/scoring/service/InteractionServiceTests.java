@@ -14,6 +14,7 @@ import org.junit.jupiter.api.Test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import ai.scoring.domain.event.InteractionCoalescedEvent;
 import ai.scoring.domain.event.InteractionCompletedEvent;
 import ai.scoring.domain.event.InteractionEvent;
 import ai.scoring.domain.event.InteractionStartedEvent;
@@ -87,7 +88,7 @@ class InteractionServiceTests {
 													.scoreDate(Instant.now())
 													.mode(InteractionMode.RESCORE)
 					                .build(),
-null))
+null, 1, 1))
 			.when(this.interactionScorer)
 			.rescore(argThat(i -> i.getInteractionId().equals(rescoreCompletedEvent.getInvocationContext().getInteractionId())));
 
@@ -100,6 +101,68 @@ null))
 			.isEqualTo(0.5);
 	}
 
+	@Test
+	void handlesCoalescedEvent() throws IOException {
+		cleanRepos();
+		InteractionCoalescedEvent coalescedEvent = loadEvent("interaction-coalesced.json", ai.scoring.model.InteractionCoalescedEvent.class);
+
+		var score = this.interactionService.handleInteractionEvent(coalescedEvent, InteractionMode.NORMAL);
+
+		assertThat(score)
+			.get()
+			.extracting(InteractionScore::getScore)
+			.isEqualTo(0.8565);
+
+		assertThat(score.get().getInteraction())
+			.usingRecursiveComparison()
+			.ignoringFieldsMatchingRegexes(".*hibernate.*")
+			.ignoringFields("scores")
+			.isEqualTo(this.interactionMapper.map(coalescedEvent));
+
+		// Never goes near the event table
+		assertThat(this.interactionEventRepository.count()).isZero();
+		assertThat(this.interactionRepository.count()).isOne();
+	}
+
+	@Test
+	void handlesRedeliveredCompletedEvent() throws IOException {
+		var completedEvent = getAndAssertNormalCompletedEvent();
+		var interactionId = completedEvent.getInvocationContext().getInteractionId();
+		var firstScore = this.interactionRepository.findById(interactionId).getScores().getFirst();
+
+		// Same answer, without storing or scoring it again
+		assertThat(this.interactionService.handleInteractionEvent(completedEvent, InteractionMode.NORMAL))
+			.get()
+			.extracting(InteractionScore::getScore, InteractionScore::getScoreDate)
+			.containsExactly(firstScore.getScore(), firstScore.getScoreDate());
+
+		assertThat(this.interactionRepository.count()).isOne();
+		assertThat(this.interactionRepository.findById(interactionId).getScores()).hasSize(1);
+	}
+
+	@Test
+	void handlesRedeliveredStartedEvent() throws IOException {
+		var startedEvent = getAndAssertStartedEvent();
+		var interactionId = startedEvent.getInvocationContext().getInteractionId();
+		InteractionStartedEvent redelivered = loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class);
+
+		// Still just the one waiting to be correlated
+		assertThat(this.interactionService.handleInteractionEvent(redelivered, InteractionMode.NORMAL)).isEmpty();
+		assertThat(this.interactionEventRepository.getAllForInteractionId(interactionId)).hasSize(1);
+
+		InteractionCompletedEvent completedEvent = loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class);
+
+		assertThat(this.interactionService.handleInteractionEvent(completedEvent, InteractionMode.NORMAL))
+			.get()
+			.extracting(InteractionScore::getScore)
+			.isEqualTo(0.8565);
+
+		// Arriving after its interaction was stored, it's acknowledged rather than left waiting for a completed event that already came
+		assertThat(this.interactionService.handleInteractionEvent(redelivered, InteractionMode.NORMAL)).isEmpty();
+		assertThat(this.interactionEventRepository.count()).isZero();
+		assertThat(this.interactionRepository.count()).isOne();
+	}
+
 	private InteractionCompletedEvent getAndAssertNormalCompletedEvent() throws IOException {
 		cleanRepos();
 		var interactionStartedEvent = getAndAssertStartedEvent();
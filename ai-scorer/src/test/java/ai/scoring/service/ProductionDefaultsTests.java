@@ -0,0 +1,144 @@
+package ai.scoring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ai.scoring.domain.event.InteractionEvent;
+import ai.scoring.domain.interaction.Interaction;
+import ai.scoring.domain.interaction.InteractionMode;
+import ai.scoring.domain.interaction.InteractionScore;
+import ai.scoring.mapping.InteractionEventMapper;
+import ai.scoring.repository.InteractionEventRepository;
+import ai.scoring.repository.InteractionRepository;
+import ai.scoring.service.ProductionDefaultsTests.ProductionDefaultsProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+// Puts back everything the %test profile turns off, so ingest runs the way it's shipped
+@QuarkusTest
+@TestProfile(ProductionDefaultsProfile.class)
+class ProductionDefaultsTests {
+	@Inject
+	InteractionService interactionService;
+
+	@Inject
+	InteractionRepository interactionRepository;
+
+	@Inject
+	InteractionEventRepository interactionEventRepository;
+
+	@Inject
+	InteractionEventMapper interactionEventMapper;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void cleanRepos() {
+		QuarkusTransaction.requiringNew().run(() -> {
+			this.interactionEventRepository.deleteAll();
+			this.interactionRepository.streamAll()
+				.map(Interaction::getInteractionId)
+				.forEach(this.interactionRepository::deleteById);
+		});
+	}
+
+	@Test
+	void scoresOutOfOrderEventsInBackground() throws IOException, InterruptedException {
+		var interactionId = UUID.randomUUID();
+		var sampledBefore = sampled();
+
+		// Overtaken by its completed event, which is held until it shows up
+		assertThat(this.interactionService.handleInteractionEvent(loadEvent("interaction-completed-normal.json", ai.scoring.model.InteractionCompletedEvent.class, interactionId), InteractionMode.NORMAL))
+			.isEmpty();
+
+		assertThat(this.interactionService.handleInteractionEvent(loadEvent("interaction-started.json", ai.scoring.model.InteractionStartedEvent.class, interactionId), InteractionMode.NORMAL))
+			.isEmpty();
+
+		assertThat(waitForScores(interactionId, Duration.ofSeconds(10)))
+			.singleElement()
+			.extracting(InteractionScore::getScore, InteractionScore::getMode)
+			.containsExactly(0.8565, InteractionMode.NORMAL);
+
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionRepository.findById(interactionId).isScored())).isTrue();
+		assertThat(QuarkusTransaction.requiringNew().call(() -> this.interactionEventRepository.count())).isZero();
+		assertThat(sampled() - sampledBefore).isOne();
+	}
+
+	private double sampled() {
+		return this.meterRegistry.find("scorer.sampling.decisions")
+			.tag("scored", "true")
+			.counters()
+			.stream()
+			.mapToDouble(Counter::count)
+			.sum();
+	}
+
+	private List<InteractionScore> waitForScores(UUID interactionId, Duration timeout) throws InterruptedException {
+		var deadline = Instant.now().plus(timeout);
+
+		while (Instant.now().isBefore(deadline)) {
+			var scores = QuarkusTransaction.requiringNew().call(() ->
+				this.interactionRepository.findByIdOptional(interactionId)
+					.map(Interaction::getScores)
+					.map(List::copyOf)
+					.orElseGet(List::of)
+			);
+
+			if (!scores.isEmpty()) {
+				return scores;
+			}
+
+			Thread.sleep(100);
+		}
+
+		return List.of();
+	}
+
+	private <A extends ai.scoring.model.InteractionEvent> InteractionEvent loadEvent(String fileName, Class<A> clazz, UUID interactionId) throws IOException {
+		try (var is = ProductionDefaultsTests.class.getClassLoader().getResourceAsStream(fileName)) {
+			var event = this.interactionEventMapper.map(this.objectMapper.readValue(is, clazz));
+			event.getInvocationContext().setInteractionId(interactionId);
+
+			return event;
+		}
+	}
+
+	// The values application.yml ships with, in place of the %test overrides
+	public static class ProductionDefaultsProfile implements QuarkusTestProfile {
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of(
+				"ai.scoring.pipeline.enabled", "true",
+				"ai.scoring.correlation.mode", "memory",
+				"ai.scoring.reorder.enabled", "true",
+				"ai.scoring.sample-cache.enabled", "true",
+				"ai.scoring.sample-index.enabled", "true",
+				"ai.scoring.partitions.maintenance-enabled", "true",
+				"ai.scoring.sampling.enabled", "true",
+				"ai.scoring.verdict-cache.enabled", "true"
+			);
+		}
+	}
+}
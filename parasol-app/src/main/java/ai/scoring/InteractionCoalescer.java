@@ -0,0 +1,40 @@
+package ai.scoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import ai.scoring.config.ScoringConfig;
+import dev.langchain4j.observability.api.event.AiServiceStartedEvent;
+
+// Holds started events until their completed event shows up so the pair can be sent to the scorer as one interaction
+// Bounded - once full the oldest started event is handed back so it can be sent on its own
+@ApplicationScoped
+public class InteractionCoalescer {
+	private final int maxPending;
+	private final Map<UUID, AiServiceStartedEvent> pending = new LinkedHashMap<>();
+
+	public InteractionCoalescer(ScoringConfig scoringConfig) {
+		this.maxPending = scoringConfig.coalesce().maxPending();
+	}
+
+	public synchronized Optional<AiServiceStartedEvent> hold(AiServiceStartedEvent event) {
+		this.pending.put(event.invocationContext().invocationId(), event);
+
+		if (this.pending.size() > this.maxPending) {
+			var eldest = this.pending.entrySet().iterator().next();
+			this.pending.remove(eldest.getKey());
+
+			return Optional.of(eldest.getValue());
+		}
+
+		return Optional.empty();
+	}
+
+	public synchronized Optional<AiServiceStartedEvent> take(UUID invocationId) {
+		return Optional.ofNullable(this.pending.remove(invocationId));
+	}
+}
@@ -0,0 +1,176 @@
+package ai.scoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import ai.scoring.config.ScoringConfig;
+import ai.scoring.outbox.OutboxShipper;
+import ai.scoring.prompt.PromptRegistry;
+import ai.scoring.scorer.model.InteractionEvent;
+import ai.scoring.scorer.model.InteractionEventResults;
+import ai.scoring.scorer.model.InteractionEventStatus;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+// Batches go out one at a time, so they reach the scorer in the order they were added
+// A batch the scorer fails to take is retried with backoff, then handed to the outbox, which keeps trying for as long as it takes
+@ApplicationScoped
+public class InteractionEventBatcher {
+	private final ReactiveAiInteractionsApi aiInteractionApi;
+	private final OutboxShipper outboxShipper;
+	private final PromptRegistry promptRegistry;
+	private final ScoringConfig scoringConfig;
+	private final Tracer tracer;
+	private final BlockingQueue<InteractionEvent> pendingEvents = new LinkedBlockingQueue<>();
+	private final AtomicBoolean flushing = new AtomicBoolean();
+	private volatile CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+	private ScheduledFuture<?> scheduledFlush;
+
+	public InteractionEventBatcher(@RestClient ReactiveAiInteractionsApi aiInteractionApi, OutboxShipper outboxShipper, PromptRegistry promptRegistry, ScoringConfig scoringConfig, Tracer tracer) {
+		this.aiInteractionApi = aiInteractionApi;
+		this.outboxShipper = outboxShipper;
+		this.promptRegistry = promptRegistry;
+		this.scoringConfig = scoringConfig;
+		this.tracer = tracer;
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (this.scoringConfig.batch().enabled()) {
+			var interval = this.scoringConfig.batch().flushInterval().toMillis();
+			this.scheduledFlush = Infrastructure.getDefaultWorkerPool().scheduleAtFixedRate(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	// Before the outbox closes (at the default priority), so it can still take whatever fails here
+	void onStop(@Observes @Priority(Interceptor.Priority.APPLICATION) ShutdownEvent shutdownEvent) {
+		if (this.scheduledFlush != null) {
+			this.scheduledFlush.cancel(false);
+		}
+
+		this.inFlight.join();
+		var batch = new ArrayList<InteractionEvent>(this.scoringConfig.batch().maxSize());
+
+		while (this.pendingEvents.drainTo(batch, this.scoringConfig.batch().maxSize()) > 0) {
+			send(List.copyOf(batch)).join();
+			batch.clear();
+		}
+	}
+
+	public void add(InteractionEvent event) {
+		this.pendingEvents.add(event);
+
+		if (this.pendingEvents.size() >= this.scoringConfig.batch().maxSize()) {
+			Infrastructure.getDefaultExecutor().execute(this::flush);
+		}
+	}
+
+	void flush() {
+		if (!this.flushing.compareAndSet(false, true)) {
+			return;
+		}
+
+		var batch = new ArrayList<InteractionEvent>(this.scoringConfig.batch().maxSize());
+
+		if (this.pendingEvents.drainTo(batch, this.scoringConfig.batch().maxSize()) == 0) {
+			this.flushing.set(false);
+			return;
+		}
+
+		this.inFlight = send(List.copyOf(batch));
+		this.inFlight.whenComplete((ignored, error) -> {
+			this.flushing.set(false);
+			flush();
+		});
+	}
+
+	// Never completes exceptionally - a batch that can't be sent is handed off or dropped
+	private CompletableFuture<Void> send(List<InteractionEvent> batch) {
+		var span = this.tracer.spanBuilder("publishInteractionEventBatch")
+			.setSpanKind(SpanKind.CLIENT)
+			.setAttribute("batchSize", batch.size())
+			.startSpan();
+
+		try (var scope = span.makeCurrent()) {
+			return this.aiInteractionApi.submitInteractionEvents(batch)
+				.onFailure(InteractionEventBatcher::isRetryable).retry()
+					.withBackOff(this.scoringConfig.batch().retryBackoff())
+					.atMost(this.scoringConfig.batch().maxRetries())
+				.chain(response -> {
+					Log.debugf("Published batch of %d interaction events", batch.size());
+					return Uni.createFrom().completionStage(() -> sendWithSystemMessages(batch, response));
+				})
+				.onFailure().invoke(error -> {
+					span.recordException(error);
+					handOff(batch, error);
+				})
+				.onFailure().recoverWithNull()
+				.onTermination().invoke(span::end)
+				.replaceWithVoid()
+				.subscribeAsCompletionStage();
+		}
+	}
+
+	private void handOff(List<InteractionEvent> batch, Throwable error) {
+		if (this.outboxShipper.isOpen()) {
+			Log.warnf(error, "Error publishing batch of %d interaction events, handing it to the outbox", batch.size());
+			batch.forEach(this.outboxShipper::append);
+		}
+		else {
+			Log.errorf(error, "Error publishing batch of %d interaction events, dropping it", batch.size());
+		}
+	}
+
+	// The events themselves are bad if the scorer turned them away, so sending them again won't help
+	private static boolean isRetryable(Throwable error) {
+		return !((error instanceof WebApplicationException webApplicationError) && OutboxShipper.isPermanentFailure(webApplicationError.getResponse().getStatus()));
+	}
+
+	// Unknown prompts come back in the same place in the results as in the batch
+	private CompletableFuture<Void> sendWithSystemMessages(List<InteractionEvent> batch, Response response) {
+		if (!response.hasEntity()) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		var results = response.readEntity(InteractionEventResults.class).getResults();
+		var unknownPrompts = IntStream.range(0, Math.min(batch.size(), results.size()))
+			.filter(i -> results.get(i).getStatus() == InteractionEventStatus.UNKNOWN_PROMPT)
+			.mapToObj(batch::get)
+			.toList();
+
+		if (unknownPrompts.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		this.promptRegistry.forgetAll();
+
+		var expanded = unknownPrompts.stream()
+			.filter(this.promptRegistry::expand)
+			.toList();
+
+		Log.warnf("Scorer didn't have the system message for %d interaction events, sending %d of them again with it", unknownPrompts.size(), expanded.size());
+		return expanded.isEmpty() ? CompletableFuture.completedFuture(null) : send(expanded);
+	}
+}
@@ -1,24 +1,36 @@
 package ai.scoring;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
 import jakarta.ws.rs.core.Response.Status.Family;
 
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
+import ai.scoring.config.RescoreFallback;
 import ai.scoring.config.ScoringConfig;
 import ai.scoring.mapping.InteractionEventMapper;
 import ai.scoring.mapping.RescoreInteractionResultMapper;
+import ai.scoring.outbox.OutboxShipper;
+import ai.scoring.prompt.PromptRegistry;
 import ai.scoring.rescore.RescoreBelowThresholdException;
-import ai.scoring.scorer.api.AiInteractionsApi;
+import ai.scoring.rescore.RescoreHedger;
+import ai.scoring.rescore.RescoreUnavailableException;
+import ai.scoring.scorer.model.InteractionEvent;
+import ai.scoring.scorer.model.InteractionStartedEvent;
 import ai.scoring.scorer.model.SubmitInteractionEvent200Response;
 import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.observability.api.event.AiServiceCompletedEvent;
-import dev.langchain4j.observability.api.event.AiServiceEvent;
+import dev.langchain4j.observability.api.event.AiServiceErrorEvent;
 import dev.langchain4j.observability.api.event.AiServiceStartedEvent;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanKind;
@@ -28,20 +40,35 @@ import io.opentelemetry.instrumentation.annotations.WithSpan;
 
 import io.quarkus.logging.Log;
 
-import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.TimeoutException;
+import io.smallrye.mutiny.Uni;
 
 @ApplicationScoped
 public class InteractionPublisher {
-	private final AiInteractionsApi aiInteractionApi;
+	private final ReactiveAiInteractionsApi aiInteractionApi;
+	private final InteractionEventBatcher interactionEventBatcher;
+	private final InteractionCoalescer interactionCoalescer;
+	private final InteractionPublisherExecutor interactionPublisherExecutor;
+	private final OutboxShipper outboxShipper;
+	private final PromptRegistry promptRegistry;
 	private final InteractionEventMapper interactionEventMapper;
 	private final RescoreInteractionResultMapper rescoreInteractionResultMapper;
+	private final RescoreHedger rescoreHedger;
 	private final ScoringConfig scoringConfig;
 	private final Tracer tracer;
+	// Started events still being sent in rescore mode, by interaction (see RescoreConfig.maxPendingStarted)
+	private final Map<UUID, CompletableFuture<Void>> pendingStartedEvents = new ConcurrentHashMap<>();
 
-	public InteractionPublisher(@RestClient AiInteractionsApi aiInteractionApi, InteractionEventMapper interactionEventMapper, RescoreInteractionResultMapper rescoreInteractionResultMapper, ScoringConfig scoringConfig, Tracer tracer) {
+	public InteractionPublisher(@RestClient ReactiveAiInteractionsApi aiInteractionApi, InteractionEventBatcher interactionEventBatcher, InteractionCoalescer interactionCoalescer, InteractionPublisherExecutor interactionPublisherExecutor, OutboxShipper outboxShipper, PromptRegistry promptRegistry, InteractionEventMapper interactionEventMapper, RescoreInteractionResultMapper rescoreInteractionResultMapper, RescoreHedger rescoreHedger, ScoringConfig scoringConfig, Tracer tracer) {
 		this.aiInteractionApi = aiInteractionApi;
+		this.interactionEventBatcher = interactionEventBatcher;
+		this.interactionCoalescer = interactionCoalescer;
+		this.interactionPublisherExecutor = interactionPublisherExecutor;
+		this.outboxShipper = outboxShipper;
+		this.promptRegistry = promptRegistry;
 		this.interactionEventMapper = interactionEventMapper;
 		this.rescoreInteractionResultMapper = rescoreInteractionResultMapper;
+		this.rescoreHedger = rescoreHedger;
 		this.scoringConfig = scoringConfig;
 		this.tracer = tracer;
 	}
@@ -55,7 +82,15 @@ public class InteractionPublisher {
 			e.userMessage().singleText()
 		);
 
-		fireEvent(e);
+		if (this.scoringConfig.coalesce().enabled()) {
+			// Wait for the completed event, unless something older has to make room
+			this.interactionCoalescer.hold(e)
+				.map(this.interactionEventMapper::map)
+				.ifPresent(this::fireEvent);
+		}
+		else {
+			fireEvent(this.interactionEventMapper.map(e));
+		}
 	}
 
 	@WithSpan(value = "publishInteractionCompletedEvent", kind = SpanKind.CLIENT)
@@ -66,11 +101,31 @@ public class InteractionPublisher {
 			e.result()
 		);
 
-		fireEvent(e);
+		if (this.scoringConfig.coalesce().enabled()) {
+			// One message for the whole interaction if we're still holding on to its started event
+			fireEvent(
+				this.interactionCoalescer.take(e.invocationContext().invocationId())
+					.<InteractionEvent>map(startedEvent -> this.interactionEventMapper.map(startedEvent, e))
+					.orElseGet(() -> this.interactionEventMapper.map(e))
+			);
+		}
+		else {
+			fireEvent(this.interactionEventMapper.map(e));
+		}
+	}
+
+	public void serviceFailed(@Observes AiServiceErrorEvent e) {
+		if (this.scoringConfig.coalesce().enabled()) {
+			this.interactionCoalescer.take(e.invocationContext().invocationId());
+		}
+
+		this.pendingStartedEvents.remove(e.invocationContext().invocationId());
 	}
 
-	private void fireEvent(AiServiceEvent event) {
+	private void fireEvent(InteractionEvent event) {
 //		Log.info("before firing");
+		this.promptRegistry.compact(event);
+
 		switch (this.scoringConfig.interactionMode()) {
 			case NORMAL -> handleNormalEventFiring(event);
 			case RESCORE -> handleRescoreEventFiring(event);
@@ -78,12 +133,54 @@ public class InteractionPublisher {
 //		Log.info("after firing");
 	}
 
-	private void handleRescoreEventFiring(AiServiceEvent event) {
+	private void handleRescoreEventFiring(InteractionEvent event) {
+		if (event instanceof InteractionStartedEvent) {
+			// Its completed event waits for it instead, so the scorer still sees them in order
+			var sent = this.interactionPublisherExecutor.executeReserved(event, () -> submit(event))
+				.invoke(response -> {
+					if (isError(response)) {
+						Log.errorf("Error publishing interaction event for interaction: %s", event.getInteractionId());
+					}
+				})
+				.onFailure().invoke(error -> Log.errorf(error, "Error publishing interaction event for interaction: %s", event.getInteractionId()))
+				.onFailure().recoverWithNull()
+				.replaceWithVoid()
+				.subscribeAsCompletionStage();
+
+			if (this.pendingStartedEvents.size() < this.scoringConfig.rescore().maxPendingStarted()) {
+				this.pendingStartedEvents.put(event.getInteractionId(), sent);
+
+				sent.whenComplete((result, error) -> this.pendingStartedEvents.remove(event.getInteractionId(), sent));
+			}
+			else {
+				Log.debugf("Too many started events being sent, interaction %s won't wait for its started event", event.getInteractionId());
+			}
+
+			return;
+		}
+
 		// We're in "rescore" mode, so when we fire the event we care about the result
 		// We need to wait for the result before continuing
 		// And if the score is below the threshold, we want to blow up
-		var response = this.aiInteractionApi.submitInteractionEvent(this.interactionEventMapper.map(event));
-		var responseStatusFamily = response.getStatusInfo().getFamily();
+		var startedEventSent = Optional.ofNullable(this.pendingStartedEvents.remove(event.getInteractionId()))
+			.orElseGet(() -> CompletableFuture.completedFuture(null));
+
+		var rescoreConfig = this.scoringConfig.rescore();
+		Response response;
+
+		try {
+			response = Uni.createFrom().completionStage(startedEventSent)
+				.chain(() -> this.rescoreHedger.send(() -> this.interactionPublisherExecutor.executeReserved(event, () -> submit(event))))
+				.await().atMost(rescoreConfig.deadline());
+		}
+		catch (TimeoutException | ProcessingException error) {
+			if (rescoreConfig.fallback() == RescoreFallback.FAIL_CLOSED) {
+				throw new RescoreUnavailableException(event.getInteractionId(), rescoreConfig.deadline(), error);
+			}
+
+			Log.warnf(error, "No rescore result for interaction %s within %s, letting it through", event.getInteractionId(), rescoreConfig.deadline());
+			return;
+		}
 
 		Log.debug("Got rescore response back");
 
@@ -103,44 +200,85 @@ public class InteractionPublisher {
 					}
 				});
 		}
-		else if ((responseStatusFamily == Family.CLIENT_ERROR) || (responseStatusFamily == Family.SERVER_ERROR)) {
-			Log.errorf("Error publishing interaction event for context: %s", event.invocationContext());
+		else if (isError(response)) {
+			Log.errorf("Error publishing interaction event for interaction: %s", event.getInteractionId());
 		}
 	}
 
-	private void handleNormalEventFiring(AiServiceEvent event) {
+	private static boolean isError(Response response) {
+		var responseStatusFamily = response.getStatusInfo().getFamily();
+		return (responseStatusFamily == Family.CLIENT_ERROR) || (responseStatusFamily == Family.SERVER_ERROR);
+	}
+
+	private void handleNormalEventFiring(InteractionEvent event) {
+		if (this.scoringConfig.outbox().enabled()) {
+			this.outboxShipper.append(event);
+			return;
+		}
+
+		if (this.scoringConfig.batch().enabled()) {
+			this.interactionEventBatcher.add(event);
+			return;
+		}
+
 		// We're in "normal" mode - so just fire and forget
-		// Offload everything to another thread
 		// We don't care about the result/failure/etc
-		Infrastructure.getDefaultExecutor().execute(Context.current().wrap(() -> {
+		var parentContext = Context.current();
+
+		this.interactionPublisherExecutor.execute(event, () -> {
 			Span span = this.tracer.spanBuilder("processInteractionScore")
+				.setParent(parentContext)
 				.setSpanKind(SpanKind.INTERNAL)
 				.startSpan();
 
-			try (var scope = span.makeCurrent()) {
-				var response = this.aiInteractionApi.submitInteractionEvent(this.interactionEventMapper.map(event));
-				var responseStatusFamily = response.getStatusInfo().getFamily();
-
-				if ((responseStatusFamily == Family.SUCCESSFUL) && (response.getStatus() == Status.OK.getStatusCode())) {
-					Optional.ofNullable(response)
-						.filter(Response::hasEntity)
-						.map(resp -> resp.readEntity(SubmitInteractionEvent200Response.class))
-						.ifPresent(resp -> {
-							Log.infof("Interaction score: %s", resp.getScore());
-							span.setAttribute("score", resp.getScore());
-						});
-				}
-				else if ((responseStatusFamily == Family.CLIENT_ERROR) || (responseStatusFamily == Family.SERVER_ERROR)) {
-					Log.errorf("Error publishing interaction event for context: %s", event.invocationContext());
-				}
-			}
-			catch (Exception error) {
-				span.recordException(error);
-				Log.errorf(error, "Error publishing interaction event for context: %s", event.invocationContext());
-			}
-			finally {
-				span.end();
-			}
-		}));
+			// The request only goes out once the Uni is subscribed to, so that has to happen while the span is current
+			return Uni.createFrom().<Response>emitter(emitter -> {
+					try (var scope = span.makeCurrent()) {
+						var request = submit(event).subscribe().with(emitter::complete, emitter::fail);
+						emitter.onTermination(request::cancel);
+					}
+				})
+				.invoke(response -> {
+					var responseStatusFamily = response.getStatusInfo().getFamily();
+
+					if ((responseStatusFamily == Family.SUCCESSFUL) && (response.getStatus() == Status.OK.getStatusCode())) {
+						Optional.ofNullable(response)
+							.filter(Response::hasEntity)
+							.map(resp -> resp.readEntity(SubmitInteractionEvent200Response.class))
+							.ifPresent(resp -> {
+								Log.infof("Interaction score: %s", resp.getScore());
+								span.setAttribute("score", resp.getScore());
+							});
+					}
+					else if ((responseStatusFamily == Family.CLIENT_ERROR) || (responseStatusFamily == Family.SERVER_ERROR)) {
+						Log.errorf("Error publishing interaction event for interaction: %s", event.getInteractionId());
+					}
+				})
+				// The executor logs the failure
+				.onFailure().invoke(span::recordException)
+				.onTermination().invoke(span::end);
+		});
+	}
+
+	private Uni<Response> submit(InteractionEvent event) {
+		return send(event)
+			.chain(response -> (response.getStatus() == Status.CONFLICT.getStatusCode()) ? sendWithSystemMessage(event, response) : Uni.createFrom().item(response));
+	}
+
+	private Uni<Response> send(InteractionEvent event) {
+		return this.aiInteractionApi.submitInteractionEvent(event)
+			.onFailure(WebApplicationException.class).recoverWithItem(error -> ((WebApplicationException) error).getResponse());
+	}
+
+	// The scorer doesn't have the system message the event only sent the hash of, so it goes again with the whole message
+	private Uni<Response> sendWithSystemMessage(InteractionEvent event, Response response) {
+		this.promptRegistry.forgetAll();
+
+		if (!this.promptRegistry.expand(event)) {
+			Log.errorf("No system message to send again with the interaction event for interaction: %s", event.getInteractionId());
+			return Uni.createFrom().item(response);
+		}
+
+		return send(event);
 	}
 }
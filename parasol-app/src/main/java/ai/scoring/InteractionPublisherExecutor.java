@@ -0,0 +1,294 @@
+package ai.scoring;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.Response.Status.Family;
+
+import ai.scoring.config.OverflowPolicy;
+import ai.scoring.config.ScoringConfig;
+import ai.scoring.config.ScoringConfig.PublisherConfig;
+import ai.scoring.limit.AdaptiveConcurrencyLimit;
+import ai.scoring.limit.TrafficClass;
+import ai.scoring.outbox.OutboxShipper;
+import ai.scoring.scorer.model.InteractionEvent;
+import ai.scoring.scorer.model.InteractionStartedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+import io.smallrye.mutiny.Uni;
+
+// Bounds the publisher's non-blocking sends to the scorer to the adaptive concurrency limit, with up to queue-size events waiting behind them
+// Rescore sends and outbox batches share the limit but are never queued or shed, they wait for a slot of their own
+@ApplicationScoped
+public class InteractionPublisherExecutor {
+	private final PublisherConfig config;
+	private final OutboxShipper outboxShipper;
+	private final MeterRegistry meterRegistry;
+	private final BlockingQueue<Task> queue;
+	private final AdaptiveConcurrencyLimit limit;
+	// Rescore sends waiting for a slot, started ahead of anything in the queue
+	private final Queue<Runnable> reservedWaiting = new ConcurrentLinkedQueue<>();
+	// Senders blocked in executeWaiting, started once the queue is empty
+	private final Queue<Runnable> threadsWaiting = new ConcurrentLinkedQueue<>();
+
+	public InteractionPublisherExecutor(ScoringConfig scoringConfig, OutboxShipper outboxShipper, MeterRegistry meterRegistry) {
+		this.config = scoringConfig.publisher();
+		this.outboxShipper = outboxShipper;
+		this.meterRegistry = meterRegistry;
+		this.queue = new ArrayBlockingQueue<>(this.config.queueSize());
+		this.limit = new AdaptiveConcurrencyLimit(
+			this.config.initialInFlight(),
+			this.config.minInFlight(),
+			this.config.maxInFlight(),
+			this.config.backoffRatio(),
+			this.config.latencyTolerance(),
+			this.config.rescoreReservedShare()
+		);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		Gauge.builder("parasol.publisher.queue.depth", this.queue, BlockingQueue::size)
+			.description("Interaction events waiting to be sent to the scorer")
+			.register(this.meterRegistry);
+
+		Gauge.builder("parasol.publisher.in.flight", this.limit, AdaptiveConcurrencyLimit::inFlight)
+			.description("Interaction events currently being sent to the scorer")
+			.register(this.meterRegistry);
+
+		Gauge.builder("parasol.publisher.limit", this.limit, AdaptiveConcurrencyLimit::limit)
+			.description("Current adaptive limit on interaction events being sent to the scorer at once")
+			.register(this.meterRegistry);
+	}
+
+	void onStop(@Observes ShutdownEvent shutdownEvent) {
+		if (!this.queue.isEmpty()) {
+			Log.warnf("Discarding %d queued interaction events on shutdown", this.queue.size());
+			this.queue.clear();
+		}
+	}
+
+	public void execute(InteractionEvent event, Supplier<Uni<Response>> send) {
+		var task = new Task(event, send);
+
+		if (!this.queue.offer(task)) {
+			switch (this.config.overflowPolicy()) {
+				case BLOCK -> block(task);
+				case DROP_OLDEST -> dropOldest(task);
+				case SPILL -> spill(task);
+			}
+		}
+
+		startQueued();
+	}
+
+	public Uni<Response> executeReserved(InteractionEvent event, Supplier<Uni<Response>> send) {
+		var trafficClass = trafficClass(event, true);
+
+		return Uni.createFrom().emitter(emitter -> {
+			this.reservedWaiting.add(() -> {
+				if (emitter.isCancelled()) {
+					// The caller gave up while it was waiting
+					this.limit.releaseUnused();
+					return;
+				}
+
+				var sending = limited(trafficClass, send).subscribe().with(emitter::complete, emitter::fail);
+				emitter.onTermination(sending::cancel);
+			});
+
+			startQueued();
+		});
+	}
+
+	// Waits for a slot on the calling thread
+	public Response executeWaiting(TrafficClass trafficClass, Supplier<Response> send) throws InterruptedException {
+		var slot = new CompletableFuture<Void>();
+
+		this.threadsWaiting.add(() -> {
+			if (!slot.complete(null)) {
+				// Gave up waiting
+				this.limit.releaseUnused();
+			}
+		});
+
+		startQueued();
+
+		try {
+			slot.get();
+		}
+		catch (InterruptedException e) {
+			if (!slot.cancel(false)) {
+				this.limit.releaseUnused();
+				startQueued();
+			}
+
+			throw e;
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e);
+		}
+
+		var start = System.nanoTime();
+		Response response = null;
+		Throwable failure = null;
+
+		try {
+			response = send.get();
+			return response;
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			this.limit.release(trafficClass, System.nanoTime() - start, isOverloaded(response, failure));
+			startQueued();
+		}
+	}
+
+	private void block(Task task) {
+		try {
+			if (!this.queue.offer(task, this.config.blockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+				overflowed(task, OverflowPolicy.BLOCK);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			overflowed(task, OverflowPolicy.BLOCK);
+		}
+	}
+
+	private void dropOldest(Task task) {
+		while (!this.queue.offer(task)) {
+			var dropped = this.queue.poll();
+
+			if (dropped != null) {
+				overflowed(dropped, OverflowPolicy.DROP_OLDEST);
+			}
+		}
+	}
+
+	private void spill(Task task) {
+		this.outboxShipper.append(task.event());
+
+		Counter.builder("parasol.publisher.overflow")
+			.description("Interaction events that didn't fit in the publisher queue")
+			.tag("policy", OverflowPolicy.SPILL.name())
+			.tag("result", "spilled")
+			.register(this.meterRegistry)
+			.increment();
+	}
+
+	private void overflowed(Task task, OverflowPolicy policy) {
+		Log.warnf("Publisher queue full, dropping interaction event for interaction: %s", task.event().getInteractionId());
+
+		Counter.builder("parasol.publisher.overflow")
+			.description("Interaction events that didn't fit in the publisher queue")
+			.tag("policy", policy.name())
+			.tag("result", "dropped")
+			.register(this.meterRegistry)
+			.increment();
+	}
+
+	private void startQueued() {
+		// A slot is always released before checking the queues, so a waiting send can't be missed in between
+		while (!this.reservedWaiting.isEmpty() && this.limit.tryAcquireReserved()) {
+			var start = this.reservedWaiting.poll();
+
+			if (start == null) {
+				this.limit.releaseUnused();
+				continue;
+			}
+
+			start.run();
+		}
+
+		while (!this.queue.isEmpty() && this.limit.tryAcquire()) {
+			var task = this.queue.poll();
+
+			if (task == null) {
+				this.limit.releaseUnused();
+				continue;
+			}
+
+			start(task);
+		}
+
+		while (this.queue.isEmpty() && !this.threadsWaiting.isEmpty() && this.limit.tryAcquire()) {
+			var start = this.threadsWaiting.poll();
+
+			if (start == null) {
+				this.limit.releaseUnused();
+				continue;
+			}
+
+			start.run();
+		}
+	}
+
+	private void start(Task task) {
+		limited(trafficClass(task.event(), false), task.send())
+			.subscribe().with(
+				ignored -> {},
+				error -> Log.errorf(error, "Error publishing interaction event for interaction: %s", task.event().getInteractionId())
+			);
+	}
+
+	private Uni<Response> limited(TrafficClass trafficClass, Supplier<Uni<Response>> send) {
+		var start = System.nanoTime();
+		Uni<Response> sending;
+
+		try {
+			sending = send.get();
+		}
+		catch (Exception e) {
+			sending = Uni.createFrom().failure(e);
+		}
+
+		return sending.onTermination().invoke((response, failure, cancelled) -> {
+			if (cancelled) {
+				// Says nothing about the scorer
+				this.limit.releaseUnused();
+			}
+			else {
+				this.limit.release(trafficClass, System.nanoTime() - start, isOverloaded(response, failure));
+			}
+
+			startQueued();
+		});
+	}
+
+	private static TrafficClass trafficClass(InteractionEvent event, boolean reserved) {
+		if (event instanceof InteractionStartedEvent) {
+			return TrafficClass.STARTED;
+		}
+
+		return reserved ? TrafficClass.RESCORE : TrafficClass.COMPLETED;
+	}
+
+	// Failures include timeouts
+	private static boolean isOverloaded(Response response, Throwable failure) {
+		return (failure != null) ||
+		       (response.getStatus() == Status.TOO_MANY_REQUESTS.getStatusCode()) ||
+		       (response.getStatusInfo().getFamily() == Family.SERVER_ERROR);
+	}
+
+	private record Task(InteractionEvent event, Supplier<Uni<Response>> send) {
+	}
+}
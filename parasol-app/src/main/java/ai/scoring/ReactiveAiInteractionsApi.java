@@ -0,0 +1,42 @@
+package ai.scoring;
+
+import java.util.List;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+import ai.scoring.scorer.model.InteractionEvent;
+import ai.scoring.scorer.model.Prompt;
+
+import io.smallrye.mutiny.Uni;
+
+// Non-blocking counterpart to the generated AiInteractionsApi for the operations the publisher uses
+// Same scorer, same config key, same generated models - it just hands back a Uni instead of parking the calling thread
+@RegisterRestClient(configKey = "ai-interactions")
+@Path("/ai")
+public interface ReactiveAiInteractionsApi {
+	@POST
+	@Path("/interactions")
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces(MediaType.APPLICATION_JSON)
+	Uni<Response> submitInteractionEvent(InteractionEvent interactionEvent);
+
+	@POST
+	@Path("/interactions/batch")
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces(MediaType.APPLICATION_JSON)
+	Uni<Response> submitInteractionEvents(List<InteractionEvent> interactionEvents);
+
+	@PUT
+	@Path("/prompts/{hash}")
+	@Consumes(MediaType.APPLICATION_JSON)
+	Uni<Response> storePrompt(@PathParam("hash") String hash, Prompt prompt);
+}
@@ -0,0 +1,13 @@
+package ai.scoring.config;
+
+// What the publisher does with an event when its queue is full
+public enum OverflowPolicy {
+	// Wait up to block-timeout for room in the queue, slowing the publishing thread down to the scorer's pace, then drop the event
+	BLOCK,
+
+	// Make room by dropping the oldest queued event
+	DROP_OLDEST,
+
+	// Journal the event to the outbox, which ships it once the scorer catches up
+	SPILL
+}
@@ -0,0 +1,10 @@
+package ai.scoring.config;
+
+// What a rescored call does when the scorer's verdict doesn't arrive in time
+public enum RescoreFallback {
+	// Let the call through unscored
+	FAIL_OPEN,
+
+	// Fail the call, since it couldn't be checked
+	FAIL_CLOSED
+}
@@ -1,5 +1,10 @@
 package ai.scoring.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
+import io.quarkus.runtime.configuration.MemorySize;
+
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 
@@ -10,4 +15,147 @@ public interface ScoringConfig {
 
 	@WithDefault("75")
 	Double threshold();
+
+	BatchConfig batch();
+	CoalesceConfig coalesce();
+	OutboxConfig outbox();
+	PublisherConfig publisher();
+	WireConfig wire();
+	PromptsConfig prompts();
+	RescoreConfig rescore();
+
+	interface BatchConfig {
+		@WithDefault("true")
+		boolean enabled();
+
+		@WithDefault("50")
+		int maxSize();
+
+		@WithDefault("1s")
+		Duration flushInterval();
+
+		// Before the batch is handed to the outbox
+		@WithDefault("3")
+		int maxRetries();
+
+		// Doubled on each retry
+		@WithDefault("500ms")
+		Duration retryBackoff();
+	}
+
+	interface CoalesceConfig {
+		@WithDefault("false")
+		boolean enabled();
+
+		@WithDefault("1000")
+		int maxPending();
+	}
+
+	interface OutboxConfig {
+		@WithDefault("false")
+		boolean enabled();
+
+		// Outside the build directory, so a clean build doesn't throw away events the scorer hasn't had yet
+		@WithDefault("${user.home}/.parasol/outbox")
+		Path directory();
+
+		@WithDefault("64M")
+		MemorySize segmentSize();
+
+		@WithDefault("100")
+		int batchSize();
+
+		@WithDefault("1s")
+		Duration pollInterval();
+
+		@WithDefault("500ms")
+		Duration initialBackoff();
+
+		@WithDefault("30s")
+		Duration maxBackoff();
+
+		// In between, appended events survive the app crashing but not the machine
+		@WithDefault("1s")
+		Duration syncInterval();
+	}
+
+	interface PublisherConfig {
+		// Outbox batches included
+		@WithDefault("16")
+		int maxInFlight();
+
+		@WithDefault("1")
+		int minInFlight();
+
+		@WithDefault("8")
+		int initialInFlight();
+
+		@WithDefault("0.9")
+		double backoffRatio();
+
+		// Multiple of the scorer's no-load latency a response can take before it counts as the scorer slowing down
+		@WithDefault("2.0")
+		double latencyTolerance();
+
+		@WithDefault("0.25")
+		double rescoreReservedShare();
+
+		@WithDefault("1000")
+		int queueSize();
+
+		@WithDefault("DROP_OLDEST")
+		OverflowPolicy overflowPolicy();
+
+		// BLOCK only
+		@WithDefault("100ms")
+		Duration blockTimeout();
+	}
+
+	interface WireConfig {
+		// Only applies to JSON requests - NDJSON from the outbox is sent as it was journaled
+		@WithDefault("JSON")
+		WireEncoding encoding();
+
+		@WithDefault("NONE")
+		WireCompression compression();
+	}
+
+	interface PromptsConfig {
+		@WithDefault("false")
+		boolean deduplicate();
+	}
+
+	interface RescoreConfig {
+		// Includes waiting for the started event to be sent
+		@WithDefault("10s")
+		Duration deadline();
+
+		@WithDefault("FAIL_CLOSED")
+		RescoreFallback fallback();
+
+		// Beyond it, a completed event doesn't wait for its started event to be sent
+		@WithDefault("1000")
+		int maxPendingStarted();
+
+		HedgeConfig hedge();
+	}
+
+	interface HedgeConfig {
+		// Rarely pays off (see RescoreHedger)
+		@WithDefault("false")
+		boolean enabled();
+
+		@WithDefault("95")
+		double percentile();
+
+		// Never hedge sooner than this, however fast the scorer has been
+		@WithDefault("50ms")
+		Duration minDelay();
+
+		@WithDefault("200")
+		int window();
+
+		@WithDefault("20")
+		int minSamples();
+	}
 }
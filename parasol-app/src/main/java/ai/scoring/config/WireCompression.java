@@ -0,0 +1,7 @@
+package ai.scoring.config;
+
+// How request bodies to the scorer are compressed
+public enum WireCompression {
+	NONE,
+	GZIP
+}
@@ -0,0 +1,7 @@
+package ai.scoring.config;
+
+// How interaction events are encoded on their way to the scorer
+public enum WireEncoding {
+	JSON,
+	CBOR
+}
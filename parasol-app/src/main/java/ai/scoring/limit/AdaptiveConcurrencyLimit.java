@@ -0,0 +1,106 @@
+package ai.scoring.limit;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// AIMD concurrency limit driven by latency, cut whenever a response is slower than the tolerated multiple of its traffic class's no-load latency
+// Part of the limit is held back for reserved callers, so they still get through when everything else is being shed
+public final class AdaptiveConcurrencyLimit {
+	// How quickly the no-load latency estimate drifts up towards slower responses, so a scorer that got slower for good is eventually the new normal
+	private static final double NO_LOAD_LATENCY_DRIFT = 0.01;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final double backoffRatio;
+	private final double latencyTolerance;
+	private final double reservedShare;
+	private double limit;
+	private final Map<TrafficClass, Double> noLoadLatencyNanos = new EnumMap<>(TrafficClass.class);
+	private int inFlight;
+
+	public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance, double reservedShare) {
+		if ((minLimit < 1) || (maxLimit < minLimit)) {
+			throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+		}
+
+		if ((backoffRatio <= 0) || (backoffRatio >= 1)) {
+			throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+		}
+
+		if (latencyTolerance < 1) {
+			throw new IllegalArgumentException("latencyTolerance must be at least 1");
+		}
+
+		if ((reservedShare < 0) || (reservedShare >= 1)) {
+			throw new IllegalArgumentException("reservedShare must be in [0, 1)");
+		}
+
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.backoffRatio = backoffRatio;
+		this.latencyTolerance = latencyTolerance;
+		this.reservedShare = reservedShare;
+		this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+	}
+
+	public synchronized boolean tryAcquire() {
+		if (this.inFlight < unreservedLimit()) {
+			this.inFlight++;
+			return true;
+		}
+
+		return false;
+	}
+
+	public synchronized boolean tryAcquireReserved() {
+		if (this.inFlight < (int) this.limit) {
+			this.inFlight++;
+			return true;
+		}
+
+		return false;
+	}
+
+	public synchronized void release(TrafficClass trafficClass, long latencyNanos, boolean overloaded) {
+		var wasLimited = this.inFlight >= (this.limit / 2);
+		this.inFlight--;
+
+		if (overloaded) {
+			backOff();
+			return;
+		}
+
+		var noLoadLatency = this.noLoadLatencyNanos.merge(trafficClass, (double) latencyNanos, (current, latency) ->
+			(latency < current) ? latency : current + ((latency - current) * NO_LOAD_LATENCY_DRIFT)
+		);
+
+		if (latencyNanos > (noLoadLatency * this.latencyTolerance)) {
+			backOff();
+		}
+		else if (wasLimited) {
+			// Only grow while the limit is actually in use, otherwise an idle publisher would drift up to the max
+			this.limit = Math.min(this.maxLimit, this.limit + (1 / this.limit));
+		}
+	}
+
+	// For a slot that was taken but never used, or whose caller gave up on it, so there's nothing to learn from it
+	public synchronized void releaseUnused() {
+		this.inFlight--;
+	}
+
+	public synchronized int limit() {
+		return (int) this.limit;
+	}
+
+	public synchronized int inFlight() {
+		return this.inFlight;
+	}
+
+	private int unreservedLimit() {
+		return Math.max(1, (int) (this.limit * (1 - this.reservedShare)));
+	}
+
+	private void backOff() {
+		this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+	}
+}
@@ -0,0 +1,16 @@
+package ai.scoring.limit;
+
+// Kinds of request whose latencies can't be compared with each other, so each is judged against its own no-load latency
+public enum TrafficClass {
+	// Only stored by the scorer
+	STARTED,
+
+	// Stored and scored, but answered before it's scored
+	COMPLETED,
+
+	// Answered with the scorer's verdict, so it takes as long as scoring does
+	RESCORE,
+
+	// Many events at once, shipped from the outbox
+	BATCH
+}
@@ -11,6 +11,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import ai.scoring.config.ScoringConfig;
+import ai.scoring.scorer.model.InteractionCoalescedEvent;
 import ai.scoring.scorer.model.InteractionCompletedEvent;
 import ai.scoring.scorer.model.InteractionEvent;
 import ai.scoring.scorer.model.InteractionEvent.InteractionModeEnum;
@@ -80,6 +81,22 @@ public class InteractionEventMapper {
 		return e;
 	}
 
+	public InteractionCoalescedEvent map(AiServiceStartedEvent startedEvent, AiServiceCompletedEvent completedEvent) {
+		var started = map(startedEvent);
+		var e = new InteractionCoalescedEvent();
+		e.setInteractionType("interaction");
+		e.setSystemMessage(started.getSystemMessage());
+		e.setUserMessage(started.getUserMessage());
+
+		completedEvent.result()
+			.map(this::toJson)
+			.ifPresent(e::setResult);
+
+		map(completedEvent.invocationContext(), e);
+
+		return e;
+	}
+
 	private void map(InvocationContext invocationContext, InteractionEvent interactionEvent) {
 		interactionEvent.setInteractionId(invocationContext.invocationId());
 		interactionEvent.setInteractionDate(invocationContext.timestamp());
@@ -0,0 +1,322 @@
+package ai.scoring.outbox;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32C;
+
+import io.quarkus.logging.Log;
+
+// Append-only journal of opaque records, kept in fixed size memory-mapped segment files
+//
+// Each record is [int length][int crc32c][payload] and is addressed by a logical offset: the segment's base offset plus its
+// position in the segment. A segment file is named after its base offset, and the next segment's base offset is where the
+// previous one ends. A length of 0 marks the end of what's been written, and -1 marks a segment that was rolled over.
+//
+// The length is written last, so a reader (or recovery after a crash) never sees a half written record.
+// Consumers checkpoint the offset they've processed up to, and whole segments below the checkpoint are deleted.
+public final class OutboxJournal implements Closeable {
+	static final int HEADER_SIZE = 2 * Integer.BYTES;
+	private static final int END_OF_SEGMENT = -1;
+	private static final String SEGMENT_SUFFIX = ".segment";
+	private static final String CHECKPOINT_FILE = "checkpoint";
+
+	private final Path directory;
+	private final int segmentSize;
+	private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+	private volatile Segment activeSegment;
+	private volatile long checkpoint;
+
+	private OutboxJournal(Path directory, int segmentSize) {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+	}
+
+	public static OutboxJournal open(Path directory, int segmentSize) throws IOException {
+		if (segmentSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException("segmentSize must be greater than %d bytes".formatted(HEADER_SIZE));
+		}
+
+		Files.createDirectories(directory);
+
+		var journal = new OutboxJournal(directory, segmentSize);
+		journal.recover();
+
+		return journal;
+	}
+
+	public synchronized long append(byte[] payload) {
+		var recordSize = HEADER_SIZE + payload.length;
+
+		if (recordSize > this.segmentSize) {
+			throw new IllegalArgumentException("Record of %d bytes doesn't fit in a %d byte segment".formatted(payload.length, this.segmentSize));
+		}
+
+		var segment = this.activeSegment;
+
+		if (segment.sealed || (segment.capacity() - segment.limit < recordSize)) {
+			segment = roll(segment);
+		}
+
+		var crc = new CRC32C();
+		crc.update(payload);
+
+		var position = segment.limit;
+		segment.buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+		segment.buffer.put(position + HEADER_SIZE, payload);
+		segment.buffer.putInt(position, payload.length);
+
+		// Publishes the record to readers
+		segment.limit = position + recordSize;
+
+		return segment.baseOffset + position;
+	}
+
+	public Batch read(long fromOffset, int maxRecords) {
+		var records = new ArrayList<byte[]>(Math.min(maxRecords, 1024));
+		var offset = Math.max(fromOffset, firstOffset());
+
+		while (records.size() < maxRecords) {
+			var entry = this.segments.floorEntry(offset);
+
+			if (entry == null) {
+				break;
+			}
+
+			var segment = entry.getValue();
+			var position = (int) (offset - segment.baseOffset);
+
+			if (position >= segment.limit) {
+				// Either caught up with the writer or at the end of a segment that was rolled over
+				var next = this.segments.higherKey(segment.baseOffset);
+
+				if (next == null) {
+					break;
+				}
+
+				offset = next;
+				continue;
+			}
+
+			var length = segment.buffer.getInt(position);
+			var payload = new byte[length];
+			segment.buffer.get(position + HEADER_SIZE, payload);
+			records.add(payload);
+			offset += HEADER_SIZE + length;
+		}
+
+		return new Batch(List.copyOf(records), offset);
+	}
+
+	public synchronized void checkpoint(long offset) throws IOException {
+		if (offset <= this.checkpoint) {
+			return;
+		}
+
+		var tmp = this.directory.resolve(CHECKPOINT_FILE + ".tmp");
+
+		try (var channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, offset));
+			channel.force(true);
+		}
+
+		Files.move(tmp, this.directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		this.checkpoint = offset;
+
+		for (var segment : List.copyOf(this.segments.values())) {
+			if ((segment != this.activeSegment) && (segment.baseOffset + segment.capacity() <= offset)) {
+				this.segments.remove(segment.baseOffset);
+				segment.delete();
+			}
+		}
+	}
+
+	public long checkpoint() {
+		return this.checkpoint;
+	}
+
+	// The offset the next record will be written at (or just past the end of the active segment if it's full)
+	public long writeOffset() {
+		var segment = this.activeSegment;
+		return segment.baseOffset + segment.limit;
+	}
+
+	public long backlog() {
+		return Math.max(0, writeOffset() - this.checkpoint);
+	}
+
+	// Flushes the mapped segments to disk, otherwise that's left to the OS page cache
+	public void force() {
+		this.segments.values().forEach(segment -> segment.buffer.force());
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		force();
+
+		for (var segment : this.segments.values()) {
+			segment.channel.close();
+		}
+	}
+
+	private long firstOffset() {
+		var first = this.segments.firstEntry();
+		return (first != null) ? first.getKey() : 0;
+	}
+
+	private Segment roll(Segment current) {
+		if (current.capacity() - current.limit >= Integer.BYTES) {
+			current.buffer.putInt(current.limit, END_OF_SEGMENT);
+		}
+
+		current.sealed = true;
+
+		try {
+			var next = Segment.create(segmentPath(current.baseOffset + current.capacity()), current.baseOffset + current.capacity(), this.segmentSize);
+			this.segments.put(next.baseOffset, next);
+			this.activeSegment = next;
+
+			return next;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void recover() throws IOException {
+		var checkpointFile = this.directory.resolve(CHECKPOINT_FILE);
+
+		if (Files.exists(checkpointFile)) {
+			this.checkpoint = ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).getLong();
+		}
+
+		List<Path> segmentFiles;
+
+		try (var files = Files.list(this.directory)) {
+			segmentFiles = files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+				.sorted()
+				.toList();
+		}
+
+		for (var path : segmentFiles) {
+			var segment = Segment.open(path);
+
+			// Left behind if we stopped between checkpointing and deleting
+			if ((segment.baseOffset + segment.capacity() <= this.checkpoint) && !path.equals(segmentFiles.getLast())) {
+				segment.delete();
+				continue;
+			}
+
+			segment.recover();
+			this.segments.put(segment.baseOffset, segment);
+		}
+
+		if (this.segments.isEmpty()) {
+			var segment = Segment.create(segmentPath(this.checkpoint), this.checkpoint, this.segmentSize);
+			this.segments.put(segment.baseOffset, segment);
+		}
+
+		this.activeSegment = this.segments.lastEntry().getValue();
+		Log.infof("Opened outbox journal in %s: %d segment(s), %d byte(s) pending", this.directory, this.segments.size(), backlog());
+	}
+
+	private Path segmentPath(long baseOffset) {
+		return this.directory.resolve("%020d%s".formatted(baseOffset, SEGMENT_SUFFIX));
+	}
+
+	public record Batch(List<byte[]> records, long nextOffset) {
+		public boolean isEmpty() {
+			return this.records.isEmpty();
+		}
+	}
+
+	private static final class Segment {
+		private final Path path;
+		private final long baseOffset;
+		private final FileChannel channel;
+		private final MappedByteBuffer buffer;
+
+		// Only ever written by the appending thread
+		private volatile int limit;
+		private volatile boolean sealed;
+
+		private Segment(Path path, long baseOffset, FileChannel channel, MappedByteBuffer buffer) {
+			this.path = path;
+			this.baseOffset = baseOffset;
+			this.channel = channel;
+			this.buffer = buffer;
+		}
+
+		static Segment create(Path path, long baseOffset, int size) throws IOException {
+			var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			return new Segment(path, baseOffset, channel, channel.map(MapMode.READ_WRITE, 0, size));
+		}
+
+		static Segment open(Path path) throws IOException {
+			var fileName = path.getFileName().toString();
+			var baseOffset = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+			var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+			return new Segment(path, baseOffset, channel, channel.map(MapMode.READ_WRITE, 0, channel.size()));
+		}
+
+		int capacity() {
+			return this.buffer.capacity();
+		}
+
+		void recover() {
+			var position = 0;
+
+			while (capacity() - position >= HEADER_SIZE) {
+				var length = this.buffer.getInt(position);
+
+				if (length == END_OF_SEGMENT) {
+					this.sealed = true;
+					break;
+				}
+
+				if ((length <= 0) || (length > capacity() - position - HEADER_SIZE) || !checksumMatches(position, length)) {
+					// Nothing more was written, or the rest is garbage from a crash mid-write
+					if (length != 0) {
+						Log.warnf("Discarding corrupt outbox journal data in %s from position %d", this.path, position);
+						this.sealed = true;
+					}
+
+					break;
+				}
+
+				position += HEADER_SIZE + length;
+			}
+
+			this.limit = position;
+		}
+
+		private boolean checksumMatches(int position, int length) {
+			var crc = new CRC32C();
+			crc.update(this.buffer.slice(position + HEADER_SIZE, length));
+
+			return (int) crc.getValue() == this.buffer.getInt(position + Integer.BYTES);
+		}
+
+		void delete() {
+			try {
+				this.channel.close();
+				Files.deleteIfExists(this.path);
+			}
+			catch (IOException e) {
+				Log.warnf(e, "Unable to delete outbox journal segment %s", this.path);
+			}
+		}
+	}
+}
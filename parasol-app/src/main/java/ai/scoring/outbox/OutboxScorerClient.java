@@ -0,0 +1,24 @@
+package ai.scoring.outbox;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+// The scorer's batch endpoint, taking the journaled events as they are (one JSON document per line)
+// rather than deserializing them just so the generated client can serialize them again
+@RegisterRestClient(configKey = "ai-interactions")
+@Path("/ai/interactions")
+public interface OutboxScorerClient {
+	String APPLICATION_NDJSON = "application/x-ndjson";
+
+	@POST
+	@Path("/batch")
+	@Consumes(APPLICATION_NDJSON)
+	@Produces(MediaType.APPLICATION_JSON)
+	Response submitInteractionEvents(byte[] events);
+}
@@ -0,0 +1,275 @@
+package ai.scoring.outbox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.Response.Status.Family;
+
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ai.scoring.InteractionPublisherExecutor;
+import ai.scoring.config.OverflowPolicy;
+import ai.scoring.config.ScoringConfig;
+import ai.scoring.config.ScoringConfig.OutboxConfig;
+import ai.scoring.limit.TrafficClass;
+import ai.scoring.prompt.PromptRegistry;
+import ai.scoring.scorer.model.InteractionEvent;
+import ai.scoring.scorer.model.InteractionEventResults;
+import ai.scoring.scorer.model.InteractionEventStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+// Events are appended to the local journal on the publishing thread, and a background thread ships them to the scorer in batches
+// The journal is only checkpointed once the scorer has accepted a batch, so delivery is at least once
+@ApplicationScoped
+public class OutboxShipper {
+	private static final byte NEWLINE = '\n';
+	// The events themselves are bad (or too big to take at once), so sending them again as they are won't help. 422 has no Status constant
+	private static final Set<Integer> PERMANENT_FAILURES = Set.of(Status.BAD_REQUEST.getStatusCode(), Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(), 422);
+
+	private final OutboxScorerClient scorerClient;
+	private final InteractionPublisherExecutor publisherExecutor;
+	private final PromptRegistry promptRegistry;
+	private final ObjectMapper objectMapper;
+	private final OutboxConfig config;
+	private final boolean spillTarget;
+	private final MeterRegistry meterRegistry;
+	private final Tracer tracer;
+	private final Semaphore eventsAppended = new Semaphore(0);
+	private volatile OutboxJournal journal;
+	private volatile boolean running;
+	private Thread shipperThread;
+
+	public OutboxShipper(@RestClient OutboxScorerClient scorerClient, InteractionPublisherExecutor publisherExecutor, PromptRegistry promptRegistry, ObjectMapper objectMapper, ScoringConfig scoringConfig, MeterRegistry meterRegistry, Tracer tracer) {
+		this.scorerClient = scorerClient;
+		this.publisherExecutor = publisherExecutor;
+		this.promptRegistry = promptRegistry;
+		this.objectMapper = objectMapper;
+		this.config = scoringConfig.outbox();
+		this.spillTarget = scoringConfig.publisher().overflowPolicy() == OverflowPolicy.SPILL;
+		this.meterRegistry = meterRegistry;
+		this.tracer = tracer;
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) throws IOException {
+		if (this.config.enabled() || this.spillTarget) {
+			this.journal = OutboxJournal.open(this.config.directory(), this.config.segmentSize().asBigInteger().intValueExact());
+
+			Gauge.builder("parasol.outbox.backlog", this.journal, OutboxJournal::backlog)
+				.description("Bytes of interaction events journaled but not yet accepted by the scorer")
+				.baseUnit("bytes")
+				.register(this.meterRegistry);
+
+			this.running = true;
+			this.shipperThread = Thread.ofVirtual()
+				.name("outbox-shipper")
+				.start(this::ship);
+		}
+	}
+
+	void onStop(@Observes ShutdownEvent shutdownEvent) throws IOException, InterruptedException {
+		if (this.journal != null) {
+			this.running = false;
+			this.eventsAppended.release();
+			this.shipperThread.interrupt();
+			this.shipperThread.join(Duration.ofSeconds(10));
+			this.journal.close();
+		}
+	}
+
+	// Also open when it's only a spill target, so it can take events that couldn't be sent directly
+	public boolean isOpen() {
+		return this.journal != null;
+	}
+
+	public static boolean isPermanentFailure(int status) {
+		return PERMANENT_FAILURES.contains(status);
+	}
+
+	public void append(InteractionEvent event) {
+		if (this.journal == null) {
+			throw new IllegalStateException("The outbox isn't enabled");
+		}
+
+		if (!this.promptRegistry.expand(event)) {
+			Log.warnf("No system message for hash in event for interaction %s, journaling it with just the hash", event.getInteractionId());
+		}
+
+		try {
+			this.journal.append(this.objectMapper.writeValueAsBytes(event));
+		}
+		catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if (this.eventsAppended.availablePermits() == 0) {
+			this.eventsAppended.release();
+		}
+	}
+
+	private void ship() {
+		var backoff = this.config.initialBackoff();
+		var lastSync = System.nanoTime();
+
+		while (this.running) {
+			try {
+				if (System.nanoTime() - lastSync >= this.config.syncInterval().toNanos()) {
+					this.journal.force();
+					lastSync = System.nanoTime();
+				}
+
+				var batch = this.journal.read(this.journal.checkpoint(), this.config.batchSize());
+
+				if (batch.isEmpty()) {
+					this.eventsAppended.tryAcquire(this.config.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+					this.eventsAppended.drainPermits();
+					continue;
+				}
+
+				if (send(batch.records())) {
+					this.journal.checkpoint(batch.nextOffset());
+					backoff = this.config.initialBackoff();
+				}
+				else {
+					Thread.sleep(backoff);
+					backoff = min(backoff.multipliedBy(2), this.config.maxBackoff());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			catch (Exception e) {
+				Log.errorf(e, "Error shipping interaction events from the outbox");
+			}
+		}
+	}
+
+	// True if the batch doesn't need sending again
+	private boolean send(List<byte[]> records) {
+		var span = this.tracer.spanBuilder("shipInteractionEventBatch")
+			.setSpanKind(SpanKind.CLIENT)
+			.setAttribute("batchSize", records.size())
+			.startSpan();
+
+		try (var scope = span.makeCurrent()) {
+			return isDone(records, post(records));
+		}
+		catch (Exception error) {
+			span.recordException(error);
+			Log.warnf(error, "Error shipping batch of %d interaction events, will retry", records.size());
+			return false;
+		}
+		finally {
+			span.end();
+		}
+	}
+
+	private Response post(List<byte[]> records) {
+		var body = new ByteArrayOutputStream(records.stream().mapToInt(record -> record.length + 1).sum());
+		records.forEach(record -> {
+			body.writeBytes(record);
+			body.write(NEWLINE);
+		});
+
+		try {
+			return this.publisherExecutor.executeWaiting(TrafficClass.BATCH, () -> {
+				try {
+					return this.scorerClient.submitInteractionEvents(body.toByteArray());
+				}
+				catch (WebApplicationException error) {
+					// Error responses are thrown by the rest client
+					return error.getResponse();
+				}
+			});
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return Response.status(Status.SERVICE_UNAVAILABLE).build();
+		}
+	}
+
+	private boolean isDone(List<byte[]> records, Response response) {
+		if (response.getStatusInfo().getFamily() == Family.SUCCESSFUL) {
+			Log.debugf("Shipped batch of %d interaction events", records.size());
+			return sendWithSystemMessages(records, response);
+		}
+
+		if (!isPermanentFailure(response.getStatus())) {
+			Log.warnf("Error shipping batch of %d interaction events, will retry: HTTP %d", records.size(), response.getStatus());
+			return false;
+		}
+
+		if (records.size() > 1) {
+			// If any of them needs retrying the whole batch is sent again, and the scorer acknowledges the ones it already has
+			Log.warnf("Scorer rejected batch of %d interaction events: HTTP %d, sending them one at a time", records.size(), response.getStatus());
+			return records.stream()
+				.map(List::of)
+				.allMatch(record -> isDone(record, post(record)));
+		}
+
+		Log.errorf("Scorer rejected interaction event, skipping it: HTTP %d\n%s", response.getStatus(), new String(records.getFirst(), StandardCharsets.UTF_8));
+		return true;
+	}
+
+	// The rest of the batch has been taken, so just these are sent again, with the message put back
+	private boolean sendWithSystemMessages(List<byte[]> records, Response response) {
+		if (!response.hasEntity()) {
+			return true;
+		}
+
+		var results = response.readEntity(InteractionEventResults.class).getResults();
+		var expanded = new ArrayList<byte[]>();
+
+		for (int i = 0; i < Math.min(records.size(), results.size()); i++) {
+			if (results.get(i).getStatus() == InteractionEventStatus.UNKNOWN_PROMPT) {
+				try {
+					var event = this.objectMapper.readValue(records.get(i), InteractionEvent.class);
+
+					if (this.promptRegistry.expand(event)) {
+						expanded.add(this.objectMapper.writeValueAsBytes(event));
+					}
+					else {
+						Log.errorf("Neither the scorer nor the app has the system message for interaction %s, skipping it", event.getInteractionId());
+					}
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+
+		if (expanded.isEmpty()) {
+			return true;
+		}
+
+		Log.warnf("Scorer didn't have the system message for %d interaction events, sending them again with it", expanded.size());
+		return isDone(expanded, post(expanded));
+	}
+
+	private static Duration min(Duration first, Duration second) {
+		return (first.compareTo(second) <= 0) ? first : second;
+	}
+}
@@ -0,0 +1,160 @@
+package ai.scoring.prompt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status.Family;
+
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import ai.scoring.ReactiveAiInteractionsApi;
+import ai.scoring.config.ScoringConfig;
+import ai.scoring.scorer.model.InteractionCoalescedEvent;
+import ai.scoring.scorer.model.InteractionEvent;
+import ai.scoring.scorer.model.InteractionStartedEvent;
+import ai.scoring.scorer.model.Prompt;
+
+import io.quarkus.logging.Log;
+
+// Each system message is stored with the scorer once, and events then carry just its hash
+// A message is only ever left out of an event if it's remembered here, so it can be put back if the scorer turns out not to have it
+@ApplicationScoped
+public class PromptRegistry {
+	// Far more than the handful of prompts an app has. Beyond it, messages are sent whole rather than remembered
+	static final int MAX_PROMPTS = 1_000;
+
+	private final ReactiveAiInteractionsApi aiInteractionApi;
+	private final boolean deduplicate;
+	private final Map<String, String> prompts = new ConcurrentHashMap<>();
+	private final Set<String> acknowledged = ConcurrentHashMap.newKeySet();
+	private final Set<String> registering = ConcurrentHashMap.newKeySet();
+
+	public PromptRegistry(@RestClient ReactiveAiInteractionsApi aiInteractionApi, ScoringConfig scoringConfig) {
+		this.aiInteractionApi = aiInteractionApi;
+		this.deduplicate = scoringConfig.prompts().deduplicate();
+	}
+
+	public void compact(InteractionEvent event) {
+		if (this.deduplicate) {
+			switch (event) {
+				case InteractionStartedEvent startedEvent when hasSystemMessage(startedEvent.getSystemMessage()) -> {
+					var hash = hash(startedEvent.getSystemMessage());
+					startedEvent.setSystemMessageHash(hash);
+
+					if (remember(hash, startedEvent.getSystemMessage()) && isAcknowledged(hash, startedEvent.getSystemMessage())) {
+						startedEvent.setSystemMessage(null);
+					}
+				}
+				case InteractionCoalescedEvent coalescedEvent when hasSystemMessage(coalescedEvent.getSystemMessage()) -> {
+					var hash = hash(coalescedEvent.getSystemMessage());
+					coalescedEvent.setSystemMessageHash(hash);
+
+					if (remember(hash, coalescedEvent.getSystemMessage()) && isAcknowledged(hash, coalescedEvent.getSystemMessage())) {
+						coalescedEvent.setSystemMessage(null);
+					}
+				}
+				default -> {}
+			}
+		}
+	}
+
+	// False if it's a hash we don't have the message for
+	public boolean expand(InteractionEvent event) {
+		return switch (event) {
+			case InteractionStartedEvent startedEvent when isCompacted(startedEvent.getSystemMessage(), startedEvent.getSystemMessageHash()) ->
+				findPrompt(startedEvent.getSystemMessageHash())
+					.map(systemMessage -> {
+						startedEvent.setSystemMessage(systemMessage);
+						return true;
+					})
+					.orElse(false);
+			case InteractionCoalescedEvent coalescedEvent when isCompacted(coalescedEvent.getSystemMessage(), coalescedEvent.getSystemMessageHash()) ->
+				findPrompt(coalescedEvent.getSystemMessageHash())
+					.map(systemMessage -> {
+						coalescedEvent.setSystemMessage(systemMessage);
+						return true;
+					})
+					.orElse(false);
+			default -> true;
+		};
+	}
+
+	// The scorer has lost a prompt (it answers an event with just the hash as an unknown prompt), and most likely all of them, so send them all again
+	public void forgetAll() {
+		if (this.deduplicate && !this.acknowledged.isEmpty()) {
+			Log.warn("Scorer doesn't have a system message it acknowledged, sending whole system messages until it has stored them again");
+			this.acknowledged.clear();
+		}
+	}
+
+	private Optional<String> findPrompt(String hash) {
+		return Optional.ofNullable(this.prompts.get(hash));
+	}
+
+	private boolean remember(String hash, String systemMessage) {
+		if ((this.prompts.size() >= MAX_PROMPTS) && !this.prompts.containsKey(hash)) {
+			return false;
+		}
+
+		this.prompts.putIfAbsent(hash, systemMessage);
+		return true;
+	}
+
+	private boolean isAcknowledged(String hash, String systemMessage) {
+		if (this.acknowledged.contains(hash)) {
+			return true;
+		}
+
+		if (this.registering.add(hash)) {
+			var prompt = new Prompt();
+			prompt.setContent(systemMessage);
+
+			this.aiInteractionApi.storePrompt(hash, prompt)
+				.onFailure(WebApplicationException.class).recoverWithItem(error -> ((WebApplicationException) error).getResponse())
+				.onTermination().invoke(() -> this.registering.remove(hash))
+				.subscribe().with(
+					response -> stored(hash, response),
+					error -> Log.warnf(error, "Error storing system message %s with the scorer", hash)
+				);
+		}
+
+		return false;
+	}
+
+	private void stored(String hash, Response response) {
+		if (response.getStatusInfo().getFamily() == Family.SUCCESSFUL) {
+			Log.debugf("Scorer stored system message %s", hash);
+			this.acknowledged.add(hash);
+		}
+		else {
+			Log.warnf("Error storing system message %s with the scorer: HTTP %d", hash, response.getStatus());
+		}
+	}
+
+	private static boolean hasSystemMessage(String systemMessage) {
+		return (systemMessage != null) && !systemMessage.isEmpty();
+	}
+
+	private static boolean isCompacted(String systemMessage, String systemMessageHash) {
+		return (systemMessage == null) && (systemMessageHash != null);
+	}
+
+	// Same hex encoded SHA-256 the scorer computes
+	static String hash(String systemMessage) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(systemMessage.getBytes(StandardCharsets.UTF_8)));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is always available", e);
+		}
+	}
+}
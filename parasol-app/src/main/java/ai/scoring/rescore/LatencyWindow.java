@@ -0,0 +1,50 @@
+package ai.scoring.rescore;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+// The most recent latencies, for estimating percentiles of how long the scorer takes
+public final class LatencyWindow {
+	private final long[] latencies;
+	private final int minSamples;
+	private int next;
+	private int size;
+
+	public LatencyWindow(int capacity, int minSamples) {
+		if ((capacity < 1) || (minSamples < 1) || (minSamples > capacity)) {
+			throw new IllegalArgumentException("Must have 1 <= minSamples <= capacity");
+		}
+
+		this.latencies = new long[capacity];
+		this.minSamples = minSamples;
+	}
+
+	public synchronized void record(Duration latency) {
+		this.latencies[this.next] = latency.toNanos();
+		this.next = (this.next + 1) % this.latencies.length;
+		this.size = Math.min(this.size + 1, this.latencies.length);
+	}
+
+	// Empty until there are enough samples to go on
+	public Optional<Duration> percentile(double percentile) {
+		if ((percentile <= 0) || (percentile > 100)) {
+			throw new IllegalArgumentException("percentile must be in (0, 100]");
+		}
+
+		long[] sorted;
+
+		synchronized (this) {
+			if (this.size < this.minSamples) {
+				return Optional.empty();
+			}
+
+			sorted = Arrays.copyOf(this.latencies, this.size);
+		}
+
+		Arrays.sort(sorted);
+		var index = (int) Math.ceil((percentile / 100) * sorted.length) - 1;
+
+		return Optional.of(Duration.ofNanos(sorted[Math.max(0, index)]));
+	}
+}
@@ -0,0 +1,101 @@
+package ai.scoring.rescore;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status.Family;
+
+import ai.scoring.config.ScoringConfig;
+import ai.scoring.config.ScoringConfig.HedgeConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.logging.Log;
+
+import io.smallrye.mutiny.Uni;
+
+// Sends a second, identical rescore request when the first one is taking longer than most do, then goes with whichever answers first.
+// The scorer handles a completed event once per interaction, holding the interaction's lock while it scores, and answers a repeat
+// with the same verdict once it has the lock. So a hedge can only answer first when the first request never got as far as the
+// scorer (e.g. a stalled connection or a lost request); otherwise it just waits for the first to finish. parasol.rescore.hedge.answered
+// shows how often that happens, which is why hedging is off unless that's worth the extra requests
+@ApplicationScoped
+public class RescoreHedger {
+	private final HedgeConfig config;
+	private final LatencyWindow latencies;
+	private final Counter hedgeCounter;
+	private final Counter firstAnsweredCounter;
+	private final Counter hedgeAnsweredCounter;
+
+	public RescoreHedger(ScoringConfig scoringConfig, MeterRegistry meterRegistry) {
+		this.config = scoringConfig.rescore().hedge();
+		this.latencies = new LatencyWindow(this.config.window(), this.config.minSamples());
+		this.hedgeCounter = Counter.builder("parasol.rescore.hedged")
+			.description("Rescore requests sent a second time because the first was slower than the hedge percentile")
+			.register(meterRegistry);
+		this.firstAnsweredCounter = answeredCounter(meterRegistry, "first");
+		this.hedgeAnsweredCounter = answeredCounter(meterRegistry, "hedge");
+	}
+
+	public Uni<Response> send(Supplier<Uni<Response>> send) {
+		if (!this.config.enabled()) {
+			return send.get();
+		}
+
+		var hedgeDelay = this.latencies.percentile(this.config.percentile())
+			.map(latency -> max(latency, this.config.minDelay()));
+
+		if (hedgeDelay.isEmpty()) {
+			// Not enough history yet to know what slow looks like
+			return timed(send);
+		}
+
+		var hedged = new AtomicBoolean();
+		var first = timed(send)
+			.invoke(() -> {
+				if (hedged.get()) {
+					this.firstAnsweredCounter.increment();
+				}
+			});
+
+		var hedge = Uni.createFrom().voidItem()
+			.onItem().delayIt().by(hedgeDelay.get())
+			.invoke(() -> {
+				Log.debugf("No rescore answer within %s, sending it again", hedgeDelay.get());
+				hedged.set(true);
+				this.hedgeCounter.increment();
+			})
+			.chain(() -> timed(send))
+			.invoke(() -> this.hedgeAnsweredCounter.increment());
+
+		// The loser is cancelled, which also stops the hedge from being sent if the first request answers in time
+		return Uni.join().first(first, hedge).withItem();
+	}
+
+	private Uni<Response> timed(Supplier<Uni<Response>> send) {
+		return Uni.createFrom().deferred(() -> {
+			var start = System.nanoTime();
+
+			return send.get()
+				.invoke(response -> {
+					if (response.getStatusInfo().getFamily() == Family.SUCCESSFUL) {
+						this.latencies.record(Duration.ofNanos(System.nanoTime() - start));
+					}
+				});
+		});
+	}
+
+	private static Counter answeredCounter(MeterRegistry meterRegistry, String answered) {
+		return Counter.builder("parasol.rescore.hedge.answered")
+			.description("Hedged rescores, by which of the two requests answered first")
+			.tag("answered", answered)
+			.register(meterRegistry);
+	}
+
+	private static Duration max(Duration first, Duration second) {
+		return (first.compareTo(second) >= 0) ? first : second;
+	}
+}
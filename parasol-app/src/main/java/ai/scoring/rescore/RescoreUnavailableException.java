@@ -0,0 +1,17 @@
+package ai.scoring.rescore;
+
+import java.time.Duration;
+import java.util.UUID;
+
+public class RescoreUnavailableException extends RuntimeException {
+	private final UUID interactionId;
+
+	public RescoreUnavailableException(UUID interactionId, Duration deadline, Throwable cause) {
+		super("[Rescoring interaction '%s']: No score within %s".formatted(interactionId, deadline), cause);
+		this.interactionId = interactionId;
+	}
+
+	public UUID getInteractionId() {
+		return interactionId;
+	}
+}
@@ -0,0 +1,48 @@
+package ai.scoring.wire;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import ai.scoring.scorer.model.InteractionEvent;
+
+// Writes a single InteractionEvent or a batch of them as CBOR rather than JSON
+@Provider
+@Produces(WireFormatFilter.APPLICATION_CBOR)
+public class CborInteractionEventWriter implements MessageBodyWriter<Object> {
+	private final ObjectMapper cborMapper;
+
+	public CborInteractionEventWriter(ObjectMapper objectMapper) {
+		// Same modules and settings as the JSON mapper, so both encodings map the same way
+		this.cborMapper = objectMapper.copyWith(new CBORFactory());
+	}
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return InteractionEvent.class.isAssignableFrom(type) ||
+			(List.class.isAssignableFrom(type) &&
+				(genericType instanceof ParameterizedType parameterizedType) &&
+				(parameterizedType.getActualTypeArguments()[0] == InteractionEvent.class));
+	}
+
+	@Override
+	public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+		// Leave the stream open for whatever wraps it (i.e. compression)
+		this.cborMapper.writerFor(this.cborMapper.constructType(genericType))
+			.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+			.writeValue(entityStream, value);
+	}
+}
@@ -0,0 +1,74 @@
+package ai.scoring.wire;
+
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import ai.scoring.config.ScoringConfig;
+import ai.scoring.config.ScoringConfig.WireConfig;
+import ai.scoring.config.WireCompression;
+import ai.scoring.config.WireEncoding;
+
+import io.smallrye.config.SmallRyeConfig;
+
+// Applies quarkus.aiscoring.wire to requests to the scorer
+// Registered on the ai-interactions rest client through its providers config rather than globally,
+// so it leaves the app's other rest clients (i.e. the model providers) alone
+public class WireFormatFilter implements ClientRequestFilter, WriterInterceptor {
+	public static final String APPLICATION_CBOR = "application/cbor";
+	public static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+	private static final String GZIP = "gzip";
+
+	private final WireConfig config;
+
+	public WireFormatFilter() {
+		this(ConfigProvider.getConfig().unwrap(SmallRyeConfig.class).getConfigMapping(ScoringConfig.class).wire());
+	}
+
+	WireFormatFilter(WireConfig config) {
+		this.config = config;
+	}
+
+	@Override
+	public void filter(ClientRequestContext requestContext) {
+		if (!requestContext.hasEntity()) {
+			return;
+		}
+
+		if ((this.config.encoding() == WireEncoding.CBOR) && MediaType.APPLICATION_JSON_TYPE.isCompatible(requestContext.getMediaType())) {
+			// Picks CborInteractionEventWriter rather than the JSON one
+			requestContext.setEntity(requestContext.getEntity(), requestContext.getEntityAnnotations(), APPLICATION_CBOR_TYPE);
+		}
+
+		if (this.config.compression() == WireCompression.GZIP) {
+			requestContext.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+		}
+	}
+
+	@Override
+	public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+		if (!GZIP.equals(context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+			context.proceed();
+			return;
+		}
+
+		var gzip = new GZIPOutputStream(context.getOutputStream());
+		context.setOutputStream(gzip);
+
+		try {
+			context.proceed();
+		}
+		finally {
+			// Writes the trailer without closing the underlying stream
+			gzip.finish();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package ai.scoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.WebApplicationException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.config.ScoringConfig;
+import ai.scoring.outbox.OutboxShipper;
+import ai.scoring.prompt.PromptRegistry;
+import ai.scoring.scorer.model.InteractionEvent;
+import ai.scoring.scorer.model.InteractionStartedEvent;
+import io.opentelemetry.api.OpenTelemetry;
+
+import io.smallrye.mutiny.Uni;
+
+class InteractionEventBatcherTests {
+	private static final int MAX_RETRIES = 2;
+
+	private final AtomicInteger attempts = new AtomicInteger();
+	private ReactiveAiInteractionsApi aiInteractionApi;
+	private OutboxShipper outboxShipper;
+	private InteractionEventBatcher batcher;
+
+	@BeforeEach
+	void setUp() {
+		this.aiInteractionApi = mock(ReactiveAiInteractionsApi.class);
+		this.outboxShipper = mock(OutboxShipper.class);
+		var scoringConfig = mock(ScoringConfig.class, RETURNS_DEEP_STUBS);
+
+		when(scoringConfig.batch().maxSize()).thenReturn(10);
+		when(scoringConfig.batch().maxRetries()).thenReturn(MAX_RETRIES);
+		when(scoringConfig.batch().retryBackoff()).thenReturn(Duration.ofMillis(1));
+		when(this.outboxShipper.isOpen()).thenReturn(true);
+
+		this.batcher = new InteractionEventBatcher(this.aiInteractionApi, this.outboxShipper, mock(PromptRegistry.class), scoringConfig, OpenTelemetry.noop().getTracer("tests"));
+	}
+
+	@Test
+	void handsFailedBatchToOutboxAfterRetrying() {
+		failWith(503);
+
+		this.batcher.add(startedEvent());
+		this.batcher.add(startedEvent());
+		this.batcher.onStop(null);
+
+		assertThat(this.attempts).hasValue(MAX_RETRIES + 1);
+		verify(this.outboxShipper, times(2)).append(any(InteractionEvent.class));
+	}
+
+	@Test
+	void doesNotRetryRejectedBatch() {
+		failWith(400);
+
+		this.batcher.add(startedEvent());
+		this.batcher.onStop(null);
+
+		// The outbox sends it again one event at a time, to find out which ones the scorer won't take
+		assertThat(this.attempts).hasValue(1);
+		verify(this.outboxShipper).append(any(InteractionEvent.class));
+	}
+
+	private void failWith(int status) {
+		when(this.aiInteractionApi.submitInteractionEvents(anyList()))
+			.thenReturn(Uni.createFrom().failure(() -> {
+				this.attempts.incrementAndGet();
+				return new WebApplicationException(status);
+			}));
+	}
+
+	private static InteractionEvent startedEvent() {
+		var event = new InteractionStartedEvent();
+		event.setInteractionId(UUID.randomUUID());
+		event.setUserMessage("Summarize claim CLM195501");
+
+		return event;
+	}
+}
@@ -0,0 +1,91 @@
+package ai.scoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.core.Response;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.config.OverflowPolicy;
+import ai.scoring.config.ScoringConfig;
+import ai.scoring.limit.TrafficClass;
+import ai.scoring.outbox.OutboxShipper;
+import ai.scoring.scorer.model.InteractionCompletedEvent;
+import ai.scoring.scorer.model.InteractionEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import io.smallrye.mutiny.Uni;
+
+class InteractionPublisherExecutorTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private InteractionPublisherExecutor executor;
+
+	@BeforeEach
+	void setUp() {
+		var scoringConfig = mock(ScoringConfig.class, RETURNS_DEEP_STUBS);
+
+		// One send at a time, and one waiting behind it
+		when(scoringConfig.publisher().initialInFlight()).thenReturn(1);
+		when(scoringConfig.publisher().minInFlight()).thenReturn(1);
+		when(scoringConfig.publisher().maxInFlight()).thenReturn(1);
+		when(scoringConfig.publisher().backoffRatio()).thenReturn(0.9);
+		when(scoringConfig.publisher().latencyTolerance()).thenReturn(2.0);
+		when(scoringConfig.publisher().rescoreReservedShare()).thenReturn(0.0);
+		when(scoringConfig.publisher().queueSize()).thenReturn(1);
+		when(scoringConfig.publisher().overflowPolicy()).thenReturn(OverflowPolicy.BLOCK);
+		when(scoringConfig.publisher().blockTimeout()).thenReturn(Duration.ofMillis(10));
+
+		this.executor = new InteractionPublisherExecutor(scoringConfig, mock(OutboxShipper.class), this.meterRegistry);
+	}
+
+	@Test
+	void waitingSenderSharesTheLimit() throws Exception {
+		var first = new CompletableFuture<Response>();
+		this.executor.execute(completedEvent(), () -> Uni.createFrom().completionStage(first));
+
+		var shipped = CompletableFuture.supplyAsync(() -> {
+			try {
+				return this.executor.executeWaiting(TrafficClass.BATCH, () -> Response.ok().build());
+			}
+			catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		// Not until the send ahead of it is done
+		Thread.sleep(100);
+		assertThat(shipped).isNotDone();
+
+		first.complete(Response.ok().build());
+		assertThat(shipped.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void blockOnlyHoldsThePublisherUpForBlockTimeout() {
+		var neverDone = new CompletableFuture<Response>();
+
+		// One in flight, one queued, and no room for the last
+		for (int i = 0; i < 3; i++) {
+			this.executor.execute(completedEvent(), () -> Uni.createFrom().completionStage(neverDone));
+		}
+
+		assertThat(this.meterRegistry.find("parasol.publisher.overflow").tag("result", "dropped").counter().count()).isOne();
+	}
+
+	private static InteractionEvent completedEvent() {
+		var event = new InteractionCompletedEvent();
+		event.setInteractionId(UUID.randomUUID());
+		event.setResult("Hi!");
+
+		return event;
+	}
+}
@@ -0,0 +1,136 @@
+package ai.scoring.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTests {
+	private static final long FAST = Duration.ofMillis(10).toNanos();
+	private static final long SLOW = Duration.ofMillis(100).toNanos();
+
+	@Test
+	void growsWhileInUseAndFast() {
+		var limit = new AdaptiveConcurrencyLimit(4, 1, 16, 0.9, 2.0, 0);
+
+		for (int i = 0; i < 100; i++) {
+			fillAndRelease(limit, FAST);
+		}
+
+		assertThat(limit.limit()).isEqualTo(16);
+		assertThat(limit.inFlight()).isZero();
+	}
+
+	@Test
+	void doesNotGrowWhenIdle() {
+		var limit = new AdaptiveConcurrencyLimit(8, 1, 16, 0.9, 2.0, 0);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(TrafficClass.COMPLETED, FAST, false);
+		}
+
+		assertThat(limit.limit()).isEqualTo(8);
+	}
+
+	@Test
+	void backsOffWhenLatencyClimbs() {
+		var limit = new AdaptiveConcurrencyLimit(16, 1, 16, 0.9, 2.0, 0);
+
+		assertThat(limit.tryAcquire()).isTrue();
+		limit.release(TrafficClass.COMPLETED, FAST, false);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(TrafficClass.COMPLETED, SLOW, false);
+		}
+
+		assertThat(limit.limit()).isLessThan(8);
+	}
+
+	@Test
+	void backsOffWhenOverloadedButNotBelowMin() {
+		var limit = new AdaptiveConcurrencyLimit(16, 2, 16, 0.5, 2.0, 0);
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+			limit.release(TrafficClass.COMPLETED, FAST, true);
+		}
+
+		assertThat(limit.limit()).isEqualTo(2);
+	}
+
+	@Test
+	void holdsBackReservedShare() {
+		var limit = new AdaptiveConcurrencyLimit(8, 1, 8, 0.9, 2.0, 0.25);
+
+		for (int i = 0; i < 6; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+		}
+
+		assertThat(limit.tryAcquire()).isFalse();
+
+		assertThat(limit.tryAcquireReserved()).isTrue();
+		assertThat(limit.tryAcquireReserved()).isTrue();
+
+		// Reserved callers don't go over the limit either
+		assertThat(limit.tryAcquireReserved()).isFalse();
+		assertThat(limit.inFlight()).isEqualTo(8);
+		assertThat(limit.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void judgesEachTrafficClassByItsOwnLatency() {
+		var limit = new AdaptiveConcurrencyLimit(16, 1, 16, 0.9, 2.0, 0);
+
+		assertThat(limit.tryAcquire()).isTrue();
+		limit.release(TrafficClass.STARTED, FAST, false);
+
+		// Rescores wait for scoring, so they're always slower than started events, which isn't the scorer being overloaded
+		for (int i = 0; i < 10; i++) {
+			assertThat(limit.tryAcquireReserved()).isTrue();
+			limit.release(TrafficClass.RESCORE, SLOW, false);
+		}
+
+		assertThat(limit.limit()).isEqualTo(16);
+
+		assertThat(limit.tryAcquire()).isTrue();
+		limit.release(TrafficClass.STARTED, SLOW, false);
+
+		assertThat(limit.limit()).isLessThan(16);
+	}
+
+	@Test
+	void releasingUnusedSlotLeavesLimitAlone() {
+		var limit = new AdaptiveConcurrencyLimit(8, 1, 16, 0.9, 2.0, 0);
+
+		assertThat(limit.tryAcquire()).isTrue();
+		limit.releaseUnused();
+
+		assertThat(limit.limit()).isEqualTo(8);
+		assertThat(limit.inFlight()).isZero();
+	}
+
+	@Test
+	void rejectsInvalidSettings() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimit(4, 0, 16, 0.9, 2.0, 0));
+		assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimit(4, 8, 4, 0.9, 2.0, 0));
+		assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimit(4, 1, 16, 1, 2.0, 0));
+		assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimit(4, 1, 16, 0.9, 0.5, 0));
+		assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimit(4, 1, 16, 0.9, 2.0, 1));
+	}
+
+	private static void fillAndRelease(AdaptiveConcurrencyLimit limit, long latencyNanos) {
+		var acquired = 0;
+
+		while (limit.tryAcquire()) {
+			acquired++;
+		}
+
+		for (int i = 0; i < acquired; i++) {
+			limit.release(TrafficClass.COMPLETED, latencyNanos, false);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package ai.scoring.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OutboxJournalTests {
+	private static final int SEGMENT_SIZE = 64;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsBackWhatWasAppended() throws IOException {
+		try (var journal = OutboxJournal.open(this.directory, 1024)) {
+			assertThat(journal.append(bytes("one"))).isZero();
+			assertThat(journal.append(bytes("two"))).isEqualTo(OutboxJournal.HEADER_SIZE + 3);
+
+			var batch = journal.read(0, 10);
+
+			assertThat(batch.records())
+				.extracting(OutboxJournalTests::string)
+				.containsExactly("one", "two");
+
+			assertThat(batch.nextOffset()).isEqualTo(journal.writeOffset());
+			assertThat(journal.read(batch.nextOffset(), 10).isEmpty()).isTrue();
+		}
+	}
+
+	@Test
+	void readsAcrossSegments() throws IOException {
+		try (var journal = OutboxJournal.open(this.directory, SEGMENT_SIZE)) {
+			// 8 byte header + 12 byte payload, so 3 records per segment
+			IntStream.range(0, 10).forEach(i -> journal.append(bytes("record-%05d".formatted(i))));
+
+			assertThat(segmentFiles()).hasSize(4);
+
+			var firstBatch = journal.read(0, 4);
+			var secondBatch = journal.read(firstBatch.nextOffset(), 100);
+
+			assertThat(firstBatch.records())
+				.extracting(OutboxJournalTests::string)
+				.containsExactly("record-00000", "record-00001", "record-00002", "record-00003");
+
+			assertThat(secondBatch.records()).hasSize(6);
+			assertThat(string(secondBatch.records().getLast())).isEqualTo("record-00009");
+		}
+	}
+
+	@Test
+	void checkpointDeletesProcessedSegments() throws IOException {
+		try (var journal = OutboxJournal.open(this.directory, SEGMENT_SIZE)) {
+			IntStream.range(0, 10).forEach(i -> journal.append(bytes("record-%05d".formatted(i))));
+
+			journal.checkpoint(journal.read(0, 7).nextOffset());
+
+			assertThat(segmentFiles()).hasSize(2);
+			assertThat(journal.read(journal.checkpoint(), 100).records())
+				.extracting(OutboxJournalTests::string)
+				.containsExactly("record-00007", "record-00008", "record-00009");
+		}
+	}
+
+	@Test
+	void recoversAfterRestart() throws IOException {
+		long checkpoint;
+
+		try (var journal = OutboxJournal.open(this.directory, SEGMENT_SIZE)) {
+			IntStream.range(0, 5).forEach(i -> journal.append(bytes("record-%05d".formatted(i))));
+			checkpoint = journal.read(0, 2).nextOffset();
+			journal.checkpoint(checkpoint);
+		}
+
+		try (var journal = OutboxJournal.open(this.directory, SEGMENT_SIZE)) {
+			assertThat(journal.checkpoint()).isEqualTo(checkpoint);
+
+			journal.append(bytes("record-00005"));
+
+			assertThat(journal.read(journal.checkpoint(), 100).records())
+				.extracting(OutboxJournalTests::string)
+				.containsExactly("record-00002", "record-00003", "record-00004", "record-00005");
+		}
+	}
+
+	@Test
+	void discardsCorruptRecordOnRecovery() throws IOException {
+		try (var journal = OutboxJournal.open(this.directory, 1024)) {
+			journal.append(bytes("good"));
+			journal.append(bytes("torn"));
+		}
+
+		// Flip a payload byte of the second record
+		var segment = segmentFiles()[0];
+		var contents = Files.readAllBytes(segment);
+		contents[2 * OutboxJournal.HEADER_SIZE + 4] ^= 1;
+		Files.write(segment, contents);
+
+		try (var journal = OutboxJournal.open(this.directory, 1024)) {
+			journal.append(bytes("after"));
+
+			assertThat(journal.read(0, 100).records())
+				.extracting(OutboxJournalTests::string)
+				.containsExactly("good", "after");
+		}
+	}
+
+	@Test
+	void rejectsRecordsLargerThanASegment() throws IOException {
+		try (var journal = OutboxJournal.open(this.directory, SEGMENT_SIZE)) {
+			assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> journal.append(new byte[SEGMENT_SIZE]))
+				.withMessage("Record of 64 bytes doesn't fit in a 64 byte segment");
+		}
+	}
+
+	private Path[] segmentFiles() throws IOException {
+		try (var files = Files.list(this.directory)) {
+			return files.filter(path -> path.getFileName().toString().endsWith(".segment"))
+				.sorted()
+				.toArray(Path[]::new);
+		}
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String string(byte[] value) {
+		return new String(value, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,95 @@
+package ai.scoring.prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import jakarta.ws.rs.core.Response;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ai.scoring.ReactiveAiInteractionsApi;
+import ai.scoring.config.ScoringConfig;
+import ai.scoring.scorer.model.InteractionStartedEvent;
+import ai.scoring.scorer.model.Prompt;
+
+import io.smallrye.mutiny.Uni;
+
+class PromptRegistryTests {
+	private static final String SYSTEM_MESSAGE = "You are a helpful insurance claims assistant";
+
+	private PromptRegistry promptRegistry;
+
+	@BeforeEach
+	void setUp() {
+		var aiInteractionApi = mock(ReactiveAiInteractionsApi.class);
+		var scoringConfig = mock(ScoringConfig.class, RETURNS_DEEP_STUBS);
+
+		// Acknowledged as soon as it's registered
+		when(aiInteractionApi.storePrompt(anyString(), any(Prompt.class)))
+			.thenAnswer(invocation -> Uni.createFrom().item(Response.noContent().build()));
+
+		when(scoringConfig.prompts().deduplicate())
+			.thenReturn(true);
+
+		this.promptRegistry = new PromptRegistry(aiInteractionApi, scoringConfig);
+	}
+
+	@Test
+	void sendsWholeMessageUntilAcknowledged() {
+		var first = startedEvent(SYSTEM_MESSAGE);
+		this.promptRegistry.compact(first);
+
+		assertThat(first.getSystemMessage()).isEqualTo(SYSTEM_MESSAGE);
+		assertThat(first.getSystemMessageHash()).isEqualTo(PromptRegistry.hash(SYSTEM_MESSAGE));
+
+		var second = startedEvent(SYSTEM_MESSAGE);
+		this.promptRegistry.compact(second);
+
+		assertThat(second.getSystemMessage()).isNull();
+		assertThat(second.getSystemMessageHash()).isEqualTo(PromptRegistry.hash(SYSTEM_MESSAGE));
+	}
+
+	@Test
+	void expandsEventsAfterScorerLostPrompts() {
+		this.promptRegistry.compact(startedEvent(SYSTEM_MESSAGE));
+
+		var compacted = startedEvent(SYSTEM_MESSAGE);
+		this.promptRegistry.compact(compacted);
+		assertThat(compacted.getSystemMessage()).isNull();
+
+		// The scorer answered it as an unknown prompt, so it goes again whole, and so does everything after it
+		this.promptRegistry.forgetAll();
+
+		assertThat(this.promptRegistry.expand(compacted)).isTrue();
+		assertThat(compacted.getSystemMessage()).isEqualTo(SYSTEM_MESSAGE);
+
+		var next = startedEvent(SYSTEM_MESSAGE);
+		this.promptRegistry.compact(next);
+		assertThat(next.getSystemMessage()).isEqualTo(SYSTEM_MESSAGE);
+	}
+
+	@Test
+	void cannotExpandUnknownHash() {
+		var event = startedEvent(null);
+		event.setSystemMessageHash(PromptRegistry.hash("Never seen"));
+
+		assertThat(this.promptRegistry.expand(event)).isFalse();
+		assertThat(event.getSystemMessage()).isNull();
+	}
+
+	private static InteractionStartedEvent startedEvent(String systemMessage) {
+		var event = new InteractionStartedEvent();
+		event.setInteractionId(UUID.randomUUID());
+		event.setSystemMessage(systemMessage);
+		event.setUserMessage("Summarize claim CLM195501");
+
+		return event;
+	}
+}
@@ -0,0 +1,58 @@
+package ai.scoring.rescore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyWindowTests {
+	@Test
+	void emptyUntilEnoughSamples() {
+		var window = new LatencyWindow(10, 3);
+		window.record(Duration.ofMillis(10));
+		window.record(Duration.ofMillis(20));
+
+		assertThat(window.percentile(95)).isEmpty();
+
+		window.record(Duration.ofMillis(30));
+
+		assertThat(window.percentile(95)).hasValue(Duration.ofMillis(30));
+	}
+
+	@Test
+	void percentiles() {
+		var window = new LatencyWindow(100, 1);
+
+		for (int i = 1; i <= 100; i++) {
+			window.record(Duration.ofMillis(i));
+		}
+
+		assertThat(window.percentile(50)).hasValue(Duration.ofMillis(50));
+		assertThat(window.percentile(95)).hasValue(Duration.ofMillis(95));
+		assertThat(window.percentile(100)).hasValue(Duration.ofMillis(100));
+	}
+
+	@Test
+	void onlyKeepsMostRecent() {
+		var window = new LatencyWindow(4, 1);
+
+		for (int i = 0; i < 4; i++) {
+			window.record(Duration.ofSeconds(10));
+		}
+
+		for (int i = 0; i < 4; i++) {
+			window.record(Duration.ofMillis(10));
+		}
+
+		assertThat(window.percentile(100)).hasValue(Duration.ofMillis(10));
+	}
+
+	@Test
+	void rejectsInvalidArguments() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new LatencyWindow(0, 1));
+		assertThatIllegalArgumentException().isThrownBy(() -> new LatencyWindow(5, 6));
+		assertThatIllegalArgumentException().isThrownBy(() -> new LatencyWindow(5, 1).percentile(0));
+	}
+}